@@ -0,0 +1,192 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Contrasta dos ficheros de resultados de JMH (-rf json) y termina con código 1 si alguna medida
+ * empeora más del umbral.
+ *
+ * Uso:
+ *   java -cp benchmarks/target/benchmarks.jar bench.Comparar base.json nuevo.json [umbral=0.10]
+ *
+ * - Una medida es un benchmark con sus parámetros. Se compara la métrica principal (tiempo medio,
+ *   o rendimiento si el modo es thrpt) y, si ambos ficheros la tienen (-prof gc), la memoria
+ *   reservada por operación (gc.alloc.rate.norm).
+ * - Solo cuenta como regresión si empeora más del umbral relativo y además más que la suma de los
+ *   dos errores: una medida ruidosa no dispara la alarma, pero tampoco da una falsa tranquilidad,
+ *   así que se avisa de las medidas cuyo error supera la mitad de su valor.
+ * - Las medidas que solo están en uno de los dos ficheros se listan aparte.
+ */
+public final class Comparar {
+
+    private static final String ASIGNACION = "·gc.alloc.rate.norm";
+
+    private static final class Medida {
+        final double valor;
+        final double error;
+        final String unidad;
+        final boolean mayorEsMejor;
+
+        Medida(double valor, double error, String unidad, boolean mayorEsMejor) {
+            this.valor = valor;
+            this.error = Double.isNaN(error) ? 0.0 : error;
+            this.unidad = unidad;
+            this.mayorEsMejor = mayorEsMejor;
+        }
+    }
+
+    private Comparar() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: bench.Comparar base.json nuevo.json [umbral]");
+            System.exit(2);
+        }
+        double umbral = args.length > 2 ? Double.parseDouble(args[2]) : 0.10;
+        Map<String, Medida> base = leer(args[0]);
+        Map<String, Medida> nuevo = leer(args[1]);
+
+        List<String> regresiones = new ArrayList<>();
+        List<String> ruidosas = new ArrayList<>();
+        for (Map.Entry<String, Medida> e : nuevo.entrySet()) {
+            Medida b = base.get(e.getKey());
+            Medida n = e.getValue();
+            if (b == null) continue;
+            double cambio = (n.valor - b.valor) / b.valor;
+            double empeora = n.mayorEsMejor ? -cambio : cambio;
+            String linea = String.format(Locale.ROOT, "%-70s %12.3f -> %12.3f %-10s %+6.1f%%",
+                    e.getKey(), b.valor, n.valor, n.unidad, cambio * 100.0);
+            System.out.println(linea);
+            if (empeora > umbral && Math.abs(n.valor - b.valor) > b.error + n.error) regresiones.add(linea);
+            if (b.error > b.valor / 2 || n.error > n.valor / 2) ruidosas.add(e.getKey());
+        }
+        for (String k : base.keySet()) if (!nuevo.containsKey(k)) System.out.println("# Solo en la base: " + k);
+        for (String k : nuevo.keySet()) if (!base.containsKey(k)) System.out.println("# Solo en el nuevo: " + k);
+        for (String k : ruidosas) System.out.println("# Error mayor que la mitad del valor (repite con más forks): " + k);
+
+        System.out.println(regresiones.isEmpty() ? "# Sin regresiones" : "# REGRESIONES:");
+        for (String r : regresiones) System.out.println("  " + r);
+        if (!regresiones.isEmpty()) System.exit(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Medida> leer(String fichero) throws IOException {
+        String json = new String(Files.readAllBytes(Paths.get(fichero)), StandardCharsets.UTF_8);
+        Map<String, Medida> res = new LinkedHashMap<>();
+        for (Object o : (List<Object>) new Json(json).valor()) {
+            Map<String, Object> r = (Map<String, Object>) o;
+            StringBuilder clave = new StringBuilder((String) r.get("benchmark"));
+            Object params = r.get("params");
+            if (params != null) {
+                // Orden fijo de los parámetros para que la clave no dependa del fichero
+                new TreeMap<>((Map<String, Object>) params).forEach((k, v) -> clave.append(' ').append(k).append('=').append(v));
+            }
+            boolean mayorEsMejor = "thrpt".equals(r.get("mode"));
+            res.put(clave.toString(), medida((Map<String, Object>) r.get("primaryMetric"), mayorEsMejor));
+            Map<String, Object> secundarias = (Map<String, Object>) r.get("secondaryMetrics");
+            if (secundarias != null && secundarias.containsKey(ASIGNACION)) {
+                res.put(clave + " " + ASIGNACION, medida((Map<String, Object>) secundarias.get(ASIGNACION), false));
+            }
+        }
+        return res;
+    }
+
+    private static Medida medida(Map<String, Object> m, boolean mayorEsMejor) {
+        return new Medida(numero(m.get("score")), numero(m.get("scoreError")), (String) m.get("scoreUnit"), mayorEsMejor);
+    }
+
+    // JMH escribe "NaN" entre comillas cuando no hay error (una sola iteración)
+    private static double numero(Object o) {
+        if (o instanceof Double) return (Double) o;
+        try {
+            return Double.parseDouble(String.valueOf(o));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    // Lector mínimo de JSON (lo justo para los ficheros de JMH): objetos, arrays, cadenas y números
+    private static final class Json {
+        private final String s;
+        private int i;
+
+        Json(String s) {
+            this.s = s;
+        }
+
+        Object valor() {
+            espacios();
+            char c = s.charAt(i);
+            if (c == '{') return objeto();
+            if (c == '[') return array();
+            if (c == '"') return cadena();
+            if (s.startsWith("true", i)) { i += 4; return Boolean.TRUE; }
+            if (s.startsWith("false", i)) { i += 5; return Boolean.FALSE; }
+            if (s.startsWith("null", i)) { i += 4; return null; }
+            int inicio = i;
+            while (i < s.length() && "+-0123456789.eE".indexOf(s.charAt(i)) >= 0) i++;
+            return Double.parseDouble(s.substring(inicio, i));
+        }
+
+        private Map<String, Object> objeto() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            i++;
+            espacios();
+            if (s.charAt(i) == '}') { i++; return m; }
+            while (true) {
+                espacios();
+                String k = cadena();
+                espacios();
+                i++; // ':'
+                m.put(k, valor());
+                espacios();
+                if (s.charAt(i++) == '}') return m;
+            }
+        }
+
+        private List<Object> array() {
+            List<Object> l = new ArrayList<>();
+            i++;
+            espacios();
+            if (s.charAt(i) == ']') { i++; return l; }
+            while (true) {
+                l.add(valor());
+                espacios();
+                if (s.charAt(i++) == ']') return l;
+            }
+        }
+
+        private String cadena() {
+            StringBuilder b = new StringBuilder();
+            i++;
+            while (true) {
+                char c = s.charAt(i++);
+                if (c == '"') return b.toString();
+                if (c == '\\') {
+                    char e = s.charAt(i++);
+                    switch (e) {
+                        case 'n': b.append('\n'); break;
+                        case 't': b.append('\t'); break;
+                        case 'u': b.append((char) Integer.parseInt(s.substring(i, i + 4), 16)); i += 4; break;
+                        default: b.append(e);
+                    }
+                } else {
+                    b.append(c);
+                }
+            }
+        }
+
+        private void espacios() {
+            while (i < s.length() && Character.isWhitespace(s.charAt(i))) i++;
+        }
+    }
+}
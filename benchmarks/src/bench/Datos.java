@@ -0,0 +1,193 @@
+package bench;
+
+import logic.BoggleBoard;
+import logic.BoggleGraphBuilder;
+import logic.BoggleSolver;
+import logic.DiccionarioFueraDeHeap;
+import logic.Dictionary;
+import logic.Jugador;
+import logic.TrieDictionary;
+import utils.AlmacenJugadores;
+import utils.AlmacenParticionado;
+import utils.DictionaryLoader;
+import utils.FicheroJugadores;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+/**
+ * Datos de entrada de los benchmarks, todos de semillas fijas: dos ejecuciones miden exactamente
+ * lo mismo. Los diccionarios se cargan una vez por JVM (cada fork de JMH tiene los suyos).
+ */
+final class Datos {
+
+    static final String RUTA_DICCIONARIO = "game_files/diccionario.txt";
+    static final int PARTICIONES = 16;
+
+    // Frecuencias aproximadas de BoggleBoard, para generar tableros reproducibles
+    private static final String LETRAS =
+            "aaaaaaabbbbccccccddddddeeeeeeeeeeffffgggghhhhiiiiiiiijjkklllllllmmmmmmmnnnnnnnn"
+                    + "oooooooopppppprrrrrrrrssssssssttttttttuuuuuuvvwwxyyyyzq";
+
+    private static Dictionary diccionario;
+    private static Dictionary congelado;
+    private static Dictionary fueraHeap;
+    private static final List<File> temporales = new ArrayList<>();
+
+    private Datos() {}
+
+    static synchronized Dictionary diccionario() throws IOException {
+        if (diccionario == null) {
+            diccionario = cargar();
+        }
+        return diccionario;
+    }
+
+    static synchronized Dictionary congelado() throws IOException {
+        if (congelado == null) {
+            congelado = cargar().freeze();
+        }
+        return congelado;
+    }
+
+    // Copia del congelado en memoria nativa; el congelado en el heap se descarta
+    static synchronized Dictionary fueraHeap() throws IOException {
+        if (fueraHeap == null) {
+            fueraHeap = DiccionarioFueraDeHeap.desde(cargar().freeze());
+        }
+        return fueraHeap;
+    }
+
+    static synchronized Dictionary representacion(String nombre) throws IOException {
+        switch (nombre) {
+            case "trie": return diccionario();
+            case "congelado": return congelado();
+            case "fueraHeap": return fueraHeap();
+            default: throw new IllegalArgumentException("Representación desconocida: " + nombre);
+        }
+    }
+
+    static TrieDictionary cargar() throws IOException {
+        TrieDictionary d = new TrieDictionary();
+        DictionaryLoader.loadIntoDictionary(RUTA_DICCIONARIO, d);
+        return d;
+    }
+
+    static BoggleBoard tablero(Random rnd) {
+        char[][] g = new char[BoggleBoard.ROWS][BoggleBoard.COLS];
+        for (char[] fila : g) {
+            for (int c = 0; c < fila.length; c++) fila[c] = LETRAS.charAt(rnd.nextInt(LETRAS.length()));
+        }
+        return new BoggleBoard(g);
+    }
+
+    // n tableros (semilla fija) cuyo número de soluciones está en [min, max)
+    static BoggleBoard[] tableros(int n, int min, int max) throws IOException {
+        Random rnd = new Random(42L + min);
+        BoggleBoard[] res = new BoggleBoard[n];
+        int k = 0;
+        while (k < n) {
+            BoggleBoard t = tablero(rnd);
+            if (min == 0 && max == Integer.MAX_VALUE) {
+                res[k++] = t;
+                continue;
+            }
+            int sols = new BoggleSolver(BoggleGraphBuilder.build(t)).findAllWords(diccionario(), 3, w -> true).size();
+            if (sols >= min && sols < max) res[k++] = t;
+        }
+        return res;
+    }
+
+    static BoggleSolver[] solvers(BoggleBoard[] tableros) {
+        BoggleSolver[] s = new BoggleSolver[tableros.length];
+        for (int i = 0; i < s.length; i++) s[i] = new BoggleSolver(BoggleGraphBuilder.build(tableros[i]));
+        return s;
+    }
+
+    // Palabras que seguro están en el diccionario: las soluciones de tableros fijos
+    static String[] muestraPalabras(int n) throws IOException {
+        Set<String> vistas = new TreeSet<>();
+        Random rnd = new Random(7);
+        while (vistas.size() < n) {
+            vistas.addAll(new BoggleSolver(BoggleGraphBuilder.build(tablero(rnd))).findAllWords(diccionario(), 3, w -> true));
+        }
+        List<String> l = new ArrayList<>(vistas);
+        Collections.shuffle(l, new Random(11));
+        return l.subList(0, n).toArray(new String[0]);
+    }
+
+    // Mezcla realista de envíos: aciertos, con tildes/mayúsculas, inventadas, cortas y con símbolos
+    static String[] envios(Set<String> soluciones, int n) {
+        List<String> sols = new ArrayList<>(soluciones);
+        sols.sort(Comparator.naturalOrder());
+        Random rnd = new Random(3);
+        String[] e = new String[n];
+        for (int i = 0; i < n; i++) {
+            String w = sols.get(rnd.nextInt(sols.size()));
+            switch (i % 5) {
+                case 0: e[i] = w; break;
+                case 1: e[i] = w.toUpperCase().replace('A', 'Á'); break;
+                case 2: e[i] = w + "x"; break;
+                case 3: e[i] = w.substring(0, 2); break;
+                default: e[i] = w + "!"; break;
+            }
+        }
+        return e;
+    }
+
+    static String nombreJugador(int i) {
+        return "jugador" + i;
+    }
+
+    static int[] permutacion(int n) {
+        int[] p = new int[n];
+        for (int i = 0; i < n; i++) p[i] = i;
+        Random rnd = new Random(n);
+        for (int i = n - 1; i > 0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int t = p[i]; p[i] = p[j]; p[j] = t;
+        }
+        return p;
+    }
+
+    // Almacén temporal con n jugadores, escrito de una pasada con el escritor masivo
+    static AlmacenJugadores almacen(int n, boolean particionado) throws IOException {
+        File dir = temporal("bench-jugadores");
+        File destino = particionado ? new File(dir, AlmacenParticionado.DIRECTORIO)
+                : new File(dir, FicheroJugadores.NOMBRE_FICHERO);
+        try (AlmacenJugadores.EscritorMasivo w = particionado
+                ? AlmacenParticionado.escritorMasivo(destino, PARTICIONES)
+                : FicheroJugadores.escritorMasivo(destino)) {
+            for (int i = 0; i < n; i++) w.escribir(new Jugador(nombreJugador(i), i % 500, i % 40, new Date(1_000_000L * i)));
+        }
+        return AlmacenJugadores.abrir(dir);
+    }
+
+    // Carpeta temporal que borrarTemporales() elimina
+    static synchronized File temporal(String prefijo) throws IOException {
+        File dir = Files.createTempDirectory(prefijo).toFile();
+        temporales.add(dir);
+        return dir;
+    }
+
+    static synchronized void borrarTemporales() {
+        for (File dir : temporales) {
+            try (Stream<Path> s = Files.walk(dir.toPath())) {
+                s.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            } catch (IOException ignored) {
+            }
+        }
+        temporales.clear();
+    }
+}
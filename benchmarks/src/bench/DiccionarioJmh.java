@@ -0,0 +1,168 @@
+package bench;
+
+import logic.DiccionarioCongelado;
+import logic.DiccionarioFueraDeHeap;
+import logic.Dictionary;
+import logic.Idioma;
+import logic.TrieDictionary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Diccionario: consultas en cada representación, carga y congelado, prefiltro por histograma de
+ * letras y mapeo del fichero fuera del heap.
+ *
+ * Las consultas usan las mismas 4096 palabras de semilla fija; los fallos les añaden "qz" y los
+ * prefijos las recortan.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiccionarioJmh {
+
+    static final int MAPEOS_POR_LOTE = 1000;
+
+    @State(Scope.Thread)
+    public static class Consultas {
+        @Param({"trie", "congelado", "fueraHeap"})
+        public String representacion;
+
+        Dictionary d;
+        String[] aciertos;
+        String[] fallos;
+        String[] prefijos;
+        int i;
+
+        @Setup
+        public void preparar() throws IOException {
+            d = Datos.representacion(representacion);
+            aciertos = Datos.muestraPalabras(4096);
+            fallos = new String[aciertos.length];
+            prefijos = new String[aciertos.length];
+            for (int k = 0; k < aciertos.length; k++) {
+                fallos[k] = aciertos[k] + "qz";
+                prefijos[k] = aciertos[k].substring(0, 1 + k % aciertos[k].length());
+            }
+        }
+    }
+
+    // Tableros de lado x lado: 4x4 es el del juego; 5x5 y 6x6 miden cómo crece con más letras
+    @State(Scope.Thread)
+    public static class Letras {
+        @Param({"4", "5", "6"})
+        public int lado;
+
+        DiccionarioCongelado d;
+        char[][] letras;
+        int i;
+
+        @Setup
+        public void preparar() throws IOException {
+            d = (DiccionarioCongelado) Datos.congelado();
+            int celdas = lado * lado;
+            Random rnd = new Random(celdas);
+            letras = new char[64][celdas];
+            for (char[] l : letras) for (int k = 0; k < celdas; k++) l[k] = Idioma.ESPANOL.letraAleatoria(rnd);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cargado {
+        TrieDictionary d;
+
+        @Setup
+        public void preparar() throws IOException {
+            d = Datos.cargar();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class FicheroTrie {
+        Path fichero;
+
+        @Setup
+        public void preparar() throws IOException {
+            File dir = Datos.temporal("bench-trie");
+            fichero = new File(dir, "diccionario.trie").toPath();
+            ((DiccionarioFueraDeHeap) Datos.fueraHeap()).escribir(fichero);
+        }
+
+        // Los mapeos solo se liberan cuando el GC recoge su buffer: sin esto se acumulan hasta agotar
+        // las regiones de memoria que el sistema permite por proceso y la JVM aborta
+        @Setup(Level.Iteration)
+        public void liberarMapeos() {
+            System.gc();
+        }
+
+        @TearDown(Level.Trial)
+        public void borrar() {
+            Datos.borrarTemporales();
+        }
+    }
+
+    @Benchmark
+    public boolean containsWordAcierto(Consultas c) {
+        return c.d.containsWord(c.aciertos[c.i++ & 4095]);
+    }
+
+    @Benchmark
+    public boolean containsWordFallo(Consultas c) {
+        return c.d.containsWord(c.fallos[c.i++ & 4095]);
+    }
+
+    @Benchmark
+    public boolean containsPrefix(Consultas c) {
+        return c.d.containsPrefix(c.prefijos[c.i++ & 4095]);
+    }
+
+    @Benchmark
+    public Object subdiccionario(Letras l) {
+        return l.d.subdiccionario(l.letras[l.i++ & 63]);
+    }
+
+    // Lotes de MAPEOS_POR_LOTE mapeos (la puntuación es el tiempo del lote), con un GC entre lotes
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 5, batchSize = MAPEOS_POR_LOTE)
+    @Measurement(iterations = 10, batchSize = MAPEOS_POR_LOTE)
+    public Object mapear(FicheroTrie f) throws IOException {
+        return DiccionarioFueraDeHeap.mapear(f.fichero);
+    }
+
+    // Carga completa del fichero y congelado: pocas iteraciones largas
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2, time = 5)
+    @Measurement(iterations = 3, time = 5)
+    public Dictionary carga() throws IOException {
+        return Datos.cargar();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2, time = 5)
+    @Measurement(iterations = 3, time = 5)
+    public Dictionary congelar(Cargado c) {
+        return c.d.freeze();
+    }
+}
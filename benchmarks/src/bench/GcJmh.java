@@ -0,0 +1,45 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pausa de un GC completo con el diccionario vivo en cada representación: el trie mutable llena el
+ * heap de nodos, el congelado son pocos arrays grandes y el de fuera del heap apenas ocupa nada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GcJmh {
+
+    @Param({"trie", "congelado", "fueraHeap"})
+    public String representacion;
+
+    private Object retenido; // lo que debe seguir vivo durante la medida
+
+    @Setup
+    public void preparar() throws IOException {
+        retenido = Datos.representacion(representacion);
+    }
+
+    @Benchmark
+    public Object completo() {
+        System.gc();
+        return retenido;
+    }
+}
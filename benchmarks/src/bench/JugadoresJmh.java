@@ -0,0 +1,73 @@
+package bench;
+
+import logic.Jugador;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import utils.AlmacenJugadores;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Almacén de jugadores según crece, en fichero único o particionado.
+ * El almacén se escribe en una carpeta temporal que se borra al terminar.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JugadoresJmh {
+
+    @Param({"1000", "10000", "100000"})
+    public int n;
+
+    @Param({"fichero", "particionado"})
+    public String almacen;
+
+    private AlmacenJugadores a;
+    private int[] orden;
+    private int i;
+
+    @Setup
+    public void preparar() throws IOException {
+        a = Datos.almacen(n, almacen.equals("particionado"));
+        orden = Datos.permutacion(n);
+    }
+
+    @TearDown
+    public void cerrar() {
+        if (a instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) a).close();
+            } catch (Exception ignored) {
+            }
+        }
+        Datos.borrarTemporales();
+    }
+
+    @Benchmark
+    public Jugador buscar() throws IOException {
+        return a.buscar(Datos.nombreJugador(orden[i++ % n]));
+    }
+
+    // Mismos campos con otros valores: el registro no cambia de tamaño
+    @Benchmark
+    public AlmacenJugadores actualizar() throws IOException {
+        int k = i++;
+        a.actualizar(new Jugador(Datos.nombreJugador(orden[k % n]), k, k, new Date(k)));
+        return a;
+    }
+}
@@ -0,0 +1,120 @@
+package bench;
+
+import logic.BoggleBatchSolver;
+import logic.BoggleBoard;
+import logic.BoggleGraphBuilder;
+import logic.BoggleSolver;
+import logic.Dictionary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolución de tableros.
+ *
+ * - construirGrafo: grafo de vecinos y solver de cada tablero.
+ * - findAllWords: 32 tableros 4x4 de semilla fija con pocas, normal o muchas soluciones, contra el
+ *   trie mutable o el congelado (que el solver recorre con máscaras de letras).
+ * - porTablero / lote: un bloque de n tableros resuelto uno a uno o de una sola pasada por el
+ *   diccionario; tableros/s = n * 1e9 / ns/op.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolverJmh {
+
+    @State(Scope.Thread)
+    public static class Tableros {
+        @Param({"pocas", "normal", "muchas"})
+        public String soluciones;
+
+        @Param({"trie", "congelado"})
+        public String representacion;
+
+        Dictionary d;
+        BoggleSolver[] s;
+        int i;
+
+        @Setup
+        public void preparar() throws IOException {
+            int min, max;
+            switch (soluciones) {
+                case "pocas": min = 0; max = 40; break;
+                case "normal": min = 40; max = 150; break;
+                default: min = 150; max = Integer.MAX_VALUE; break;
+            }
+            d = representacion.equals("trie") ? Datos.diccionario() : Datos.congelado();
+            s = Datos.solvers(Datos.tableros(32, min, max));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Bloque {
+        @Param({"64", "256", "1024"})
+        public int n;
+
+        Dictionary d;
+        BoggleSolver[] s;
+        List<BoggleBoard> tableros;
+        BoggleBatchSolver lote;
+
+        @Setup
+        public void preparar() throws IOException {
+            d = Datos.congelado();
+            BoggleBoard[] t = Datos.tableros(n, 0, Integer.MAX_VALUE);
+            s = Datos.solvers(t);
+            tableros = Arrays.asList(t);
+            lote = new BoggleBatchSolver(d);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Sueltos {
+        BoggleBoard[] t;
+        int i;
+
+        @Setup
+        public void preparar() throws IOException {
+            t = Datos.tableros(64, 0, Integer.MAX_VALUE);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public BoggleSolver construirGrafo(Sueltos s) {
+        return new BoggleSolver(BoggleGraphBuilder.build(s.t[s.i++ & 63]));
+    }
+
+    @Benchmark
+    public Set<String> findAllWords(Tableros t) {
+        return t.s[t.i++ & 31].findAllWords(t.d, 3, w -> true);
+    }
+
+    @Benchmark
+    public int porTablero(Bloque b) {
+        int total = 0;
+        for (BoggleSolver x : b.s) total += x.findAllWords(b.d, 3, w -> true).size();
+        return total;
+    }
+
+    @Benchmark
+    public List<List<String>> lote(Bloque b) {
+        return b.lote.findAllWords(b.tableros, 3, w -> true);
+    }
+}
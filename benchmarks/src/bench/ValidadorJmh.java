@@ -0,0 +1,52 @@
+package bench;
+
+import logic.BoggleBoard;
+import logic.BoggleGraphBuilder;
+import logic.BoggleSolver;
+import logic.Dictionary;
+import logic.GameWordValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validación de cada envío del jugador: mezcla de
+ * aciertos, mayúsculas con tilde, inventadas, cortas y con símbolos sobre un tablero con muchas
+ * soluciones.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidadorJmh {
+
+    private GameWordValidator v;
+    private String[] envios;
+    private int i;
+
+    @Setup
+    public void preparar() throws IOException {
+        Dictionary d = Datos.diccionario();
+        BoggleBoard t = Datos.tableros(1, 150, Integer.MAX_VALUE)[0];
+        BoggleSolver s = new BoggleSolver(BoggleGraphBuilder.build(t));
+        v = new GameWordValidator(s, d);
+        envios = Datos.envios(s.findAllWords(d, 3, w -> true), 1024);
+    }
+
+    @Benchmark
+    public Object validateUserWord() {
+        return v.validateUserWord(envios[i++ & 1023]);
+    }
+}
@@ -0,0 +1,197 @@
+package utils;
+
+import logic.Jugador;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Prueba de recuperación del almacén particionado ante cierres abruptos.
+ *
+ * Uso (tras mvn -B test-compile, desde la raíz):
+ *   java -cp "juego/target/classes:juego/target/test-classes:src/libs/*" utils.PruebaRecuperacionAlmacen [jugadores]
+ *
+ * - Para cada paso de una actualización que cambia de tamaño (antes de escribir nada; copia
+ *   anexada; copia anotada en el índice) crea un almacén en una carpeta temporal y lanza una JVM
+ *   hija que actualiza un jugador y se mata con Runtime.halt justo después de ese paso, sin cerrar
+ *   nada.
+ * - Después reabre el almacén y comprueba que no se ha perdido nadie: cada jugador se encuentra,
+ *   aparece una sola vez al recorrer y contar() coincide; el jugador interrumpido tiene el valor
+ *   viejo o el nuevo, nunca otro. Luego vuelve a actualizarlo y reabre otra vez.
+ * - Simula además los otros restos de un cierre abrupto: una cabecera de vivos que se quedó corta
+ *   (agregar la escribe la última) y un registro a medias al final de cada .dat. Al reabrir, la
+ *   cabecera debe volver a coincidir con los jugadores y la cola debe desaparecer.
+ * - Sale con código 1 si alguna comprobación falla.
+ */
+public final class PruebaRecuperacionAlmacen {
+
+    private static final int PARTICIONES = 4;
+    private static final int CODIGO_MUERTE = 97;
+    private static final int PUNTOS_NUEVOS = 777;
+
+    private PruebaRecuperacionAlmacen() {}
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 3 && args[0].equals("--hijo")) {
+            hijo(new File(args[1]), Integer.parseInt(args[2]));
+            return;
+        }
+        int jugadores = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int fallos = 0;
+        for (int paso : new int[]{AlmacenParticionado.Particion.PASO_INICIO, AlmacenParticionado.Particion.PASO_ANEXADO,
+                AlmacenParticionado.Particion.PASO_INDEXADO}) {
+            Path carpeta = Files.createTempDirectory("boggle-recuperacion");
+            try {
+                fallos += probar(carpeta.toFile(), jugadores, paso);
+            } finally {
+                borrar(carpeta);
+            }
+        }
+        Path carpeta = Files.createTempDirectory("boggle-recuperacion");
+        try {
+            fallos += probarRestos(carpeta.toFile(), jugadores);
+        } finally {
+            borrar(carpeta);
+        }
+        System.out.println(fallos == 0 ? "[Recuperacion] OK" : "[Recuperacion] " + fallos + " comprobaciones fallidas");
+        if (fallos > 0) System.exit(1);
+    }
+
+    private static int probar(File carpeta, int jugadores, int paso) throws Exception {
+        try (AlmacenParticionado a = AlmacenParticionado.crear(carpeta, PARTICIONES)) {
+            for (int i = 0; i < jugadores; i++) a.agregarSiNoExiste(new Jugador(nombre(i)));
+        }
+        int codigo = lanzarHijo(carpeta, paso);
+        if (codigo != CODIGO_MUERTE) {
+            System.out.printf("[Recuperacion] paso %d: la JVM hija terminó con %d en vez de morir en el paso%n", paso, codigo);
+            return 1;
+        }
+        int fallos = comprobar(carpeta, jugadores, paso, "tras el cierre abrupto", true);
+
+        // El almacén recuperado sigue admitiendo actualizaciones que cambian de tamaño
+        try (AlmacenParticionado a = AlmacenParticionado.abrir(carpeta)) {
+            a.actualizar(new Jugador(nombre(0), PUNTOS_NUEVOS, 1, new Date()));
+        }
+        fallos += comprobar(carpeta, jugadores, paso, "tras actualizar otra vez", false);
+        System.out.printf("[Recuperacion] paso %d: %s%n", paso, fallos == 0 ? "OK" : fallos + " fallos");
+        return fallos;
+    }
+
+    // Cabeceras cortas y colas a medias en todas las particiones; después se agrega uno más
+    private static int probarRestos(File carpeta, int jugadores) throws IOException {
+        try (AlmacenParticionado a = AlmacenParticionado.crear(carpeta, PARTICIONES)) {
+            for (int i = 0; i < jugadores; i++) a.agregarSiNoExiste(new Jugador(nombre(i)));
+        }
+        for (int i = 0; i < PARTICIONES; i++) {
+            try (RandomAccessFile dat = new RandomAccessFile(new File(carpeta, String.format("jugadores-%04d.dat", i)), "rw")) {
+                int vivos = dat.readInt();
+                dat.seek(0);
+                dat.writeInt(Math.max(0, vivos - 1));
+                dat.seek(dat.length());
+                dat.writeInt(500);            // longitud de un registro que no llegó a escribirse
+                dat.write(new byte[]{1, 2, 3});
+            }
+        }
+        int fallos = comprobar(carpeta, jugadores, -1, "con restos", true);
+        if (sumaCabeceras(carpeta) != jugadores) {
+            fallos++;
+            System.out.printf("[Recuperacion] restos: las cabeceras suman %d en vez de %d%n", sumaCabeceras(carpeta), jugadores);
+        }
+        try (AlmacenParticionado a = AlmacenParticionado.abrir(carpeta)) {
+            a.agregarSiNoExiste(new Jugador(nombre(jugadores)));
+        }
+        fallos += comprobar(carpeta, jugadores + 1, -1, "tras agregar sobre los restos", true);
+        System.out.printf("[Recuperacion] restos: %s%n", fallos == 0 ? "OK" : fallos + " fallos");
+        return fallos;
+    }
+
+    private static int sumaCabeceras(File carpeta) throws IOException {
+        int total = 0;
+        for (int i = 0; i < PARTICIONES; i++) {
+            try (RandomAccessFile dat = new RandomAccessFile(new File(carpeta, String.format("jugadores-%04d.dat", i)), "r")) {
+                total += dat.readInt();
+            }
+        }
+        return total;
+    }
+
+    // Actualiza el jugador 0 (sin fecha -> con fecha: cambia de tamaño) y muere tras el paso indicado
+    private static void hijo(File carpeta, int paso) throws IOException {
+        AlmacenParticionado a = AlmacenParticionado.abrir(carpeta, p -> {
+            if (p == paso) Runtime.getRuntime().halt(CODIGO_MUERTE);
+        });
+        a.actualizar(new Jugador(nombre(0), PUNTOS_NUEVOS, 1, new Date()));
+        System.exit(0); // no debería llegar aquí
+    }
+
+    private static int lanzarHijo(File carpeta, int paso) throws IOException, InterruptedException {
+        List<String> cmd = new ArrayList<>();
+        cmd.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        cmd.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        cmd.add("-cp");
+        cmd.add(System.getProperty("java.class.path"));
+        cmd.add(PruebaRecuperacionAlmacen.class.getName());
+        cmd.add("--hijo");
+        cmd.add(carpeta.getPath());
+        cmd.add(String.valueOf(paso));
+        return new ProcessBuilder(cmd).inheritIO().start().waitFor();
+    }
+
+    private static int comprobar(File carpeta, int jugadores, int paso, String cuando, boolean viejoValido) throws IOException {
+        int fallos = 0;
+        try (AlmacenParticionado a = AlmacenParticionado.abrir(carpeta)) {
+            for (int i = 0; i < jugadores; i++) {
+                Jugador j;
+                try {
+                    j = a.buscar(nombre(i));
+                } catch (IOException e) {
+                    j = null;
+                    System.out.printf("[Recuperacion] paso %d %s: %s no se puede leer: %s%n", paso, cuando, nombre(i), e);
+                }
+                if (j == null) {
+                    fallos++;
+                    System.out.printf("[Recuperacion] paso %d %s: falta %s%n", paso, cuando, nombre(i));
+                } else if (i == 0 && j.getPuntos() != PUNTOS_NUEVOS && !(viejoValido && j.getPuntos() == 0)) {
+                    fallos++;
+                    System.out.printf("[Recuperacion] paso %d %s: %s tiene %d puntos%n", paso, cuando, nombre(i), j.getPuntos());
+                }
+            }
+            Map<String, Integer> vistos = new HashMap<>();
+            a.recorrer(j -> vistos.merge(j.getNombre(), 1, Integer::sum));
+            for (Map.Entry<String, Integer> e : vistos.entrySet()) {
+                if (e.getValue() != 1) {
+                    fallos++;
+                    System.out.printf("[Recuperacion] paso %d %s: %s aparece %d veces al recorrer%n", paso, cuando, e.getKey(), e.getValue());
+                }
+            }
+            if (vistos.size() != jugadores || a.contar() != jugadores) {
+                fallos++;
+                System.out.printf("[Recuperacion] paso %d %s: recorrer=%d contar=%d esperados=%d%n",
+                        paso, cuando, vistos.size(), a.contar(), jugadores);
+            }
+        }
+        return fallos;
+    }
+
+    private static String nombre(int i) {
+        return String.format("jugador%05d", i);
+    }
+
+    private static void borrar(Path carpeta) throws IOException {
+        try (Stream<Path> s = Files.walk(carpeta)) {
+            for (Path p : (Iterable<Path>) s.sorted(Comparator.reverseOrder())::iterator) Files.delete(p);
+        }
+    }
+}
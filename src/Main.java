@@ -1,11 +1,358 @@
-import cu.edu.cujae.ceis.graph.LinkedGraph;
-import logic.*;
-import utils.DictionaryLoader;
+import logic.BoggleBatchSolver;
+import logic.BoggleBoard;
+import logic.BoggleGraphBuilder;
+import logic.BoggleSolver;
+import logic.Dictionary;
+import logic.Idioma;
+import logic.Partida;
+import utils.CompilarDiccionario;
+import utils.Metricas;
+import utils.RegistroIdiomas;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.Set;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
 
-// click the <icon src="AllIcons.Actions.Execute"/> icon in the gutter.
+/**
+ * Resolutor por lotes sin interfaz (analítica offline).
+ *
+ * Uso:
+ *   java -cp ... Main [entrada|-] [--formato ndjson|csv] [--hilos N] [--desordenado]
+ *                     [--diccionario fichero] [--idioma es|en|pt] [--filtrado] [--lote N]
+ *
+ * - Lee tableros de la entrada ("-" o sin argumento = stdin), uno por línea: 16 letras por filas
+ *   (se ignoran espacios y mayúsculas). Las líneas en blanco se saltan.
+ * - Un pool de hilos resuelve los tableros compartiendo un único DiccionarioCongelado (inmutable).
+ * - Cada resultado se formatea en el propio hilo que lo resolvió; un hilo "Salida" solo copia
+ *   texto a un buffer de 1 MB sobre stdout, de modo que la E/S no frena a los resolutores.
+ * - Por defecto la salida respeta el orden de entrada; con --desordenado cada tablero se escribe
+ *   en cuanto termina. En ambos casos hay como mucho EN_VUELO_POR_HILO tableros por hilo
+ *   pendientes de escribir (con --lote N, max(2, EN_VUELO_POR_HILO / N) lotes), así que la memoria
+ *   no crece con el tamaño de la entrada.
+ * - --lote N agrupa los tableros de N en N y resuelve cada grupo con BoggleBatchSolver, que recorre
+ *   el diccionario una sola vez para todo el grupo (con 256 o más, casi el doble de tableros/s que
+ *   uno a uno). Por defecto 1: cada tablero por separado.
+ * - Formatos:
+ *     ndjson -> {"linea":1,"tablero":"...","palabras":N,"puntos":P,"lista":["...",...]}
+ *     csv    -> linea,tablero,palabras,puntos,lista   (lista separada por espacios)
+ * - --idioma elige el paquete de idioma (diccionario y filtro de listado; por defecto es);
+ *   --diccionario sustituye solo el diccionario: una lista de palabras o un diccionario compilado
+ *   (.trie, ver CompilarDiccionario), que se mapea en memoria sin cargarlo.
+ * - --filtrado aplica el mismo filtro de listado que el análisis de fin de partida.
+ * - stdout queda reservado para los resultados: los mensajes (incluido el informe del diccionario)
+ *   van a stderr, y al final se informa el rendimiento (tableros/s).
+ */
 public class Main {
 
+    private static final int EN_VUELO_POR_HILO = 64;
+    private static final int TAM_BUFFER = 1 << 20;
+    private static final Future<String> FIN = CompletableFuture.completedFuture(null);
+
+    private final boolean csv;
+    private final boolean filtrado;
+    private final Dictionary dict;
+    private final Idioma idioma;
+    private final BoggleBatchSolver lote;
+
+    private final LongAdder resueltos = new LongAdder();
+    private final LongAdder palabras = new LongAdder();
+    private final LongAdder errores = new LongAdder();
+
+    private Main(Dictionary dict, Idioma idioma, boolean csv, boolean filtrado) {
+        this.dict = dict;
+        this.idioma = idioma;
+        this.csv = csv;
+        this.filtrado = filtrado;
+        this.lote = new BoggleBatchSolver(dict);
+    }
+
+    public static void main(String[] args) throws Exception {
+        String entrada = "-";
+        String formato = "ndjson";
+        String rutaDiccionario = null;
+        String codigoIdioma = Idioma.ESPANOL.getCodigo();
+        int hilos = Runtime.getRuntime().availableProcessors();
+        boolean ordenado = true;
+        boolean filtrado = false;
+        int tamLote = 1;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--formato": formato = args[++i]; break;
+                    case "--hilos": hilos = Integer.parseInt(args[++i]); break;
+                    case "--diccionario": rutaDiccionario = args[++i]; break;
+                    case "--idioma": codigoIdioma = args[++i]; break;
+                    case "--desordenado": ordenado = false; break;
+                    case "--filtrado": filtrado = true; break;
+                    case "--lote": tamLote = Integer.parseInt(args[++i]); break;
+                    default: entrada = args[i];
+                }
+            }
+        } catch (RuntimeException e) {
+            formato = null;
+        }
+        RegistroIdiomas idiomas = RegistroIdiomas.conIdiomasPorDefecto();
+        Idioma idioma = idiomas.getIdioma(codigoIdioma);
+        if (formato == null || !(formato.equals("ndjson") || formato.equals("csv")) || hilos < 1 || tamLote < 1 || idioma == null) {
+            System.err.println("Uso: Main [entrada|-] [--formato ndjson|csv] [--hilos N] [--desordenado]");
+            System.err.println("            [--diccionario fichero] [--idioma es|en|pt] [--filtrado] [--lote N]");
+            System.exit(2);
+        }
+
+        // stdout solo para resultados: cualquier traza (p. ej. la del cargador) pasa a stderr
+        Writer salida = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8), TAM_BUFFER);
+        System.setOut(System.err);
+        Metricas.iniciarExportacion();
+
+        long t0 = System.nanoTime();
+        Dictionary dict;
+        if (rutaDiccionario != null) {
+            dict = CompilarDiccionario.abrir(new File(rutaDiccionario));
+        } else {
+            dict = idiomas.obtener(codigoIdioma).getDiccionario();
+        }
+        long msDiccionario = (System.nanoTime() - t0) / 1_000_000L;
+
+        Main m = new Main(dict, idioma, formato.equals("csv"), filtrado);
+        long t1 = System.nanoTime();
+        try (InputStream in = "-".equals(entrada) ? System.in : new FileInputStream(entrada)) {
+            m.procesar(in, salida, hilos, ordenado, tamLote);
+        } catch (IOException e) {
+            System.err.println("[Resolver] Error de E/S: " + e.getMessage());
+            System.exit(1);
+        }
+        double seg = (System.nanoTime() - t1) / 1e9;
+
+        System.err.printf("[Resolver] tableros=%d | con error=%d | palabras=%d | hilos=%d | lote=%d | %s | "
+                        + "diccionario %d ms | %.2f s | %.0f tableros/s%n",
+                m.resueltos.sum(), m.errores.sum(), m.palabras.sum(), hilos, tamLote,
+                ordenado ? "ordenado" : "desordenado", msDiccionario, seg,
+                seg > 0 ? m.resueltos.sum() / seg : 0.0);
+        if (m.errores.sum() > 0) System.exit(1);
+    }
+
+    private void procesar(InputStream in, Writer salida, int hilos, boolean ordenado, int tamLote)
+            throws IOException, InterruptedException {
+        AtomicInteger n = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(hilos, r -> {
+            Thread t = new Thread(r, "Resolver-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        // Cada permiso es un resultado pendiente de escribir: un tablero o un lote entero
+        Semaphore enVuelo = new Semaphore(hilos * Math.max(2, EN_VUELO_POR_HILO / tamLote));
+        BlockingQueue<Future<String>> cola = new LinkedBlockingQueue<>();
+        IOException[] errorSalida = {null};
+
+        Thread escritor = new Thread(() -> {
+            try {
+                if (csv) salida.write("linea,tablero,palabras,puntos,lista\n");
+                Future<String> f;
+                while ((f = cola.take()) != FIN) {
+                    String linea = null;
+                    try {
+                        linea = f.get(); // en modo ordenado espera al siguiente en turno
+                    } catch (ExecutionException e) {
+                        errores.increment();
+                        System.err.println("[Resolver] Tablero falló: " + e.getCause());
+                    }
+                    if (linea != null && errorSalida[0] == null) {
+                        try {
+                            salida.write(linea);
+                        } catch (IOException e) {
+                            errorSalida[0] = e; // seguir vaciando la cola para no bloquear al lector
+                        }
+                    }
+                    enVuelo.release();
+                }
+                salida.flush();
+            } catch (IOException e) {
+                errorSalida[0] = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "Salida");
+        escritor.start();
+
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16)) {
+            String linea;
+            int numero = 0;
+            int[] numeros = new int[tamLote];
+            String[] lineas = new String[tamLote];
+            int pendientes = 0;
+            while ((linea = br.readLine()) != null) {
+                numero++;
+                if (linea.trim().isEmpty()) continue;
+                numeros[pendientes] = numero;
+                lineas[pendientes++] = linea;
+                if (pendientes < tamLote) continue;
+                if (!enviar(pool, cola, enVuelo, errorSalida, ordenado, numeros, lineas, pendientes)) break;
+                pendientes = 0;
+            }
+            if (pendientes > 0) enviar(pool, cola, enVuelo, errorSalida, ordenado, numeros, lineas, pendientes);
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+            cola.put(FIN);
+            escritor.join();
+        }
+        if (errorSalida[0] != null) throw errorSalida[0];
+    }
+
+    // Manda a resolver n líneas (una sola tarea); false si stdout ya se cerró y no hay que seguir
+    private boolean enviar(ExecutorService pool, BlockingQueue<Future<String>> cola, Semaphore enVuelo,
+                           IOException[] errorSalida, boolean ordenado, int[] numeros, String[] lineas, int n)
+            throws InterruptedException {
+        enVuelo.acquire();
+        if (errorSalida[0] != null) return false; // stdout cerrado (p. ej. "| head"): no seguir resolviendo
+        final int[] nums = Arrays.copyOf(numeros, n);
+        final String[] textos = Arrays.copyOf(lineas, n);
+        Callable<String> tarea = n == 1 ? () -> resolver(nums[0], textos[0]) : () -> resolverLote(nums, textos);
+        if (ordenado) {
+            cola.put(pool.submit(tarea));
+        } else {
+            pool.execute(() -> {
+                try {
+                    cola.add(CompletableFuture.completedFuture(tarea.call()));
+                } catch (Exception e) {
+                    cola.add(CompletableFuture.failedFuture(e));
+                }
+            });
+        }
+        return true;
+    }
+
+    // Resuelve un tablero y devuelve su línea de salida ya formateada (null si la línea no es válida)
+    private String resolver(int numero, String linea) {
+        try {
+            BoggleBoard tablero = tableroDe(numero, linea);
+            if (tablero == null) return null;
+            BoggleSolver solver = new BoggleSolver(BoggleGraphBuilder.build(tablero));
+            List<String> lista = new ArrayList<>(solver.findAllWords(dict, Partida.LONGITUD_MINIMA, filtro()));
+            Collections.sort(lista);
+            return formatear(numero, tablero, lista);
+        } catch (RuntimeException e) {
+            errores.increment();
+            System.err.println("[Resolver] Línea " + numero + " falló: " + e);
+            return null;
+        }
+    }
+
+    // Resuelve un grupo de líneas con un solo recorrido del diccionario y devuelve sus salidas seguidas
+    private String resolverLote(int[] numeros, String[] lineas) {
+        List<BoggleBoard> tableros = new ArrayList<>(lineas.length);
+        List<Integer> validos = new ArrayList<>(lineas.length);
+        for (int i = 0; i < lineas.length; i++) {
+            BoggleBoard t = tableroDe(numeros[i], lineas[i]);
+            if (t == null) continue;
+            tableros.add(t);
+            validos.add(numeros[i]);
+        }
+        try {
+            // Cada lista ya viene en orden alfabético y sin repetir
+            List<List<String>> resultados = lote.findAllWords(tableros, Partida.LONGITUD_MINIMA, filtro());
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < tableros.size(); i++) {
+                sb.append(formatear(validos.get(i), tableros.get(i), resultados.get(i)));
+            }
+            return sb.toString();
+        } catch (RuntimeException e) {
+            errores.add(tableros.size());
+            System.err.println("[Resolver] Lote de las líneas " + numeros[0] + "-" + numeros[numeros.length - 1] + " falló: " + e);
+            return null;
+        }
+    }
+
+    private Predicate<String> filtro() {
+        return filtrado ? idioma::aceptableParaListado : w -> true;
+    }
+
+    // Tablero de la línea, o null (y se cuenta como error) si no es válida
+    private BoggleBoard tableroDe(int numero, String linea) {
+        char[][] grid = parsearTablero(linea);
+        if (grid == null) {
+            errores.increment();
+            System.err.println("[Resolver] Línea " + numero + " ignorada: se esperaban "
+                    + BoggleBoard.ROWS * BoggleBoard.COLS + " letras a-z: " + linea);
+            return null;
+        }
+        return new BoggleBoard(grid);
+    }
+
+    // Línea de salida de un tablero resuelto (lista ya ordenada)
+    private String formatear(int numero, BoggleBoard tablero, List<String> lista) {
+        int puntos = 0;
+        for (String w : lista) puntos += Partida.puntosPorLongitud(w.length());
+        resueltos.increment();
+        palabras.add(lista.size());
+        return csv ? formatearCsv(numero, tablero.getClave(), lista, puntos)
+                : formatearJson(numero, tablero.getClave(), lista, puntos);
+    }
+
+    // 16 letras a-z (por filas); se ignoran los espacios y las mayúsculas
+    private static char[][] parsearTablero(String linea) {
+        char[][] grid = new char[BoggleBoard.ROWS][BoggleBoard.COLS];
+        int k = 0;
+        for (int i = 0; i < linea.length(); i++) {
+            char c = Character.toLowerCase(linea.charAt(i));
+            if (Character.isWhitespace(c)) continue;
+            if (c < 'a' || c > 'z' || k >= BoggleBoard.ROWS * BoggleBoard.COLS) return null;
+            grid[k / BoggleBoard.COLS][k % BoggleBoard.COLS] = c;
+            k++;
+        }
+        return k == BoggleBoard.ROWS * BoggleBoard.COLS ? grid : null;
+    }
+
+    // Tablero y palabras son solo a-z: no hace falta escapar nada
+    private static String formatearJson(int numero, String clave, List<String> lista, int puntos) {
+        StringBuilder sb = new StringBuilder(64 + lista.size() * 10);
+        sb.append("{\"linea\":").append(numero)
+                .append(",\"tablero\":\"").append(clave)
+                .append("\",\"palabras\":").append(lista.size())
+                .append(",\"puntos\":").append(puntos)
+                .append(",\"lista\":[");
+        for (int i = 0; i < lista.size(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append('"').append(lista.get(i)).append('"');
+        }
+        return sb.append("]}\n").toString();
+    }
+
+    private static String formatearCsv(int numero, String clave, List<String> lista, int puntos) {
+        StringBuilder sb = new StringBuilder(32 + lista.size() * 8);
+        sb.append(numero).append(',').append(clave).append(',')
+                .append(lista.size()).append(',').append(puntos).append(',');
+        for (int i = 0; i < lista.size(); i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(lista.get(i));
+        }
+        return sb.append('\n').toString();
+    }
 }
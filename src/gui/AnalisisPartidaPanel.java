@@ -0,0 +1,145 @@
+package gui;
+
+import logic.Partida;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Análisis de fin de partida: palabras que se escaparon (agrupadas por longitud), puntuación
+ * máxima posible y porcentaje encontrado.
+ *
+ * - Las soluciones no se vuelven a buscar: salen del trie de soluciones de la partida, filtradas
+ *   con la heurística de listado del idioma en un SwingWorker que arranca con la partida, así que
+ *   al terminar normalmente ya está hecho y el resumen aparece sin espera.
+ * - Las palabras llegan por publish/process; si el panel ya está visible se va completando sobre
+ *   la marcha.
+ * - Todo el estado se modifica en el EDT (process/done).
+ */
+public class AnalisisPartidaPanel extends JPanel {
+
+    private final Partida partida;
+    private final Buscador buscador = new Buscador();
+
+    // Soluciones por longitud (de mayor a menor), en orden alfabético dentro de cada grupo
+    private final Map<Integer, Set<String>> porLongitud = new TreeMap<>(Comparator.reverseOrder());
+    private int totalSoluciones;
+    private int puntosSoluciones;
+    private boolean terminado;
+    private boolean mostrado;
+
+    private final JLabel lblResumen = new JLabel(" ");
+    private final JTextArea txtFalladas = new JTextArea(10, 36);
+
+    public AnalisisPartidaPanel(Partida partida) {
+        this.partida = partida;
+        setLayout(new BorderLayout(6, 6));
+        lblResumen.setFont(lblResumen.getFont().deriveFont(Font.BOLD));
+        add(lblResumen, BorderLayout.NORTH);
+        txtFalladas.setEditable(false);
+        txtFalladas.setLineWrap(true);
+        txtFalladas.setWrapStyleWord(true);
+        add(new JScrollPane(txtFalladas), BorderLayout.CENTER);
+    }
+
+    // Lanza la búsqueda en segundo plano (una sola vez)
+    public void iniciar() {
+        if (buscador.getState() == SwingWorker.StateValue.PENDING) buscador.execute();
+    }
+
+    public void cancelar() {
+        buscador.cancel(true);
+    }
+
+    /**
+     * Empieza a pintar el resultado: a partir de aquí cada lote de palabras nuevas actualiza la vista.
+     * Llamar cuando la partida ya terminó (las aceptadas no cambian más).
+     */
+    public void mostrar() {
+        mostrado = true;
+        refrescar();
+    }
+
+    public boolean isTerminado() {
+        return terminado;
+    }
+
+    private void refrescar() {
+        if (!mostrado) return;
+        List<String> aceptadas = partida.getPalabrasAceptadas();
+        Set<String> encontradas = new TreeSet<>(aceptadas);
+
+        // Total = soluciones listables + las aceptadas que el filtro de listado hubiera ocultado
+        int total = totalSoluciones;
+        int maximo = puntosSoluciones;
+        for (String w : encontradas) {
+            Set<String> grupo = porLongitud.get(w.length());
+            if (grupo == null || !grupo.contains(w)) {
+                total++;
+                maximo += Partida.puntosPorLongitud(w.length());
+            }
+        }
+        double pct = total == 0 ? 0.0 : 100.0 * encontradas.size() / total;
+        lblResumen.setText(String.format("Encontradas %d de %d (%.1f%%)  ·  %d de %d puntos posibles%s",
+                encontradas.size(), total, pct, partida.getPuntosTotales(), maximo,
+                terminado ? "" : "  ·  calculando..."));
+
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<Integer, Set<String>> e : porLongitud.entrySet()) {
+            int antes = sb.length();
+            sb.append(e.getKey()).append(" letras (").append(Partida.puntosPorLongitud(e.getKey())).append(" pts): ");
+            int inicioPalabras = sb.length();
+            for (String w : e.getValue()) {
+                if (encontradas.contains(w)) continue;
+                if (sb.length() > inicioPalabras) sb.append(", ");
+                sb.append(w);
+            }
+            if (sb.length() == inicioPalabras) sb.setLength(antes); // grupo sin palabras falladas
+            else sb.append("\n\n");
+        }
+        if (sb.length() == 0) sb.append(terminado ? "¡No se escapó ninguna palabra!" : "Buscando palabras...");
+        txtFalladas.setText(sb.toString());
+        txtFalladas.setCaretPosition(0);
+    }
+
+    private final class Buscador extends SwingWorker<Void, String> {
+        @Override
+        protected Void doInBackground() {
+            for (String w : partida.getSolucionesListables()) {
+                if (isCancelled()) throw new CancellationException();
+                publish(w);
+            }
+            return null;
+        }
+
+        @Override
+        protected void process(List<String> lote) {
+            for (String w : lote) {
+                if (porLongitud.computeIfAbsent(w.length(), k -> new TreeSet<>()).add(w)) {
+                    totalSoluciones++;
+                    puntosSoluciones += Partida.puntosPorLongitud(w.length());
+                }
+            }
+            refrescar();
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) return;
+            try {
+                get();
+            } catch (Exception e) {
+                System.err.println("Advertencia analizando la partida: " + TareasEDT.causaReal(e).getMessage());
+            }
+            terminado = true;
+            refrescar();
+        }
+    }
+}
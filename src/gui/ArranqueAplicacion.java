@@ -0,0 +1,180 @@
+package gui;
+
+import logic.Dictionary;
+import logic.PoolTableros;
+import utils.GestorDiccionario;
+import utils.Metricas;
+
+import javax.swing.*;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Orquesta el arranque: lanza en paralelo, nada más iniciar la aplicación, todo lo que la primera
+ * partida necesita, en lugar de hacerlo paso a paso o al pulsar el primer botón.
+ *
+ *  - DICCIONARIO: carga del trie (hilo "Arranque"); después GestorDiccionario lo recarga en caliente
+ *    cuando cambia el fichero, y la reserva de tableros pasa a la versión nueva.
+ *  - AUDIO: pool de clips (hilo propio de AudioManager).
+ *  - TABLEROS: en cuanto hay diccionario, prepara la reserva de tableros (hilo "Arranque").
+ *  - JUGADORES: precarga del repositorio; la registra MainFrame cuando abre el almacén.
+ *
+ * La interfaz se suscribe a los cambios de estado (siempre entregados en el EDT) para mostrar qué
+ * está listo. Cada arranque deja en el log el tiempo hasta la primera partida jugable, medido desde
+ * el inicio de la JVM.
+ */
+public final class ArranqueAplicacion {
+
+    public enum Subsistema {
+        DICCIONARIO("Diccionario"),
+        JUGADORES("Jugadores"),
+        AUDIO("Audio"),
+        TABLEROS("Tableros");
+
+        public final String etiqueta;
+
+        Subsistema(String etiqueta) {
+            this.etiqueta = etiqueta;
+        }
+    }
+
+    public enum Estado { CARGANDO, LISTO, ERROR }
+
+    public static final String RUTA_DICCIONARIO = "game_files/diccionario.txt";
+
+    private final ExecutorService ejecutor;
+    private final Map<Subsistema, Long> milis = new ConcurrentHashMap<>();
+    private final Map<Subsistema, Estado> estados = new ConcurrentHashMap<>();
+    private final List<BiConsumer<Subsistema, Estado>> oyentes = new CopyOnWriteArrayList<>();
+    private final long inicioNanos = System.nanoTime();
+
+    private final CompletableFuture<GestorDiccionario> diccionario;
+    private final CompletableFuture<PoolTableros> tableros;
+
+    private ArranqueAplicacion() {
+        AtomicInteger n = new AtomicInteger();
+        this.ejecutor = Executors.newFixedThreadPool(2, r -> {
+            Thread t = new Thread(r, "Arranque-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        this.diccionario = CompletableFuture.supplyAsync(() -> {
+            try {
+                // Cada versión es inmutable: la comparten el pool de tableros, las partidas y sus análisis
+                GestorDiccionario g = GestorDiccionario.abrir(RUTA_DICCIONARIO);
+                try {
+                    g.vigilar();
+                } catch (IOException e) {
+                    // Sin vigilancia se juega igual con el diccionario ya cargado, solo que sin recarga en caliente
+                    System.err.println("[Diccionario] No se podrá recargar en caliente: " + e.getMessage());
+                }
+                return g;
+            } catch (Exception e) {
+                throw new IllegalStateException("No se pudo cargar el diccionario: " + e.getMessage(), e);
+            }
+        }, ejecutor);
+        registrar(Subsistema.DICCIONARIO, diccionario);
+
+        registrar(Subsistema.AUDIO, AudioManager.preloadClick());
+
+        // El primer tablero se prepara ya; el resto de la reserva se completa después
+        this.tableros = diccionario.thenApplyAsync(g -> {
+            PoolTableros pool = new PoolTableros(g::actual, ejecutor);
+            pool.asegurarDisponible();
+            pool.rellenarEnSegundoPlano();
+            g.alCambiar(d -> pool.renovar());
+            return pool;
+        }, ejecutor);
+        // registrar() termina también si falla: solo se anota la primera partida si hay tableros
+        registrar(Subsistema.TABLEROS, tableros).thenRun(() -> {
+            if (estados.get(Subsistema.TABLEROS) != Estado.LISTO) return;
+            System.out.printf("[Arranque] Primera partida jugable a los %d ms del inicio de la JVM (%d ms desde el orquestador) | %s%n",
+                    ManagementFactory.getRuntimeMXBean().getUptime(),
+                    (System.nanoTime() - inicioNanos) / 1_000_000L, resumen());
+        });
+    }
+
+    // Arranca todos los subsistemas (llamar lo antes posible, en main)
+    public static ArranqueAplicacion iniciar() {
+        return new ArranqueAplicacion();
+    }
+
+    /**
+     * Añade un subsistema cuya carga ya está en marcha (p. ej. la precarga de jugadores).
+     * El future devuelto termina después de anotar el tiempo y el estado del subsistema.
+     */
+    public CompletableFuture<Void> registrar(Subsistema s, CompletableFuture<?> carga) {
+        estados.put(s, Estado.CARGANDO);
+        notificar(s, Estado.CARGANDO);
+        return carga.handle((v, e) -> {
+            long nanos = System.nanoTime() - inicioNanos;
+            milis.put(s, nanos / 1_000_000L);
+            Metricas.histograma("arranque." + s.name().toLowerCase()).registrar(nanos);
+            Estado fin = e == null && !Boolean.FALSE.equals(v) ? Estado.LISTO : Estado.ERROR;
+            estados.put(s, fin);
+            if (e != null) {
+                System.err.println("[Arranque] " + s.etiqueta + " falló: " + TareasEDT.causaReal(e).getMessage());
+            } else {
+                System.out.println("[Arranque] " + s.etiqueta + (fin == Estado.LISTO ? " listo" : " no disponible")
+                        + " en " + milis.get(s) + " ms");
+            }
+            notificar(s, fin);
+            return null;
+        });
+    }
+
+    /**
+     * Suscribe un oyente que recibe (en el EDT) el estado actual de cada subsistema y sus cambios.
+     */
+    public void alCambiarEstado(BiConsumer<Subsistema, Estado> oyente) {
+        oyentes.add(oyente);
+        for (Map.Entry<Subsistema, Estado> e : estados.entrySet()) {
+            Subsistema s = e.getKey();
+            SwingUtilities.invokeLater(() -> oyente.accept(s, estados.get(s)));
+        }
+    }
+
+    // Versión vigente del diccionario en cuanto está cargado (puede cambiar después, ver gestorDiccionario)
+    public CompletableFuture<Dictionary> diccionario() {
+        return diccionario.thenApply(GestorDiccionario::actual);
+    }
+
+    public CompletableFuture<GestorDiccionario> gestorDiccionario() {
+        return diccionario;
+    }
+
+    public CompletableFuture<PoolTableros> tableros() {
+        return tableros;
+    }
+
+    public Long getMilis(Subsistema s) {
+        return milis.get(s);
+    }
+
+    public String resumen() {
+        StringBuilder sb = new StringBuilder();
+        for (Subsistema s : Subsistema.values()) {
+            if (sb.length() > 0) sb.append(", ");
+            Long ms = milis.get(s);
+            sb.append(s.etiqueta.toLowerCase()).append('=')
+                    .append(ms == null ? "pendiente" : ms + " ms");
+        }
+        return sb.toString();
+    }
+
+    private void notificar(Subsistema s, Estado e) {
+        for (BiConsumer<Subsistema, Estado> o : oyentes) {
+            SwingUtilities.invokeLater(() -> o.accept(s, e));
+        }
+    }
+}
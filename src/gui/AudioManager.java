@@ -1,16 +1,56 @@
 package gui;
 
+import utils.Metricas;
+
 import javax.sound.sampled.*;
 import java.awt.*;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Sonidos de la interfaz.
+ *
+ * - Un hilo propio ("Audio") decodifica el clic una vez y abre un pool de TAM_POOL clips con
+ *   esos datos; el EDT nunca abre líneas ni espera al dispositivo.
+ * - playClick() solo encola la marca de tiempo de la petición (cola sin bloqueos) y despierta
+ *   al hilo de audio, que arranca el siguiente clip libre del pool. Varios clics seguidos suenan
+ *   superpuestos (los mezcla el mezclador del sistema) en vez de cortarse entre sí.
+ * - Se mide la latencia petición -> start() del clip; las peticiones que esperaron más de
+ *   DESCARTAR_MS (p. ej. mientras se cargaba el audio) se descartan en vez de sonar tarde.
+ */
 public final class AudioManager {
-    private static boolean enabled = true;
-    private static String clickPath = "game_files/click.wav";
-    private static Clip clickClip;
-    private static boolean preloaded = false;
+    private static final int TAM_POOL = 4;
+    private static final long DESCARTAR_MS = 250;
+
+    private static volatile boolean enabled = true;
+    private static volatile String clickPath = "game_files/click.wav";
+
+    // Comunicación con el hilo de audio
+    private static final ConcurrentLinkedQueue<Long> PETICIONES = new ConcurrentLinkedQueue<>();
+    private static final AtomicBoolean RECARGAR = new AtomicBoolean(true);
+    private static volatile CompletableFuture<Boolean> carga = new CompletableFuture<>();
+    private static Thread hilo;
+
+    // Solo los usa el hilo de audio
+    private static Clip[] pool = new Clip[0];
+    private static int siguiente;
+
+    // Latencia petición -> start()
+    private static final LongAdder REPRODUCIDOS = new LongAdder();
+    private static final LongAdder DESCARTADOS = new LongAdder();
+    private static final LongAdder NANOS_LATENCIA = new LongAdder();
+    private static final AtomicLong MAX_NANOS_LATENCIA = new AtomicLong();
+    private static final Metricas.Histograma H_LATENCIA = Metricas.histograma("audio.latencia");
 
     private AudioManager() {}
 
@@ -22,63 +62,166 @@ public final class AudioManager {
         enabled = on;
     }
 
-    public static void setClickPath(String path) {
+    // Quien ya tenga el future de preloadClick() recibe el resultado de la carga con la ruta nueva
+    public static synchronized void setClickPath(String path) {
         clickPath = path;
-        preloaded = false; // fuerza recarga con la nueva ruta
-        closeClip();
+        CompletableFuture<Boolean> anterior = carga;
+        carga = new CompletableFuture<>();
+        carga.thenAccept(anterior::complete);
+        RECARGAR.set(true); // el hilo de audio rehace el pool con la nueva ruta
+        asegurarHilo();
+        LockSupport.unpark(hilo);
     }
 
-    public static void preloadClick() {
-        if (preloaded) return;
-        closeClip();
+    /**
+     * Lanza (en el hilo de audio) la carga del clic y la apertura del pool. No bloquea:
+     * el future indica si hay audio disponible (false = se usará el pitido del sistema).
+     */
+    public static CompletableFuture<Boolean> preloadClick() {
+        asegurarHilo();
+        return carga;
+    }
 
-        try {
-            // 1) Intenta cargar desde archivo
-            File f = new File(clickPath);
-            AudioInputStream ais = null;
+    public static void playClick() {
+        if (!enabled) return;
+        PETICIONES.offer(System.nanoTime());
+        asegurarHilo();
+        LockSupport.unpark(hilo);
+    }
 
-            if (f.exists()) {
-                System.out.println("[Audio] Cargando desde archivo: " + f.getAbsolutePath() + " (" + f.length() + " bytes)");
-                ais = AudioSystem.getAudioInputStream(f);
-            } else {
-                // 2) Alternativa: desde recursos del classpath (si se empaqueta dentro del jar)
-                URL res = AudioManager.class.getClassLoader().getResource(clickPath);
-                if (res != null) {
-                    System.out.println("[Audio] Cargando desde recurso: " + res);
-                    ais = AudioSystem.getAudioInputStream(res);
-                }
+    // ---------------------------------------------------------------------------------
+    // Estadísticas
+    // ---------------------------------------------------------------------------------
+
+    public static long getReproducidos() {
+        return REPRODUCIDOS.sum();
+    }
+
+    public static long getDescartados() {
+        return DESCARTADOS.sum();
+    }
+
+    public static double getLatenciaMediaMicros() {
+        long n = REPRODUCIDOS.sum();
+        return n == 0 ? 0.0 : NANOS_LATENCIA.sum() / 1000.0 / n;
+    }
+
+    public static String resumenLatencia() {
+        return String.format("clics=%d | descartados=%d | latencia media=%.1f us | latencia max=%.1f us",
+                getReproducidos(), getDescartados(), getLatenciaMediaMicros(), MAX_NANOS_LATENCIA.get() / 1000.0);
+    }
+
+    // ---------------------------------------------------------------------------------
+    // Hilo de audio
+    // ---------------------------------------------------------------------------------
+
+    private static synchronized void asegurarHilo() {
+        if (hilo != null) return;
+        hilo = new Thread(AudioManager::bucle, "Audio");
+        hilo.setDaemon(true);
+        hilo.setPriority(Thread.MAX_PRIORITY);
+        hilo.start();
+    }
+
+    private static void bucle() {
+        long descartarNanos = TimeUnit.MILLISECONDS.toNanos(DESCARTAR_MS);
+        while (true) {
+            if (RECARGAR.getAndSet(false)) {
+                CompletableFuture<Boolean> f = carga;
+                cerrarPool();
+                f.complete(abrirPool());
             }
+            Long pedido = PETICIONES.poll();
+            if (pedido == null) {
+                LockSupport.park();
+                continue;
+            }
+            if (!enabled) continue;
+            if (System.nanoTime() - pedido > descartarNanos) {
+                DESCARTADOS.increment();
+                continue;
+            }
+            reproducir(pedido);
+        }
+    }
 
-            if (ais == null) {
-                System.err.println("[Audio] No se encontró el fichero de audio en: " + clickPath);
-                preloaded = true; // evita reintentos constantes
+    private static void reproducir(long pedido) {
+        Clip clip = siguienteClip();
+        if (clip != null) {
+            try {
+                if (clip.isRunning()) clip.stop();
+                clip.setFramePosition(0);
+                clip.start();
+                registrarLatencia(pedido);
                 return;
+            } catch (Exception e) {
+                System.err.println("[Audio] Falló reproducción de clip precargado: " + e.getMessage());
             }
+        }
+        // Fallback mínimo para no dejar el clic “mudo”
+        Toolkit.getDefaultToolkit().beep();
+        registrarLatencia(pedido);
+    }
 
-            // Intentar convertir a PCM_SIGNED 16-bit si el formato original no es PCM
-            AudioFormat base = ais.getFormat();
-            AudioFormat decoded = base;
-            if (base.getEncoding() != AudioFormat.Encoding.PCM_SIGNED) {
-                decoded = new AudioFormat(
-                        AudioFormat.Encoding.PCM_SIGNED,
-                        base.getSampleRate(),
-                        16,
-                        base.getChannels(),
-                        base.getChannels() * 2,
-                        base.getSampleRate(),
-                        false
-                );
-                if (AudioSystem.isConversionSupported(decoded, base)) {
-                    ais = AudioSystem.getAudioInputStream(decoded, ais);
-                } else {
-                    System.err.println("[Audio] Conversión a PCM_SIGNED no soportada para este archivo.");
-                }
+    // Primer clip libre en orden circular; si todos suenan, el más antiguo
+    private static Clip siguienteClip() {
+        if (pool.length == 0) return null;
+        for (int i = 0; i < pool.length; i++) {
+            Clip c = pool[(siguiente + i) % pool.length];
+            if (!c.isRunning()) {
+                siguiente = (siguiente + i + 1) % pool.length;
+                return c;
+            }
+        }
+        Clip c = pool[siguiente];
+        siguiente = (siguiente + 1) % pool.length;
+        return c;
+    }
+
+    private static void registrarLatencia(long pedido) {
+        long latencia = System.nanoTime() - pedido;
+        REPRODUCIDOS.increment();
+        NANOS_LATENCIA.add(latencia);
+        H_LATENCIA.registrar(latencia);
+        long max;
+        while (latencia > (max = MAX_NANOS_LATENCIA.get())) {
+            if (MAX_NANOS_LATENCIA.compareAndSet(max, latencia)) break;
+        }
+    }
+
+    private static boolean abrirPool() {
+        String ruta = clickPath;
+        try {
+            AudioInputStream ais = abrirAudio(ruta);
+            if (ais == null) {
+                System.err.println("[Audio] No se encontró el fichero de audio en: " + ruta);
+                return false;
             }
+            // Decodificar una sola vez; todos los clips comparten los mismos datos PCM
+            AudioFormat formato = ais.getFormat();
+            ByteArrayOutputStream pcm = new ByteArrayOutputStream();
+            byte[] buf = new byte[8192];
+            int n;
+            while ((n = ais.read(buf)) > 0) pcm.write(buf, 0, n);
+            ais.close();
+            byte[] datos = pcm.toByteArray();
 
-            clickClip = AudioSystem.getClip();
-            clickClip.open(ais); // carga en memoria
-            preloaded = true;
-            System.out.println("[Audio] Clip precargado. Formato: " + clickClip.getFormat());
+            Clip[] nuevos = new Clip[TAM_POOL];
+            int abiertos = 0;
+            try {
+                for (; abiertos < TAM_POOL; abiertos++) {
+                    Clip c = AudioSystem.getClip();
+                    c.open(formato, datos, 0, datos.length);
+                    nuevos[abiertos] = c;
+                }
+            } catch (LineUnavailableException e) {
+                // El dispositivo admite menos líneas: nos quedamos con las que se abrieron
+                if (abiertos == 0) throw e;
+            }
+            pool = Arrays.copyOf(nuevos, abiertos);
+            siguiente = 0;
+            System.out.println("[Audio] Pool de " + abiertos + " clips precargado. Formato: " + formato);
+            return true;
 
         } catch (UnsupportedAudioFileException e) {
             System.err.println("[Audio] Formato de audio no soportado: " + e.getMessage());
@@ -89,42 +232,56 @@ public final class AudioManager {
         } catch (Exception e) {
             System.err.println("[Audio] Error inesperado: " + e.getMessage());
         }
+        return false;
     }
 
-    public static void playClick() {
-        if (!enabled) return;
-
-        if (!preloaded) {
-            preloadClick();
+    private static AudioInputStream abrirAudio(String ruta) throws UnsupportedAudioFileException, IOException {
+        AudioInputStream ais = null;
+        // 1) Intenta cargar desde archivo
+        File f = new File(ruta);
+        if (f.exists()) {
+            System.out.println("[Audio] Cargando desde archivo: " + f.getAbsolutePath() + " (" + f.length() + " bytes)");
+            ais = AudioSystem.getAudioInputStream(f);
+        } else {
+            // 2) Alternativa: desde recursos del classpath (si se empaqueta dentro del jar)
+            URL res = AudioManager.class.getClassLoader().getResource(ruta);
+            if (res != null) {
+                System.out.println("[Audio] Cargando desde recurso: " + res);
+                ais = AudioSystem.getAudioInputStream(res);
+            }
         }
+        if (ais == null) return null;
 
-        if (clickClip != null) {
-            try {
-                if (clickClip.isRunning()) {
-                    clickClip.stop();
-                }
-                clickClip.setFramePosition(0);
-                clickClip.start();
-                return;
-            } catch (Exception e) {
-                System.err.println("[Audio] Falló reproducción de clip precargado: " + e.getMessage());
+        // Intentar convertir a PCM_SIGNED 16-bit si el formato original no es PCM
+        AudioFormat base = ais.getFormat();
+        if (base.getEncoding() != AudioFormat.Encoding.PCM_SIGNED) {
+            AudioFormat decoded = new AudioFormat(
+                    AudioFormat.Encoding.PCM_SIGNED,
+                    base.getSampleRate(),
+                    16,
+                    base.getChannels(),
+                    base.getChannels() * 2,
+                    base.getSampleRate(),
+                    false
+            );
+            if (AudioSystem.isConversionSupported(decoded, base)) {
+                ais = AudioSystem.getAudioInputStream(decoded, ais);
+            } else {
+                System.err.println("[Audio] Conversión a PCM_SIGNED no soportada para este archivo.");
             }
         }
-
-        // Fallback mínimo para no dejar el clic “mudo”
-        Toolkit.getDefaultToolkit().beep();
+        return ais;
     }
 
-    private static void closeClip() {
-        try {
-            if (clickClip != null) {
-                clickClip.stop();
-                clickClip.flush();
-                clickClip.close();
+    private static void cerrarPool() {
+        for (Clip c : pool) {
+            try {
+                c.stop();
+                c.flush();
+                c.close();
+            } catch (Exception ignored) {
             }
-        } catch (Exception ignored) {
-        } finally {
-            clickClip = null;
         }
+        pool = new Clip[0];
     }
-}
\ No newline at end of file
+}
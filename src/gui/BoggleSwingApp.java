@@ -1,19 +1,22 @@
 package gui;
 
+import utils.Metricas;
+
 import javax.swing.*;
 
 public class BoggleSwingApp {
     public static void main(String[] args) {
+        Metricas.iniciarExportacion(); // solo si se pidió con -Dboggle.metricas.*
+        // Configura la ruta si usas otra y arranca en paralelo diccionario, audio y tableros
+        AudioManager.setClickPath("game_files/click.wav");
+        ArranqueAplicacion arranque = ArranqueAplicacion.iniciar();
+
         SwingUtilities.invokeLater(() -> {
             try {
                 UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
             } catch (Exception ignored) {}
 
-            // Configura la ruta si usas otra y precarga
-            AudioManager.setClickPath("game_files/click.wav");
-            AudioManager.preloadClick();
-
-            MainFrame frame = new MainFrame();
+            MainFrame frame = new MainFrame(arranque);
             frame.setVisible(true);
         });
     }
@@ -1,12 +1,12 @@
 package gui;
 
-import logic.BoggleBoard;
 import logic.Partida;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.ActionEvent;
-import java.util.Locale;
 
 /**
  * Panel de juego conectado con la lógica (Partida).
@@ -14,6 +14,7 @@ import java.util.Locale;
  * - Valida palabras usando partida.enviarPalabra(...)
  * - Muestra feedback y puntos de la partida actual
  * - Resalta temporalmente las celdas usadas por una palabra válida
+ * - Al terminar muestra las palabras que se escaparon (calculadas en segundo plano)
  */
 public class GamePanel extends JPanel {
 
@@ -23,29 +24,29 @@ public class GamePanel extends JPanel {
     }
 
     private static final int DURACION_SEGUNDOS = 180;
-    private static final Color HIGHLIGHT_BG = new Color(255, 230, 153);
-    private static final Color DEFAULT_BG = new Color(240, 240, 240);
+    private static final int ESPERA_PREFIJO_MS = 60; // agrupa pulsaciones seguidas en una sola consulta
 
     private final JLabel lblJugador = new JLabel();
     private final JLabel lblTiempo = new JLabel("03:00");
     private final JLabel lblPuntos = new JLabel("Puntos: 0");
-    private final JPanel panelTablero = new JPanel(new GridLayout(4, 4, 6, 6));
+    private final TableroComponent tablero = new TableroComponent();
     private final JTextField txtPalabra = new JTextField();
     private final JButton btnAgregar = new JButton("Agregar");
     private final JLabel lblFeedback = new JLabel(" ");
+    private final JLabel lblPrefijo = new JLabel(" ");
+    private final Timer timerPrefijo = new Timer(ESPERA_PREFIJO_MS, e -> actualizarPrefijo());
     private final JButton btnCancelar = new JButton("Cancelar");
     private final JButton btnFinalizar = new JButton("Finalizar");
 
-    private final JLabel[][] cellLabels = new JLabel[4][4];
-    private Timer highlightTimer;
-
     private int segundosRestantes = DURACION_SEGUNDOS;
     private Timer timer;
     private final Partida partida;
+    private final AnalisisPartidaPanel analisis;
 
     public GamePanel(Partida partida, GameActions actions, Icon relojArenaGif) {
         if (partida == null) throw new IllegalArgumentException("partida no puede ser null");
         this.partida = partida;
+        this.analisis = new AnalisisPartidaPanel(partida);
 
         setLayout(new BorderLayout(10, 10));
 
@@ -67,9 +68,8 @@ public class GamePanel extends JPanel {
         add(north, BorderLayout.NORTH);
 
         // Centro: tablero
-        panelTablero.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-        cargarTablero(partida.getTablero().getGrid());
-        add(panelTablero, BorderLayout.CENTER);
+        tablero.setTablero(partida.getTablero().getGrid());
+        add(tablero, BorderLayout.CENTER);
 
         // Sur: entrada de palabras y feedback
         JPanel input = new JPanel(new BorderLayout(8, 8));
@@ -77,6 +77,8 @@ public class GamePanel extends JPanel {
         JPanel fieldRow = new JPanel(new BorderLayout(6, 6));
         fieldRow.add(txtPalabra, BorderLayout.CENTER);
         fieldRow.add(btnAgregar, BorderLayout.EAST);
+        lblPrefijo.setFont(lblPrefijo.getFont().deriveFont(Font.PLAIN, 12f));
+        fieldRow.add(lblPrefijo, BorderLayout.SOUTH);
         input.add(fieldRow, BorderLayout.NORTH);
 
         lblFeedback.setForeground(new Color(30, 90, 30));
@@ -93,11 +95,31 @@ public class GamePanel extends JPanel {
         btnAgregar.addActionListener(this::agregarPalabra);
         txtPalabra.addActionListener(this::agregarPalabra);
 
+        // Indicador en vivo: cada cambio reinicia la espera; la consulta solo usa el trie de soluciones
+        timerPrefijo.setRepeats(false);
+        txtPalabra.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                timerPrefijo.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                timerPrefijo.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                timerPrefijo.restart();
+            }
+        });
+
         btnCancelar.addActionListener(e -> {
             AudioManager.playClick();
             if (timer != null) timer.stop();
             int opt = JOptionPane.showConfirmDialog(this, "¿Cancelar partida y volver al menú?", "Confirmar", JOptionPane.YES_NO_OPTION);
             if (opt == JOptionPane.YES_OPTION) {
+                analisis.cancelar();
                 actions.onVolverMenu();
             } else {
                 iniciarTimer(); // reanudar
@@ -112,30 +134,13 @@ public class GamePanel extends JPanel {
         // Iniciar la partida y el timer
         partida.iniciar();
         iniciarTimer();
+        // Las soluciones se calculan mientras se juega, para el resumen final
+        analisis.iniciar();
 
         // Inicializar puntos desde la partida (por si hay valores)
         lblPuntos.setText("Puntos: " + partida.getPuntosTotales());
     }
 
-    private void cargarTablero(char[][] grid) {
-        panelTablero.removeAll();
-        Font f = new Font(Font.SANS_SERIF, Font.BOLD, 28);
-        for (int r = 0; r < 4; r++) {
-            for (int c = 0; c < 4; c++) {
-                JLabel cell = new JLabel(String.valueOf(grid[r][c]).toUpperCase(Locale.ROOT), SwingConstants.CENTER);
-                cell.setOpaque(true);
-                cell.setBackground(DEFAULT_BG);
-                cell.setBorder(BorderFactory.createLineBorder(new Color(200, 200, 200)));
-                cell.setFont(f);
-                cell.setPreferredSize(new Dimension(64, 64));
-                panelTablero.add(cell);
-                cellLabels[r][c] = cell;
-            }
-        }
-        panelTablero.revalidate();
-        panelTablero.repaint();
-    }
-
     private void iniciarTimer() {
         actualizarTiempo();
         if (timer != null && timer.isRunning()) timer.stop();
@@ -158,6 +163,37 @@ public class GamePanel extends JPanel {
         lblTiempo.setText(String.format("%02d:%02d", m, s));
     }
 
+    private void actualizarPrefijo() {
+        if (partida.estaFinalizada()) return;
+        Partida.ConsultaPrefijo c = partida.consultarPrefijo(txtPalabra.getText());
+        switch (c.estado) {
+            case PREFIJO:
+                lblPrefijo.setText("\"" + c.normalizada + "\" puede formar una palabra");
+                lblPrefijo.setForeground(new Color(60, 80, 140));
+                break;
+            case PALABRA:
+                lblPrefijo.setText("\"" + c.normalizada + "\" es una palabra válida");
+                lblPrefijo.setForeground(new Color(30, 90, 30));
+                break;
+            case YA_ENCONTRADA:
+                lblPrefijo.setText("\"" + c.normalizada + "\" ya la encontraste");
+                lblPrefijo.setForeground(new Color(120, 100, 20));
+                break;
+            case SIN_SALIDA:
+                lblPrefijo.setText("Ninguna palabra del tablero empieza así");
+                lblPrefijo.setForeground(new Color(160, 40, 40));
+                break;
+            default:
+                lblPrefijo.setText(" ");
+                break;
+        }
+        if (c.ruta != null) {
+            tablero.mostrarRutaParcial(c.ruta);
+        } else {
+            tablero.limpiarRutaParcial();
+        }
+    }
+
     // Integración con Partida: enviar palabra y procesar ResultadoEnvio
     private void agregarPalabra(ActionEvent e) {
         AudioManager.playClick();
@@ -186,7 +222,7 @@ public class GamePanel extends JPanel {
                 // Obtener ruta y resaltar celdas
                 int[] ruta = partida.obtenerRutaPalabra(res.normalizada);
                 if (ruta != null) {
-                    highlightPath(ruta);
+                    tablero.resaltarRuta(ruta);
                 }
                 break;
             case MUY_CORTA:
@@ -219,51 +255,20 @@ public class GamePanel extends JPanel {
         lblPuntos.setText("Puntos: " + partida.getPuntosTotales());
     }
 
-    // Resalta temporalmente las celdas indicadas (índices 0..15). Borra resaltados previos.
-    private void highlightPath(int[] ruta) {
-        // cancelar timer anterior si está activo y limpiar
-        if (highlightTimer != null && highlightTimer.isRunning()) {
-            highlightTimer.stop();
-        }
-        clearHighlights();
-
-        // Pintar nuevo resaltado
-        for (int idx : ruta) {
-            if (idx < 0 || idx >= 16) continue;
-            int r = idx / BoggleBoard.COLS;
-            int c = idx % BoggleBoard.COLS;
-            JLabel cell = cellLabels[r][c];
-            cell.setBackground(HIGHLIGHT_BG);
-            cell.setBorder(BorderFactory.createLineBorder(new Color(200, 120, 0), 2));
-        }
-
-        // Programar limpieza en 1.2s
-        highlightTimer = new Timer(1200, ev -> {
-            clearHighlights();
-            highlightTimer.stop();
-        });
-        highlightTimer.setRepeats(false);
-        highlightTimer.start();
-    }
-
-    private void clearHighlights() {
-        for (int r = 0; r < 4; r++) {
-            for (int c = 0; c < 4; c++) {
-                JLabel cell = cellLabels[r][c];
-                if (cell != null) {
-                    cell.setBackground(DEFAULT_BG);
-                    cell.setBorder(BorderFactory.createLineBorder(new Color(200, 200, 200)));
-                }
-            }
-        }
-    }
-
     private void finalizar(GameActions actions) {
         if (timer != null) timer.stop();
+        timerPrefijo.stop();
+        lblPrefijo.setText(" ");
+        tablero.limpiarRutaParcial();
         btnAgregar.setEnabled(false);
         txtPalabra.setEnabled(false);
+        partida.finalizar();
         int puntosPartida = partida.getPuntosTotales();
-        JOptionPane.showMessageDialog(this, "Tiempo finalizado.\nPuntuación de la partida: " + puntosPartida, "Fin de partida", JOptionPane.INFORMATION_MESSAGE);
+        JPanel resumen = new JPanel(new BorderLayout(8, 8));
+        resumen.add(new JLabel("Tiempo finalizado. Puntuación de la partida: " + puntosPartida), BorderLayout.NORTH);
+        resumen.add(analisis, BorderLayout.CENTER);
+        analisis.mostrar();
+        JOptionPane.showMessageDialog(this, resumen, "Fin de partida", JOptionPane.INFORMATION_MESSAGE);
         actions.onTerminarPartida(puntosPartida);
     }
 }
\ No newline at end of file
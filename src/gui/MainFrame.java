@@ -1,26 +1,29 @@
 package gui;
 
-import logic.BoggleBoard;
-import logic.Dictionary;
 import logic.Jugador;
 import logic.Partida;
-import logic.TrieDictionary;
-import logic.Scoreboard;
-import utils.DictionaryLoader;
-import utils.TrabajarFichero;
+import logic.PoolTableros;
+import logic.RegistroPartida;
+import logic.TableroPreparado;
+import utils.AlmacenJugadores;
+import utils.CerrojoFichero;
+import utils.ColaPersistencia;
+import utils.FicheroJugadores;
+import utils.HistorialPartidas;
+import utils.RepositorioJugadores;
 
 import javax.swing.*;
 import java.awt.*;
 import java.io.File;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.io.IOException;
 import java.nio.file.*;
 
 /**
  * Ventana principal de la aplicación Swing.
  * - Maneja el flujo de registro/selección de usuario.
- * - Carga el diccionario (una sola vez).
- * - Crea Partida y la pasa al GamePanel.
+ * - Arranca en paralelo diccionario, jugadores, audio y reserva de tableros (ArranqueAplicacion).
+ * - Crea Partida con un tablero preparado y la pasa al GamePanel.
  * - Muestra el Scoreboard.
  */
 public class MainFrame extends JFrame {
@@ -32,29 +35,54 @@ public class MainFrame extends JFrame {
     private GamePanel gamePanel;
     private ScoreboardPanel scoreboardPanel;
 
-    // Fichero de datos y jugador en uso
-    private final File datosFile;
+    // Jugador en uso
     private Jugador jugadorActual;
 
-    // Diccionario compartido (cargar una vez)
-    private Dictionary dict;
+    // Jugadores en memoria (precargados al arrancar); la E/S pasa por su cola, fuera del EDT
+    private final RepositorioJugadores jugadores;
+    private final ColaPersistencia persistencia;
+
+    // Historial de partidas (log por meses dentro de la carpeta de datos)
+    private final HistorialPartidas historial;
+
+    // Diccionario, tableros y audio se cargan en paralelo desde el arranque
+    private final ArranqueAplicacion arranque;
 
     public MainFrame() {
+        this(ArranqueAplicacion.iniciar());
+    }
+
+    public MainFrame(ArranqueAplicacion arranque) {
         super("Boggle");
+        this.arranque = arranque;
 
         // Determina la carpeta de datos del usuario (userHome/.boggle)
         File appDataDir = resolveAppDataDirectory();
         // Aseguramos migración automática desde ubicaciones legacy (opcional)
         migrateLegacyGameFilesIfAny(appDataDir);
 
-        this.datosFile = new File(appDataDir, "datos_partidas.dat");
+        this.historial = new HistorialPartidas(new File(appDataDir, "historial"));
+        // Fichero único o almacén particionado, según lo que haya en la carpeta de datos
+        this.jugadores = RepositorioJugadores.de(abrirAlmacenJugadores(appDataDir));
+        this.persistencia = jugadores.getPersistencia();
+        // Al cerrar (botón Salir o ventana) se vuelcan las escrituras pendientes
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            persistencia.cerrar(3000);
+            System.out.println("[Jugadores] " + jugadores.resumenEstadisticas());
+            System.out.println("[Ficheros] " + CerrojoFichero.resumenEsperas());
+            System.out.println("[Audio] " + AudioManager.resumenLatencia());
+        }, "PersistenciaShutdown"));
 
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setMinimumSize(new Dimension(520, 640));
         setLocationRelativeTo(null);
 
-        inicializarFicheroDatos(); // asegura encabezado si está vacío
+        // Calienta la caché en segundo plano, junto al resto del arranque
+        arranque.registrar(ArranqueAplicacion.Subsistema.JUGADORES, jugadores.precargar());
         initUI();
+        // El menú es usable desde el principio y muestra qué subsistemas están listos
+        arranque.alCambiarEstado((s, e) -> menuPanel.setEstadoSubsistema(s.etiqueta,
+                e == ArranqueAplicacion.Estado.CARGANDO ? null : e == ArranqueAplicacion.Estado.LISTO));
 
         setContentPane(root);
         cards.show(root, "menu");
@@ -140,21 +168,15 @@ public class MainFrame extends JFrame {
         }
     }
 
-    private void inicializarFicheroDatos() {
+    // Abre el almacén (crea el fichero con su encabezado si está vacío); si falla, avisa y sigue con el fichero único
+    private AlmacenJugadores abrirAlmacenJugadores(File appDataDir) {
         try {
-            // Crear carpeta si no existe
-            File parent = datosFile.getParentFile();
-            if (parent != null && !parent.exists()) parent.mkdirs();
-
-            // Crear el archivo si no existe
-            if (!datosFile.exists()) datosFile.createNewFile();
-
-            // Escribir encabezado solo si el fichero está vacío
-            TrabajarFichero.crearEncabezado(datosFile);
+            return AlmacenJugadores.abrir(appDataDir);
         } catch (Exception e) {
             JOptionPane.showMessageDialog(this,
                     "No se pudo inicializar el fichero de datos:\n" + e.getMessage(),
                     "Error de inicialización", JOptionPane.ERROR_MESSAGE);
+            return new FicheroJugadores(new File(appDataDir, FicheroJugadores.NOMBRE_FICHERO));
         }
     }
 
@@ -202,95 +224,76 @@ public class MainFrame extends JFrame {
      * para crear el primer usuario.
      */
     private void flujoRegistroEInicioPartida() {
-        // Si el fichero no tiene jugadores, no preguntamos; vamos directo al registro nuevo.
-        if (!hayJugadoresEnDatos()) {
-            JOptionPane.showMessageDialog(this,
-                    "No hay jugadores registrados. Se solicitará crear un nuevo usuario.",
-                    "Registro", JOptionPane.INFORMATION_MESSAGE);
-            registrarUsuarioNuevoYEmpezar();
-            return;
-        }
+        // La comprobación de jugadores se hace en el hilo de persistencia; el diálogo sigue en el EDT
+        TareasEDT.alCompletar(hayJugadoresEnDatos(), hay -> {
+            // Si el fichero no tiene jugadores, no preguntamos; vamos directo al registro nuevo.
+            if (!hay) {
+                JOptionPane.showMessageDialog(this,
+                        "No hay jugadores registrados. Se solicitará crear un nuevo usuario.",
+                        "Registro", JOptionPane.INFORMATION_MESSAGE);
+                registrarUsuarioNuevoYEmpezar();
+                return;
+            }
 
-        int resp = JOptionPane.showConfirmDialog(
-                this,
-                "¿Eres usuario nuevo?",
-                "Registro",
-                JOptionPane.YES_NO_OPTION,
-                JOptionPane.QUESTION_MESSAGE
-        );
-        if (resp == JOptionPane.CLOSED_OPTION) return;
-
-        if (resp == JOptionPane.YES_OPTION) {
-            // Usuario nuevo: validar que no exista y agregar
-            registrarUsuarioNuevoYEmpezar();
-        } else {
-            // Usuario existente: pedir nombre y validar que esté
-            registrarUsuarioExistenteYEmpezar();
-        }
+            int resp = JOptionPane.showConfirmDialog(
+                    this,
+                    "¿Eres usuario nuevo?",
+                    "Registro",
+                    JOptionPane.YES_NO_OPTION,
+                    JOptionPane.QUESTION_MESSAGE
+            );
+            if (resp == JOptionPane.CLOSED_OPTION) return;
+
+            if (resp == JOptionPane.YES_OPTION) {
+                // Usuario nuevo: validar que no exista y agregar
+                registrarUsuarioNuevoYEmpezar();
+            } else {
+                // Usuario existente: pedir nombre y validar que esté
+                registrarUsuarioExistenteYEmpezar();
+            }
+        }, null);
     }
 
-    // Extraigo el flujo para nuevo usuario en un método para mantener el código claro
+    // Extraigo el flujo para nuevo usuario en un método para mantener el código claro.
+    // Cada reintento vuelve a llamar al método desde el callback en lugar de iterar en un bucle.
     private void registrarUsuarioNuevoYEmpezar() {
-        while (true) {
-            String nombre = solicitarNombre("Introduce un nombre de usuario (nuevo):");
-            if (nombre == null) return; // canceló
-            try {
-                Jugador candidato = new Jugador(nombre);
-                long pos = TrabajarFichero.buscarJugadorFichero(datosFile, candidato);
-                if (pos != -1) {
-                    JOptionPane.showMessageDialog(this,
-                            "Ya existe un usuario con ese nombre. Elige otro.",
-                            "Nombre repetido", JOptionPane.WARNING_MESSAGE);
-                    continue; // pedir de nuevo
-                }
-                // No existe: agregar al final
-                TrabajarFichero.agregarJugador(datosFile, candidato);
-                jugadorActual = candidato;
-                arrancarPartidaConNuevoTablero();
-                break;
-            } catch (Exception e) {
+        String nombre = solicitarNombre("Introduce un nombre de usuario (nuevo):");
+        if (nombre == null) return; // canceló
+        Jugador candidato = new Jugador(nombre);
+        TareasEDT.alCompletar(jugadores.registrar(candidato), agregado -> {
+            if (!agregado) {
                 JOptionPane.showMessageDialog(this,
-                        "Error gestionando el registro:\n" + e.getMessage(),
-                        "Error", JOptionPane.ERROR_MESSAGE);
+                        "Ya existe un usuario con ese nombre. Elige otro.",
+                        "Nombre repetido", JOptionPane.WARNING_MESSAGE);
+                registrarUsuarioNuevoYEmpezar(); // pedir de nuevo
                 return;
             }
-        }
+            jugadorActual = candidato;
+            arrancarPartidaConNuevoTablero();
+        }, e -> JOptionPane.showMessageDialog(this,
+                "Error gestionando el registro:\n" + e.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE));
     }
 
     private void registrarUsuarioExistenteYEmpezar() {
-        while (true) {
-            String nombre = solicitarNombre("Introduce tu nombre de usuario (existente):");
-            if (nombre == null) return; // canceló
-            try {
-                Jugador probe = new Jugador(nombre);
-                long pos = TrabajarFichero.buscarJugadorFichero(datosFile, probe);
-                if (pos == -1) {
-                    int retry = JOptionPane.showConfirmDialog(this,
-                            "No se encontró ese usuario. ¿Intentar de nuevo?",
-                            "Usuario no encontrado", JOptionPane.YES_NO_OPTION);
-                    if (retry == JOptionPane.YES_OPTION) {
-                        continue;
-                    } else {
-                        return;
-                    }
-                }
-                // Cargar el jugador real desde fichero y usarlo
-                jugadorActual = cargarJugadorPorNombre(nombre);
-                if (jugadorActual == null) {
-                    JOptionPane.showMessageDialog(this,
-                            "No se pudo cargar el usuario. Inténtalo de nuevo.",
-                            "Error", JOptionPane.ERROR_MESSAGE);
-                    continue;
+        String nombre = solicitarNombre("Introduce tu nombre de usuario (existente):");
+        if (nombre == null) return; // canceló
+        // Cargar el jugador real desde fichero y usarlo
+        TareasEDT.alCompletar(cargarJugadorPorNombre(nombre), encontrado -> {
+            if (encontrado == null) {
+                int retry = JOptionPane.showConfirmDialog(this,
+                        "No se encontró ese usuario. ¿Intentar de nuevo?",
+                        "Usuario no encontrado", JOptionPane.YES_NO_OPTION);
+                if (retry == JOptionPane.YES_OPTION) {
+                    registrarUsuarioExistenteYEmpezar();
                 }
-                arrancarPartidaConNuevoTablero();
-                break;
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this,
-                        "Error buscando el usuario:\n" + e.getMessage(),
-                        "Error", JOptionPane.ERROR_MESSAGE);
                 return;
             }
-        }
+            jugadorActual = encontrado;
+            arrancarPartidaConNuevoTablero();
+        }, e -> JOptionPane.showMessageDialog(this,
+                "Error buscando el usuario:\n" + e.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE));
     }
 
     private String solicitarNombre(String mensaje) {
@@ -306,80 +309,39 @@ public class MainFrame extends JFrame {
         }
     }
 
-    private Jugador cargarJugadorPorNombre(String nombre) {
-        try {
-            List<Jugador> lista = TrabajarFichero.obtenerJugadores(datosFile);
-            for (Jugador j : lista) {
-                if (j.getNombre().equals(nombre)) return j;
-            }
+    // Se sirve desde la caché del repositorio; null si no existe o si falló la carga
+    private CompletableFuture<Jugador> cargarJugadorPorNombre(String nombre) {
+        return jugadores.buscar(nombre).exceptionally(e -> {
+            System.err.println("Advertencia cargando jugador: " + TareasEDT.causaReal(e).getMessage());
             return null;
-        } catch (Exception e) {
-            return null;
-        }
+        });
     }
 
     /**
-     * Comprueba si hay jugadores en el fichero delegando en TrabajarFichero.obtenerJugadores(...).
-     * Antes se leía directamente el encabezado; ahora delegamos en la clase util para mantener la
-     * responsabilidad de acceso al fichero centralizada.
+     * Comprueba si hay jugadores consultando la caché del repositorio (precargada desde
+     * TrabajarFichero.obtenerJugadores). Cualquier error se interpreta como "no hay jugadores".
      */
-    private boolean hayJugadoresEnDatos() {
-        try {
-            List<Jugador> lista = TrabajarFichero.obtenerJugadores(datosFile);
-            return lista != null && !lista.isEmpty();
-        } catch (IllegalArgumentException iae) {
-            // obtenerJugadores lanza IllegalArgumentException cuando no hay jugadores -> lo interpretamos como vacío
-            return false;
-        } catch (IOException | ClassNotFoundException e) {
-            // Cualquier otro error lo interpretamos como "no hay jugadores" y registramos por si se necesita depurar.
-            System.err.println("Advertencia comprobando jugadores en fichero: " + e.getMessage());
-            return false;
-        } catch (Exception e) {
-            // Cualquier excepción inesperada -> asumimos no hay jugadores
-            System.err.println("Advertencia inesperada comprobando jugadores en fichero: " + e.getMessage());
+    private CompletableFuture<Boolean> hayJugadoresEnDatos() {
+        return jugadores.hayJugadores().exceptionally(e -> {
+            System.err.println("Advertencia comprobando jugadores en fichero: " + TareasEDT.causaReal(e).getMessage());
             return false;
-        }
-    }
-
-    private void asegurarseDiccionarioCargado() throws Exception {
-        if (dict != null) return;
-        // Mensaje simple mientras carga (la carga puede tardar)
-        final JOptionPane pane = new JOptionPane("Cargando diccionario... espera", JOptionPane.INFORMATION_MESSAGE, JOptionPane.DEFAULT_OPTION, null, new Object[]{}, null);
-        final JDialog dialog = pane.createDialog(this, "Cargando");
-        dialog.setModal(true);
-
-        Exception loadEx[] = new Exception[1];
-
-        Thread loader = new Thread(() -> {
-            try {
-                dict = new TrieDictionary();
-                // DictionaryLoader carga desde classpath; el diccionario puede permanecer dentro del JAR
-                DictionaryLoader.loadIntoDictionary("game_files/diccionario.txt", dict);
-            } catch (Exception ex) {
-                loadEx[0] = ex;
-            } finally {
-                // close dialog on EDT
-                SwingUtilities.invokeLater(dialog::dispose);
-            }
-        }, "DictLoader");
-        loader.start();
-        dialog.setVisible(true); // bloquea hasta que loader llama a dispose()
-
-        if (loadEx[0] != null) throw loadEx[0];
+        });
     }
 
+    // La partida usa un tablero de la reserva; si el arranque aún no terminó o la reserva está vacía,
+    // el tablero se prepara en el ejecutor del arranque y se espera sin bloquear el EDT
     private void arrancarPartidaConNuevoTablero() {
         if (jugadorActual == null) return;
-        try {
-            asegurarseDiccionarioCargado();
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "No se pudo cargar el diccionario:\n" + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        BoggleBoard board = new BoggleBoard();
-        Partida partida = new Partida(jugadorActual.getNombre(), board, dict);
-        mostrarJuego(partida);
+        final String nombre = jugadorActual.getNombre();
+        CompletableFuture<TableroPreparado> tablero = arranque.tableros().thenCompose(PoolTableros::tomarEnSegundoPlano);
+        if (!tablero.isDone()) setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        TareasEDT.alCompletar(tablero, t -> {
+            setCursor(Cursor.getDefaultCursor());
+            mostrarJuego(new Partida(nombre, t));
+        }, e -> {
+            setCursor(Cursor.getDefaultCursor());
+            JOptionPane.showMessageDialog(this, "No se pudo preparar la partida:\n" + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+        });
     }
 
     private void mostrarJuego(Partida partida) {
@@ -389,24 +351,21 @@ public class MainFrame extends JFrame {
             @Override
             public void onTerminarPartida(int puntajeFinal) {
                 // ACTUALIZAR Y GUARDAR EL JUGADOR usando sólo los puntos de LA PARTIDA
-                try {
-                    if (jugadorActual != null) {
-                        jugadorActual.actualizarUltimaPartida(puntajeFinal); // actualiza puntos acumulados y fecha
-                        // Persistir cambios
-                        TrabajarFichero.actualizarJugador(datosFile, jugadorActual);
+                cards.show(root, "menu");
+                if (jugadorActual == null) return;
+                jugadorActual.actualizarUltimaPartida(puntajeFinal); // actualiza puntos acumulados y fecha
+                // Persistir cambios (write-behind) y confirmar cuando estén en disco
+                final Jugador guardado = jugadorActual;
+                TareasEDT.alCompletar(jugadores.actualizar(guardado), ok ->
                         JOptionPane.showMessageDialog(MainFrame.this,
                                 "Puntuación de la partida guardada.\n" +
-                                        "Jugador: " + jugadorActual.getNombre() + "\n" +
-                                        "Puntos Totales: " + jugadorActual.getPuntos(),
-                                "Fin de partida", JOptionPane.INFORMATION_MESSAGE);
-                    }
-                } catch (Exception ex) {
-                    JOptionPane.showMessageDialog(MainFrame.this,
-                            "No se pudo guardar la partida:\n" + ex.getMessage(),
-                            "Error", JOptionPane.ERROR_MESSAGE);
-                } finally {
-                    cards.show(root, "menu");
-                }
+                                        "Jugador: " + guardado.getNombre() + "\n" +
+                                        "Puntos Totales: " + guardado.getPuntos(),
+                                "Fin de partida", JOptionPane.INFORMATION_MESSAGE),
+                        ex -> JOptionPane.showMessageDialog(MainFrame.this,
+                                "No se pudo guardar la partida:\n" + ex.getMessage(),
+                                "Error", JOptionPane.ERROR_MESSAGE));
+                registrarEnHistorial(partida);
             }
 
             @Override
@@ -419,15 +378,21 @@ public class MainFrame extends JFrame {
         cards.show(root, "game");
     }
 
+    // El historial es complementario: si falla no debe impedir guardar la partida
+    private void registrarEnHistorial(Partida partida) {
+        RegistroPartida registro = RegistroPartida.de(partida);
+        persistencia.enviar(() -> {
+            historial.registrar(registro);
+            return null;
+        }).exceptionally(e -> {
+            System.err.println("Advertencia registrando la partida en el historial: " + TareasEDT.causaReal(e).getMessage());
+            return null;
+        });
+    }
+
     private void mostrarPuntuaciones() {
-        try {
-            // Carga real del top 10 desde tu lógica
-            java.util.ArrayList<Jugador> top = Scoreboard.obtenerRanking(datosFile);
-            scoreboardPanel.setJugadores(top);
-        } catch (Exception e) {
-            // Manejo del caso de fichero sin jugadores o cualquier otro error
-            scoreboardPanel.setMensaje("No hay jugadores registrados todavía.");
-        }
         cards.show(root, "scores");
+        // Ranking completo paginado sobre la caché de jugadores (sin releer el fichero)
+        scoreboardPanel.mostrarRanking(jugadores, jugadorActual == null ? null : jugadorActual.getNombre());
     }
-}
\ No newline at end of file
+}
@@ -1,9 +1,9 @@
 package gui;
 
-import logic.BoggleBoard;
-
 import javax.swing.*;
 import java.awt.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.function.Consumer;
 
 public class MainMenuPanel extends JPanel {
@@ -20,6 +20,8 @@ public class MainMenuPanel extends JPanel {
     private final JButton btnPuntuaciones = new JButton("Ver puntuaciones");
     private final JButton btnSalir = new JButton("Salir");
     private final JToggleButton btnAudio = new JToggleButton("Audio: ON", true);
+    private final JPanel panelEstado = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 5));
+    private final Map<String, JLabel> etiquetasEstado = new LinkedHashMap<>();
 
     public MainMenuPanel(MenuActions actions, Consumer<JLabel> setupLogo) {
         setLayout(new BorderLayout(12, 12));
@@ -37,9 +39,12 @@ public class MainMenuPanel extends JPanel {
         center.add(btnSalir);
         add(center, BorderLayout.CENTER);
 
-        // Barra inferior con toggle de audio
-        JPanel south = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-        south.add(btnAudio);
+        // Barra inferior: estado de los subsistemas y toggle de audio
+        JPanel south = new JPanel(new BorderLayout());
+        south.add(panelEstado, BorderLayout.CENTER);
+        JPanel audio = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        audio.add(btnAudio);
+        south.add(audio, BorderLayout.EAST);
         add(south, BorderLayout.SOUTH);
 
         // Acciones
@@ -61,4 +66,28 @@ public class MainMenuPanel extends JPanel {
             actions.onToggleAudio(on);
         });
     }
+
+    /**
+     * Muestra el estado de un subsistema en la barra inferior (se crea la etiqueta la primera vez).
+     * listo: null = cargando, true = listo, false = no disponible.
+     */
+    public void setEstadoSubsistema(String nombre, Boolean listo) {
+        JLabel lbl = etiquetasEstado.computeIfAbsent(nombre, k -> {
+            JLabel l = new JLabel();
+            l.setFont(l.getFont().deriveFont(Font.PLAIN, 11f));
+            panelEstado.add(l);
+            panelEstado.revalidate();
+            return l;
+        });
+        if (listo == null) {
+            lbl.setText(nombre + ": cargando…");
+            lbl.setForeground(Color.GRAY);
+        } else if (listo) {
+            lbl.setText(nombre + ": listo");
+            lbl.setForeground(new Color(30, 90, 30));
+        } else {
+            lbl.setText(nombre + ": no disponible");
+            lbl.setForeground(new Color(160, 40, 40));
+        }
+    }
 }
\ No newline at end of file
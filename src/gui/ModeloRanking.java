@@ -0,0 +1,145 @@
+package gui;
+
+import logic.Jugador;
+import utils.RepositorioJugadores;
+
+import javax.swing.*;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ListModel del ranking completo que carga las filas por páginas bajo demanda.
+ *
+ * - Solo se pide al repositorio la página de la fila que la JList va a pintar (y sus vecinas);
+ *   mientras llega se muestra una fila provisional.
+ * - Las páginas se piden y se formatean fuera del EDT; al llegar se guardan en una caché LRU de
+ *   MAX_PAGINAS y se repintan solo sus filas.
+ * - Cada recarga cambia la generación, así que las páginas de una carga anterior se descartan.
+ * - Todos los métodos se usan desde el EDT.
+ */
+public class ModeloRanking extends AbstractListModel<String> {
+
+    public static final int TAM_PAGINA = 200;
+    public static final int MAX_PAGINAS = 32;
+
+    private static final DateTimeFormatter FECHA =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
+
+    private RepositorioJugadores repositorio;
+    private int total;
+    private String mensaje = "";
+    private int generacion;
+
+    private final Map<Integer, List<String>> paginas = new LinkedHashMap<Integer, List<String>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, List<String>> eldest) {
+            return size() > MAX_PAGINAS;
+        }
+    };
+    private final Set<Integer> enCurso = new HashSet<>();
+
+    // Descarta lo cargado y vuelve a pedir el tamaño del ranking
+    public void cargar(RepositorioJugadores repositorio) {
+        this.repositorio = repositorio;
+        int gen = reiniciar("Cargando puntuaciones...");
+        TareasEDT.alCompletar(repositorio.totalRanking(), n -> {
+            if (gen != generacion) return;
+            if (n == 0) {
+                setMensaje("No hay jugadores registrados todavía.");
+            } else {
+                cambiarContenido(null, n);
+            }
+        }, e -> {
+            if (gen == generacion) setMensaje("No se pudieron cargar las puntuaciones.");
+        });
+    }
+
+    // Sustituye la lista por un único mensaje
+    public void setMensaje(String msg) {
+        reiniciar(msg);
+    }
+
+    public boolean hayMensaje() {
+        return mensaje != null;
+    }
+
+    @Override
+    public int getSize() {
+        return mensaje != null ? 1 : total;
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        if (mensaje != null) return mensaje;
+        int p = index / TAM_PAGINA;
+        List<String> pagina = paginas.get(p);
+        if (pagina == null) {
+            pedir(p);
+            pedir(p + 1);
+            if (p > 0) pedir(p - 1);
+            return String.format("%6d. ...", index + 1);
+        }
+        int k = index % TAM_PAGINA;
+        return k < pagina.size() ? pagina.get(k) : "";
+    }
+
+    public int getPaginasEnCache() {
+        return paginas.size();
+    }
+
+    // ---------------------------------------------------------------------------------
+    // Internos
+    // ---------------------------------------------------------------------------------
+
+    private void pedir(int p) {
+        int desde = p * TAM_PAGINA;
+        if (repositorio == null || desde >= total || paginas.containsKey(p) || !enCurso.add(p)) return;
+        int gen = generacion;
+        // El formateo también ocurre fuera del EDT (en el hilo que completa la página)
+        TareasEDT.alCompletar(repositorio.paginaRanking(desde, TAM_PAGINA).thenApply(l -> formatear(l, desde)), filas -> {
+            if (gen != generacion) return;
+            enCurso.remove(p);
+            paginas.put(p, filas);
+            fireContentsChanged(this, desde, Math.min(total, desde + filas.size()) - 1);
+        }, e -> {
+            if (gen == generacion) enCurso.remove(p);
+        });
+    }
+
+    private static List<String> formatear(List<Jugador> jugadores, int desde) {
+        List<String> filas = new ArrayList<>(jugadores.size());
+        int pos = desde + 1;
+        for (Jugador j : jugadores) {
+            String fecha = j.getUltimaPartida() == null ? "-" : FECHA.format(Instant.ofEpochMilli(j.getUltimaPartida().getTime()));
+            filas.add(String.format("%6d. %s - %d pts  (última: %s)", pos++, j.getNombre(), j.getPuntos(), fecha));
+        }
+        return filas;
+    }
+
+    private int reiniciar(String msg) {
+        generacion++;
+        paginas.clear();
+        enCurso.clear();
+        cambiarContenido(msg, 0);
+        return generacion;
+    }
+
+    // Cambia mensaje/tamaño avisando a la JList de las filas añadidas, quitadas y cambiadas
+    private void cambiarContenido(String nuevoMensaje, int nuevoTotal) {
+        int antes = getSize();
+        mensaje = nuevoMensaje;
+        total = nuevoTotal;
+        int despues = getSize();
+        if (despues < antes) fireIntervalRemoved(this, despues, antes - 1);
+        else if (despues > antes) fireIntervalAdded(this, antes, despues - 1);
+        int comunes = Math.min(antes, despues);
+        if (comunes > 0) fireContentsChanged(this, 0, comunes - 1);
+    }
+}
@@ -1,66 +1,102 @@
 package gui;
 
-import logic.Jugador;
+import utils.RepositorioJugadores;
 
 import javax.swing.*;
 import java.awt.*;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.List;
 
+/**
+ * Clasificación completa de jugadores. La lista es virtual: ModeloRanking trae del repositorio
+ * solo las páginas visibles, así que desplazarse por decenas de miles de filas no carga el resto.
+ */
 public class ScoreboardPanel extends JPanel {
 
     public interface ScoreActions {
         void onVolverMenu();
     }
 
-    private final DefaultListModel<String> modelo = new DefaultListModel<>();
+    private final ModeloRanking modelo = new ModeloRanking();
     private final JList<String> lista = new JList<>(modelo);
+    private final JButton btnMiPosicion = new JButton("Mi posición");
     private final JButton btnVolver = new JButton("Volver");
+    private final JLabel lblEstado = new JLabel(" ");
 
-    private final SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm");
+    private RepositorioJugadores repositorio;
+    private String nombreActual;
 
     public ScoreboardPanel(ScoreActions actions) {
         setLayout(new BorderLayout(10, 10));
 
-        JLabel titulo = new JLabel("Top 10", SwingConstants.CENTER);
+        JLabel titulo = new JLabel("Clasificación", SwingConstants.CENTER);
         titulo.setFont(titulo.getFont().deriveFont(Font.BOLD, 22f));
         add(titulo, BorderLayout.NORTH);
 
+        // Con altura y anchura fijas la JList no mide todas las filas (y no pide todas las páginas)
+        lista.setPrototypeCellValue(String.format("%6d. %s - %d pts  (última: %s)",
+                999999, "NombreDeJugadorBastanteLargo", 999999, "2000-01-01 00:00"));
+        lista.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         add(new JScrollPane(lista), BorderLayout.CENTER);
 
-        JPanel south = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-        south.add(btnVolver);
+        JPanel south = new JPanel(new BorderLayout());
+        lblEstado.setBorder(BorderFactory.createEmptyBorder(0, 8, 0, 0));
+        south.add(lblEstado, BorderLayout.WEST);
+        JPanel botones = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        botones.add(btnMiPosicion);
+        botones.add(btnVolver);
+        south.add(botones, BorderLayout.EAST);
         add(south, BorderLayout.SOUTH);
 
+        btnMiPosicion.setEnabled(false);
+        btnMiPosicion.addActionListener(e -> {
+            AudioManager.playClick();
+            irAMiPosicion();
+        });
         btnVolver.addActionListener(e -> {
             AudioManager.playClick();
             actions.onVolverMenu();
         });
     }
 
-    // Mostrar lista real de jugadores
-    public void setJugadores(List<Jugador> jugadores) {
-        modelo.clear();
-        int pos = 1;
-        for (Jugador j : jugadores) {
-            String fecha = formatFecha(j.getUltimaPartida());
-            String linea = String.format("%2d. %s - %d pts  (última: %s)",
-                    pos++, j.getNombre(), j.getPuntos(), fecha);
-            modelo.addElement(linea);
-        }
-        if (modelo.isEmpty()) {
-            modelo.addElement("No hay jugadores registrados todavía.");
-        }
+    /**
+     * Muestra el ranking completo del repositorio. nombreActual (puede ser null) habilita
+     * el salto a la posición de ese jugador.
+     */
+    public void mostrarRanking(RepositorioJugadores repositorio, String nombreActual) {
+        this.repositorio = repositorio;
+        this.nombreActual = nombreActual;
+        btnMiPosicion.setEnabled(nombreActual != null);
+        lblEstado.setText(" ");
+        modelo.cargar(repositorio);
+        TareasEDT.alCompletar(repositorio.totalRanking(),
+                n -> lblEstado.setText(n + " jugadores"),
+                null);
+        lista.clearSelection();
     }
 
     // Mostrar un único mensaje (por ejemplo, errores o “sin datos”)
     public void setMensaje(String msg) {
-        modelo.clear();
-        modelo.addElement(msg);
+        modelo.setMensaje(msg);
+        btnMiPosicion.setEnabled(false);
+        lblEstado.setText(" ");
     }
 
-    private String formatFecha(Date d) {
-        return d == null ? "-" : sdf.format(d);
+    private void irAMiPosicion() {
+        if (repositorio == null || nombreActual == null) return;
+        TareasEDT.alCompletar(repositorio.posicionEnRanking(nombreActual), pos -> {
+            if (pos < 0 || pos >= modelo.getSize() || modelo.hayMensaje()) {
+                lblEstado.setText(nombreActual + " aún no aparece en la clasificación");
+                return;
+            }
+            lista.setSelectedIndex(pos);
+            // Centrar la fila en la vista si cabe
+            Rectangle fila = lista.getCellBounds(pos, pos);
+            if (fila != null) {
+                Rectangle vista = lista.getVisibleRect();
+                fila.y = Math.max(0, fila.y - (vista.height - fila.height) / 2);
+                fila.height = vista.height;
+                lista.scrollRectToVisible(fila);
+            }
+            lblEstado.setText(nombreActual + ": puesto " + (pos + 1) + " de " + modelo.getSize());
+        }, e -> lblEstado.setText("No se pudo localizar al jugador"));
     }
-}
\ No newline at end of file
+}
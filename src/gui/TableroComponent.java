@@ -0,0 +1,302 @@
+package gui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Tablero de Boggle pintado en un único componente (sustituye a la rejilla de JLabels).
+ *
+ * - Admite cualquier tamaño de rejilla; las celdas se escalan al espacio disponible.
+ * - La fuente y los glifos de cada letra se calculan solo cuando cambia el tamaño de celda o el
+ *   tablero; los colores, trazos y el desvanecimiento están precalculados.
+ * - El resaltado de una ruta dibuja las celdas y las líneas que las unen. Al resaltar, limpiar o
+ *   avanzar la animación solo se repinta el rectángulo que cubre la ruta.
+ * - La animación reutiliza un único Timer y no crea objetos por fotograma.
+ */
+public class TableroComponent extends JComponent {
+
+    private static final int TAM_CELDA_PREFERIDO = 64;
+    private static final int HUECO = 6;
+    private static final int ARCO = 10;
+
+    private static final Color FONDO = new Color(240, 240, 240);
+    private static final Color BORDE = new Color(200, 200, 200);
+    private static final Color LETRA = new Color(40, 40, 40);
+    private static final Color FONDO_RESALTADO = new Color(255, 230, 153);
+    private static final Color BORDE_RESALTADO = new Color(200, 120, 0);
+    private static final Color LINEA_RESALTADO = new Color(200, 120, 0, 150);
+
+    // Resaltado: se mantiene MANTENER_MS y luego se desvanece en PASOS_FADE pasos de MS_POR_PASO
+    private static final int MANTENER_MS = 1200;
+    private static final int PASOS_FADE = 12;
+    private static final int MS_POR_PASO = 40;
+    private static final Color[] FONDO_PASOS = degradado(FONDO_RESALTADO, FONDO, PASOS_FADE);
+    private static final Color[] BORDE_PASOS = degradado(BORDE_RESALTADO, BORDE, PASOS_FADE);
+    private static final Color[] LINEA_PASOS = degradado(LINEA_RESALTADO, new Color(200, 120, 0, 0), PASOS_FADE);
+
+    private static final Stroke TRAZO_BORDE = new BasicStroke(1f);
+    private static final Stroke TRAZO_BORDE_RESALTADO = new BasicStroke(2f);
+
+    private char[][] grid = new char[0][0];
+    private int filas, columnas;
+
+    // Geometría y caché de glifos (los glifos son válidos mientras tamGlifos == tamCelda)
+    private int origenX, origenY, tamCelda = -1;
+    private int tamGlifos = -1;
+    private Font fuente;
+    private GlyphVector[] glifos = new GlyphVector[0];
+    private float[] glifoDx = new float[0], glifoDy = new float[0];
+    private Stroke trazoLinea;
+
+    // Ruta resaltada
+    private int[] ruta = new int[0];
+    private boolean[] enRuta = new boolean[0];
+    private int paso = -1; // -1 = sin resaltado; 0 = color pleno; PASOS_FADE-1 = casi desvanecido
+    private boolean parcial; // la ruta es la parcial (fija) y no un resaltado animado
+    private int[] puntosX = new int[0], puntosY = new int[0]; // centros de las celdas de la ruta
+    private final Rectangle zonaRuta = new Rectangle();
+    private final Timer animacion;
+
+    public TableroComponent() {
+        setOpaque(false);
+        setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        animacion = new Timer(MS_POR_PASO, e -> avanzarFade());
+        animacion.setInitialDelay(MANTENER_MS);
+    }
+
+    public void setTablero(char[][] grid) {
+        limpiarResaltado();
+        this.grid = grid;
+        this.filas = grid.length;
+        this.columnas = filas == 0 ? 0 : grid[0].length;
+        this.enRuta = new boolean[filas * columnas];
+        this.ruta = new int[0];
+        this.puntosX = new int[0];
+        this.puntosY = new int[0];
+        this.tamGlifos = -1; // las letras cambiaron
+        this.tamCelda = -1;
+        revalidate();
+        repaint();
+    }
+
+    public int getFilas() {
+        return filas;
+    }
+
+    public int getColumnas() {
+        return columnas;
+    }
+
+    /**
+     * Resalta las celdas (índices fila*columnas+columna, en orden) y las une con líneas;
+     * el resaltado se desvanece solo. Sustituye al resaltado anterior.
+     */
+    public void resaltarRuta(int[] indices) {
+        fijarRuta(indices, false);
+    }
+
+    /**
+     * Muestra una ruta parcial fija (sin desvanecer), p. ej. la de lo que se está escribiendo.
+     * Sustituye al resaltado anterior; se quita con limpiarRutaParcial().
+     */
+    public void mostrarRutaParcial(int[] indices) {
+        fijarRuta(indices, true);
+    }
+
+    // Quita la ruta parcial, pero no un resaltado animado que esté en curso
+    public void limpiarRutaParcial() {
+        if (parcial) limpiarResaltado();
+    }
+
+    public void limpiarResaltado() {
+        animacion.stop();
+        parcial = false;
+        if (paso < 0) return;
+        paso = -1;
+        repintarZonaRuta();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (isPreferredSizeSet()) return super.getPreferredSize();
+        Insets in = getInsets();
+        return new Dimension(
+                in.left + in.right + columnas * TAM_CELDA_PREFERIDO + Math.max(0, columnas - 1) * HUECO,
+                in.top + in.bottom + filas * TAM_CELDA_PREFERIDO + Math.max(0, filas - 1) * HUECO);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (filas == 0 || columnas == 0) return;
+        Graphics2D g2 = (Graphics2D) g;
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        actualizarGeometria();
+        if (tamCelda <= 0) return;
+        actualizarGlifos(g2.getFontRenderContext());
+
+        // Solo las celdas que cortan el área a repintar
+        Rectangle clip = g2.getClipBounds();
+        int paso = this.paso;
+        int f0 = 0, f1 = filas - 1, c0 = 0, c1 = columnas - 1;
+        if (clip != null) {
+            int t = tamCelda + HUECO;
+            f0 = Math.max(0, (clip.y - origenY) / t);
+            f1 = Math.min(filas - 1, (clip.y + clip.height - origenY) / t);
+            c0 = Math.max(0, (clip.x - origenX) / t);
+            c1 = Math.min(columnas - 1, (clip.x + clip.width - origenX) / t);
+        }
+
+        for (int r = f0; r <= f1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int idx = r * columnas + c;
+                boolean resaltada = paso >= 0 && enRuta[idx];
+                int x = xCelda(c), y = yCelda(r);
+                g2.setColor(resaltada ? FONDO_PASOS[paso] : FONDO);
+                g2.fillRoundRect(x, y, tamCelda, tamCelda, ARCO, ARCO);
+                g2.setColor(resaltada ? BORDE_PASOS[paso] : BORDE);
+                g2.setStroke(resaltada ? TRAZO_BORDE_RESALTADO : TRAZO_BORDE);
+                g2.drawRoundRect(x, y, tamCelda - 1, tamCelda - 1, ARCO, ARCO);
+            }
+        }
+
+        // Líneas de la ruta por encima de las celdas y por debajo de las letras
+        if (paso >= 0 && puntosX.length > 1) {
+            g2.setColor(LINEA_PASOS[paso]);
+            g2.setStroke(trazoLinea);
+            g2.drawPolyline(puntosX, puntosY, puntosX.length);
+        }
+
+        g2.setColor(LETRA);
+        for (int r = f0; r <= f1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int idx = r * columnas + c;
+                g2.drawGlyphVector(glifos[idx], xCelda(c) + glifoDx[idx], yCelda(r) + glifoDy[idx]);
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------------
+    // Internos
+    // ---------------------------------------------------------------------------------
+
+    private void fijarRuta(int[] indices, boolean fija) {
+        animacion.stop();
+        if (fija && parcial && Arrays.equals(indices, ruta)) return; // misma ruta parcial: nada que repintar
+        repintarZonaRuta(); // borrar el resaltado anterior
+
+        Arrays.fill(enRuta, false);
+        int n = 0;
+        int[] validos = new int[indices.length];
+        for (int idx : indices) {
+            if (idx < 0 || idx >= enRuta.length) continue;
+            enRuta[idx] = true;
+            validos[n++] = idx;
+        }
+        ruta = Arrays.copyOf(validos, n);
+        puntosX = new int[n];
+        puntosY = new int[n];
+        paso = n == 0 ? -1 : 0;
+        parcial = fija && n > 0;
+        tamCelda = -1; // forzar el cálculo de los centros y la zona de la nueva ruta
+        actualizarGeometria();
+        repintarZonaRuta();
+        if (paso >= 0 && !fija) animacion.restart();
+    }
+
+    private void avanzarFade() {
+        if (paso < 0) {
+            animacion.stop();
+            return;
+        }
+        if (++paso >= PASOS_FADE) {
+            limpiarResaltado();
+        } else {
+            repintarZonaRuta();
+        }
+    }
+
+    private void repintarZonaRuta() {
+        if (ruta.length > 0 && tamCelda > 0) {
+            repaint(zonaRuta.x, zonaRuta.y, zonaRuta.width, zonaRuta.height);
+        }
+    }
+
+    // Recalcula tamaño de celda, origen, centros de la ruta y su rectángulo si cambió el tamaño
+    private void actualizarGeometria() {
+        Insets in = getInsets();
+        int ancho = getWidth() - in.left - in.right;
+        int alto = getHeight() - in.top - in.bottom;
+        if (columnas == 0 || filas == 0) return;
+        int t = Math.min((ancho - (columnas - 1) * HUECO) / columnas, (alto - (filas - 1) * HUECO) / filas);
+        int ox = in.left + (ancho - (columnas * t + (columnas - 1) * HUECO)) / 2;
+        int oy = in.top + (alto - (filas * t + (filas - 1) * HUECO)) / 2;
+        if (t == tamCelda && ox == origenX && oy == origenY) return;
+        tamCelda = t;
+        origenX = ox;
+        origenY = oy;
+        if (t <= 0) return;
+        trazoLinea = new BasicStroke(Math.max(3f, t * 0.12f), BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < ruta.length; i++) {
+            int r = ruta[i] / columnas, c = ruta[i] % columnas;
+            int x = xCelda(c), y = yCelda(r);
+            puntosX[i] = x + t / 2;
+            puntosY[i] = y + t / 2;
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x + t);
+            maxY = Math.max(maxY, y + t);
+        }
+        if (ruta.length > 0) zonaRuta.setBounds(minX - 2, minY - 2, maxX - minX + 4, maxY - minY + 4);
+    }
+
+    private void actualizarGlifos(FontRenderContext frc) {
+        if (tamGlifos == tamCelda) return;
+        tamGlifos = tamCelda;
+        fuente = new Font(Font.SANS_SERIF, Font.BOLD, Math.max(8, Math.round(tamCelda * 0.44f)));
+        int n = filas * columnas;
+        if (glifos.length != n) {
+            glifos = new GlyphVector[n];
+            glifoDx = new float[n];
+            glifoDy = new float[n];
+        }
+        for (int r = 0; r < filas; r++) {
+            for (int c = 0; c < columnas; c++) {
+                int idx = r * columnas + c;
+                GlyphVector gv = fuente.createGlyphVector(frc, String.valueOf(grid[r][c]).toUpperCase(Locale.ROOT));
+                Rectangle2D b = gv.getVisualBounds();
+                glifos[idx] = gv;
+                glifoDx[idx] = (float) ((tamCelda - b.getWidth()) / 2 - b.getX());
+                glifoDy[idx] = (float) ((tamCelda - b.getHeight()) / 2 - b.getY());
+            }
+        }
+    }
+
+    private int xCelda(int c) {
+        return origenX + c * (tamCelda + HUECO);
+    }
+
+    private int yCelda(int r) {
+        return origenY + r * (tamCelda + HUECO);
+    }
+
+    private static Color[] degradado(Color desde, Color hasta, int pasos) {
+        Color[] res = new Color[pasos];
+        for (int i = 0; i < pasos; i++) {
+            float t = (float) i / pasos;
+            res[i] = new Color(
+                    Math.round(desde.getRed() + (hasta.getRed() - desde.getRed()) * t),
+                    Math.round(desde.getGreen() + (hasta.getGreen() - desde.getGreen()) * t),
+                    Math.round(desde.getBlue() + (hasta.getBlue() - desde.getBlue()) * t),
+                    Math.round(desde.getAlpha() + (hasta.getAlpha() - desde.getAlpha()) * t));
+        }
+        return res;
+    }
+}
@@ -0,0 +1,33 @@
+package gui;
+
+import javax.swing.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Puente entre tareas en segundo plano y la interfaz:
+ * los callbacks de finalización siempre se ejecutan en el Event Dispatch Thread.
+ */
+public final class TareasEDT {
+    private TareasEDT() {}
+
+    public static <T> void alCompletar(CompletableFuture<T> futuro, Consumer<T> alTerminar, Consumer<Throwable> alFallar) {
+        futuro.whenComplete((valor, error) -> SwingUtilities.invokeLater(() -> {
+            if (error == null) {
+                alTerminar.accept(valor);
+            } else if (alFallar != null) {
+                alFallar.accept(causaReal(error));
+            }
+        }));
+    }
+
+    // Desenvuelve las excepciones que añade CompletableFuture
+    public static Throwable causaReal(Throwable t) {
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
+    }
+}
@@ -0,0 +1,292 @@
+package logic;
+
+import utils.EventosJfr;
+import utils.Metricas;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Resuelve un bloque de tableros con un único recorrido del diccionario (analítica por lotes).
+ *
+ * BoggleSolver recorre el trie una vez por tablero, así que los niveles de arriba (los prefijos
+ * cortos, comunes a casi todos los tableros) se vuelven a evaluar en cada llamada. Aquí el recorrido
+ * va por los nodos del trie y cada nodo lleva el conjunto de estados (tablero, celda final del
+ * camino, celdas visitadas) que llegan a él: un prefijo se evalúa una sola vez para todo el lote, y
+ * de cada nodo solo se baja por las letras que algún estado puede continuar con un vecino libre.
+ *
+ * - Los estados de cada nivel se guardan empaquetados en un long[] ordenados por letra del hijo
+ *   (dos pasadas: contar y colocar), y dentro de cada letra por tablero, así que las palabras se
+ *   reparten a cada tablero sin repetirlas.
+ * - Igual que BoggleSolver, descarta un estado si alguna letra que necesitan todas las palabras del
+ *   hijo (letrasRequeridas) ya no queda en las celdas sin visitar de su tablero.
+ * - El recorrido es en profundidad por orden de letra: las palabras de cada tablero salen en orden
+ *   alfabético y sin repetir, sin ordenar ni usar un Set.
+ * - Si el diccionario no expone su trie (RecorridoTrie) se resuelve tablero a tablero con
+ *   BoggleSolver.
+ *
+ * Es inmutable y puede compartirse entre hilos: cada llamada usa su propio estado de trabajo.
+ */
+public final class BoggleBatchSolver {
+
+    private static final Metricas.Histograma H_LOTE = Metricas.histograma("solver.lote");
+    private static final Metricas.Contador C_NODOS = Metricas.contador("solver.lote.nodosTrie");
+    private static final Metricas.Contador C_ESTADOS = Metricas.contador("solver.lote.estados");
+
+    private static final int CELDAS = BoggleBoard.ROWS * BoggleBoard.COLS;
+    private static final int LETRAS = 26;
+    // Estado empaquetado: tablero << 32 | visitadas << BITS_CELDA | celda
+    private static final int BITS_CELDA = 5;
+    private static final int MASCARA_CELDA = (1 << BITS_CELDA) - 1;
+    private static final int[][] VECINOS = vecinos();
+
+    private final Dictionary diccionario;
+
+    public BoggleBatchSolver(Dictionary diccionario) {
+        if (diccionario == null) throw new IllegalArgumentException("El diccionario no puede ser null");
+        this.diccionario = diccionario;
+    }
+
+    private static int[][] vecinos() {
+        int[][] res = new int[CELDAS][];
+        for (int r = 0; r < BoggleBoard.ROWS; r++) {
+            for (int c = 0; c < BoggleBoard.COLS; c++) {
+                int[] v = new int[8];
+                int k = 0;
+                for (int dr = -1; dr <= 1; dr++) {
+                    for (int dc = -1; dc <= 1; dc++) {
+                        int nr = r + dr, nc = c + dc;
+                        if ((dr != 0 || dc != 0) && nr >= 0 && nr < BoggleBoard.ROWS && nc >= 0 && nc < BoggleBoard.COLS) {
+                            v[k++] = BoggleGraphBuilder.index(nr, nc);
+                        }
+                    }
+                }
+                res[BoggleGraphBuilder.index(r, c)] = Arrays.copyOf(v, k);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Palabras de cada tablero (mismo orden que la entrada), en orden alfabético y sin repetir.
+     * Encuentra lo mismo que BoggleSolver.findAllWords con cada tablero por separado.
+     */
+    public List<List<String>> findAllWords(List<BoggleBoard> tableros, int minLen, Predicate<String> accept) {
+        if (!(diccionario instanceof RecorridoTrie)) return porTablero(tableros, minLen, accept);
+        long t0 = Metricas.inicio();
+        EventosJfr.ResolucionLote evento = new EventosJfr.ResolucionLote();
+        evento.begin();
+        Lote lote = new Lote((RecorridoTrie) diccionario, tableros, minLen, accept);
+        lote.recorrerRaiz();
+        H_LOTE.registrarDesde(t0);
+        C_NODOS.sumar(lote.nodosTrie);
+        C_ESTADOS.sumar(lote.estados);
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.tableros = tableros.size();
+            evento.nodosTrie = lote.nodosTrie;
+            evento.estados = lote.estados;
+            evento.palabras = lote.palabras;
+            evento.commit();
+        }
+        return lote.resultados;
+    }
+
+    private List<List<String>> porTablero(List<BoggleBoard> tableros, int minLen, Predicate<String> accept) {
+        List<List<String>> res = new ArrayList<>(tableros.size());
+        for (BoggleBoard t : tableros) {
+            List<String> l = new ArrayList<>(new BoggleSolver(BoggleGraphBuilder.build(t)).findAllWords(diccionario, minLen, accept));
+            Collections.sort(l);
+            res.add(l);
+        }
+        return res;
+    }
+
+    // Estado de trabajo de una llamada (un solo hilo)
+    private static final class Lote {
+        private final RecorridoTrie trie;
+        private final int minLen;
+        private final Predicate<String> accept;
+        private final List<List<String>> resultados;
+        private final int numTableros;
+        private final int[] letra;        // por tablero * CELDAS + celda: letra - 'a' (-1 si no es a–z)
+        private final int[] celdasLetra;  // por tablero * LETRAS + letra: máscara de celdas con esa letra
+        private final int[] letrasVecinas; // por tablero * CELDAS + celda: letras de sus vecinos
+        private final char[] prefijo = new char[CELDAS];
+
+        // Por nivel (longitud del prefijo): estados y ayudas del reparto por letra
+        private final long[][] niveles = new long[CELDAS + 1][];
+        private final int[][] cuentas = new int[CELDAS + 1][LETRAS];
+        private final int[] vivas = new int[CELDAS + 1];    // letras hijas a las que llega algún estado
+        private final int[][] inicio = new int[CELDAS + 1][LETRAS];
+        private final int[][] fin = new int[CELDAS + 1][LETRAS];
+        private final int[][] hijo = new int[CELDAS + 1][LETRAS];
+        private final int[][] requeridas = new int[CELDAS + 1][LETRAS];
+
+        long nodosTrie;
+        long estados;
+        int palabras;
+
+        Lote(RecorridoTrie trie, List<BoggleBoard> tableros, int minLen, Predicate<String> accept) {
+            this.trie = trie;
+            this.minLen = minLen;
+            this.accept = accept;
+            this.numTableros = tableros.size();
+            this.resultados = new ArrayList<>(numTableros);
+            this.letra = new int[numTableros * CELDAS];
+            this.celdasLetra = new int[numTableros * LETRAS];
+            this.letrasVecinas = new int[numTableros * CELDAS];
+            for (int b = 0; b < numTableros; b++) {
+                BoggleBoard t = tableros.get(b);
+                resultados.add(new ArrayList<>());
+                for (int r = 0; r < BoggleBoard.ROWS; r++) {
+                    for (int c = 0; c < BoggleBoard.COLS; c++) {
+                        int celda = BoggleGraphBuilder.index(r, c);
+                        int l = t.get(r, c) - 'a';
+                        if (l < 0 || l >= LETRAS) l = -1;
+                        else celdasLetra[b * LETRAS + l] |= 1 << celda;
+                        letra[b * CELDAS + celda] = l;
+                    }
+                }
+                for (int celda = 0; celda < CELDAS; celda++) {
+                    for (int nb : VECINOS[celda]) {
+                        int l = letra[b * CELDAS + nb];
+                        if (l >= 0) letrasVecinas[b * CELDAS + celda] |= 1 << l;
+                    }
+                }
+            }
+        }
+
+        // Nivel 1: un estado por cada celda de cada tablero cuya letra empieza alguna palabra
+        void recorrerRaiz() {
+            int hijos = trie.mascaraHijos(RecorridoTrie.RAIZ);
+            int[] cuenta = cuentas[0];
+            int v = 0;
+            for (int l : letra) {
+                if (l >= 0 && (hijos & (1 << l)) != 0) {
+                    cuenta[l]++;
+                    v |= 1 << l;
+                }
+            }
+            long[] sig = repartir(RecorridoTrie.RAIZ, 0, v);
+            for (int i = 0; i < letra.length; i++) {
+                int l = letra[i];
+                if (l < 0 || (hijos & (1 << l)) == 0) continue;
+                int celda = i % CELDAS;
+                colocar(sig, 0, l, i / CELDAS, celda, 1 << celda);
+            }
+            bajar(0);
+        }
+
+        // Estados [desde, hasta) de niveles[len]: caminos de longitud len que llegan a nodo
+        private void recorrer(int nodo, int len, int desde, int hasta) {
+            nodosTrie++;
+            estados += hasta - desde;
+            long[] est = niveles[len];
+            if (len >= minLen && trie.esPalabra(nodo)) anotar(est, len, desde, hasta);
+            if (len == CELDAS) return;
+            int hijos = trie.mascaraHijos(nodo);
+            if (hijos == 0) return;
+
+            // Pasada 1: cuántos estados siguen por cada letra hija
+            int[] cuenta = cuentas[len];
+            int v = 0;
+            for (int i = desde; i < hasta; i++) {
+                long s = est[i];
+                int celda = (int) s & MASCARA_CELDA;
+                int base = (int) (s >>> 32) * CELDAS;
+                if ((letrasVecinas[base + celda] & hijos) == 0) continue;
+                int visitadas = (int) s >>> BITS_CELDA;
+                for (int nb : VECINOS[celda]) {
+                    int l = letra[base + nb];
+                    if ((visitadas & (1 << nb)) == 0 && l >= 0 && (hijos & (1 << l)) != 0) {
+                        cuenta[l]++;
+                        v |= 1 << l;
+                    }
+                }
+            }
+            if (v == 0) return;
+            long[] sig = repartir(nodo, len, v);
+
+            // Pasada 2: colocar cada estado nuevo en el tramo de su letra
+            for (int i = desde; i < hasta; i++) {
+                long s = est[i];
+                int celda = (int) s & MASCARA_CELDA;
+                int b = (int) (s >>> 32);
+                if ((letrasVecinas[b * CELDAS + celda] & v) == 0) continue;
+                int visitadas = (int) s >>> BITS_CELDA;
+                for (int nb : VECINOS[celda]) {
+                    int l = letra[b * CELDAS + nb];
+                    if ((visitadas & (1 << nb)) == 0 && l >= 0 && (v & (1 << l)) != 0) {
+                        colocar(sig, len, l, b, nb, visitadas | (1 << nb));
+                    }
+                }
+            }
+            bajar(len);
+        }
+
+        // Con las cuentas de las letras v calcula sus tramos y sus hijos en el trie (y deja las
+        // cuentas a cero); devuelve niveles[len + 1] con sitio para todos los estados
+        private long[] repartir(int nodo, int len, int v) {
+            int[] cuenta = cuentas[len];
+            int total = 0;
+            vivas[len] = v;
+            for (int m = v; m != 0; m &= m - 1) {
+                int l = Integer.numberOfTrailingZeros(m);
+                int h = trie.hijo(nodo, (char) ('a' + l));
+                inicio[len][l] = total;
+                fin[len][l] = total;
+                hijo[len][l] = h;
+                requeridas[len][l] = h == RecorridoTrie.NINGUNO ? 0 : trie.letrasRequeridas(h);
+                total += cuenta[l];
+                cuenta[l] = 0;
+            }
+            long[] sig = niveles[len + 1];
+            if (sig == null || sig.length < total) {
+                sig = new long[Math.max(total, sig == null ? 64 : sig.length * 2)];
+                niveles[len + 1] = sig;
+            }
+            return sig;
+        }
+
+        // Añade el estado si las letras requeridas del hijo siguen libres en su tablero
+        private void colocar(long[] sig, int len, int l, int b, int celda, int visitadas) {
+            if (hijo[len][l] == RecorridoTrie.NINGUNO) return;
+            int req = requeridas[len][l];
+            while (req != 0) {
+                int r = Integer.numberOfTrailingZeros(req);
+                if ((celdasLetra[b * LETRAS + r] & ~visitadas) == 0) return;
+                req &= req - 1;
+            }
+            sig[fin[len][l]++] = (long) b << 32 | (long) visitadas << BITS_CELDA | celda;
+        }
+
+        // Por orden de letra, para que las palabras salgan en orden alfabético
+        private void bajar(int len) {
+            for (int m = vivas[len]; m != 0; m &= m - 1) {
+                int l = Integer.numberOfTrailingZeros(m);
+                int desde = inicio[len][l], hasta = fin[len][l];
+                if (desde == hasta) continue;
+                prefijo[len] = (char) ('a' + l);
+                recorrer(hijo[len][l], len + 1, desde, hasta);
+            }
+        }
+
+        // Palabra en nodo: se anota una vez por tablero (los estados de cada tablero van seguidos)
+        private void anotar(long[] est, int len, int desde, int hasta) {
+            String w = new String(prefijo, 0, len);
+            if (!accept.test(w)) return;
+            int anterior = -1;
+            for (int i = desde; i < hasta; i++) {
+                int b = (int) (est[i] >>> 32);
+                if (b == anterior) continue;
+                resultados.get(b).add(w);
+                palabras++;
+                anterior = b;
+            }
+        }
+    }
+}
@@ -4,8 +4,8 @@ import java.security.SecureRandom;
 import java.util.Random;
 
 /**
- * Tablero 4x4 para Boggle con generador de letras ponderadas para español.
- * - Excluye 'ñ'
+ * Tablero 4x4 para Boggle con letras aleatorias ponderadas según el idioma (Idioma).
+ * - Por defecto, español (sin 'ñ')
  * - Minúsculas
  */
 public class BoggleBoard {
@@ -17,7 +17,11 @@ public class BoggleBoard {
     private final char[][] grid = new char[ROWS][COLS];
 
     public BoggleBoard() {
-        fillRandom();
+        this(Idioma.ESPANOL);
+    }
+
+    public BoggleBoard(Idioma idioma) {
+        fillRandom(idioma);
     }
 
     public BoggleBoard(char[][] preset) {
@@ -41,46 +45,21 @@ public class BoggleBoard {
         return copy;
     }
 
-    private void fillRandom() {
+    // Clave compacta del tablero: las letras concatenadas por filas
+    public String getClave() {
+        StringBuilder sb = new StringBuilder(ROWS * COLS);
         for (int r = 0; r < ROWS; r++) {
-            for (int c = 0; c < COLS; c++) {
-                grid[r][c] = randomSpanishLetter();
-            }
+            sb.append(grid[r]);
         }
+        return sb.toString();
     }
 
-    // Distribución ponderada simple para español (ajústala si quieres)
-    private static final char[] LETTERS = (
-            "aaaaaaa" +       // a
-                    "bbbb" +          // b
-                    "cccccc" +        // c
-                    "dddddd" +        // d
-                    "eeeeeeeeee" +    // e
-                    "ffff" +          // f
-                    "gggg" +          // g
-                    "hhhh" +          // h
-                    "iiiiiiii" +      // i
-                    "jj" +            // j
-                    "kk" +            // k (rara)
-                    "lllllll" +       // l
-                    "mmmmmmm" +       // m
-                    "nnnnnnnn" +      // n (sin ñ)
-                    "oooooooo" +      // o
-                    "pppppp" +        // p
-                    "q" +             // q (rara)
-                    "rrrrrrrr" +      // r
-                    "ssssssss" +      // s
-                    "tttttttt" +      // t
-                    "uuuuuu" +        // u
-                    "vv" +            // v
-                    "ww" +            // w (rara)
-                    "x" +             // x (rara)
-                    "yyyy" +          // y
-                    "z"               // z
-    ).toCharArray();
-
-    private static char randomSpanishLetter() {
-        return LETTERS[RNG.nextInt(LETTERS.length)];
+    private void fillRandom(Idioma idioma) {
+        for (int r = 0; r < ROWS; r++) {
+            for (int c = 0; c < COLS; c++) {
+                grid[r][c] = idioma.letraAleatoria(RNG);
+            }
+        }
     }
 
     @Override
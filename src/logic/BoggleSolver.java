@@ -2,24 +2,53 @@ package logic;
 
 import cu.edu.cujae.ceis.graph.LinkedGraph;
 import cu.edu.cujae.ceis.graph.vertex.Vertex;
+import utils.EventosJfr;
+import utils.Metricas;
 import utils.SpanishWordHeuristics;
 
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 
 public class BoggleSolver {
+    private static final Metricas.Histograma H_FORMAR = Metricas.histograma("solver.canFormWord");
+    private static final Metricas.Histograma H_TODAS = Metricas.histograma("solver.findAllWords");
+    private static final Metricas.Histograma H_PREFILTRO = Metricas.histograma("solver.prefiltro");
+    private static final Metricas.Contador C_NODOS = Metricas.contador("solver.nodosVisitados");
+    private static final Metricas.Contador C_FALLIDAS = Metricas.contador("solver.consultasFallidas");
+
+    // Con -Dboggle.solver.prefiltro=true, findAllWords busca sobre el subdiccionario de las letras del
+    // tablero (DiccionarioCongelado.subdiccionario). En 4x4 el prefiltro cuesta casi lo mismo que la
+    // búsqueda que ahorra, así que por defecto está desactivado
+    private static final boolean PREFILTRO = Boolean.getBoolean("boggle.solver.prefiltro");
+
+    // Si el diccionario expone su trie (RecorridoTrie), findAllWords avanza a la vez por el tablero y
+    // por los nodos del trie: en cada paso cruza la máscara de letras hijas del nodo con la de las
+    // letras de los vecinos sin visitar y solo baja por las que están en ambas, así que no hay
+    // consultas a ramas muertas ni cadenas intermedias. Con -Dboggle.solver.clasico=true se usa
+    // siempre la búsqueda por cadenas (containsPrefix/containsWord), para comparar
+    private static final boolean CLASICO = Boolean.getBoolean("boggle.solver.clasico");
+
     private final LinkedGraph graph;
     private final char[] letters;     // letras por índice 0..15
     private final int[][] neighbors;  // adyacencias por índice
+    private final int[] letterBits;   // 1 << (letra - 'a') por índice (0 si no es a–z)
 
     public BoggleSolver(LinkedGraph graph) {
         this.graph = graph;
         this.letters = extractLetters(graph);
         this.neighbors = extractNeighbors(graph);
+        this.letterBits = new int[letters.length];
+        for (int i = 0; i < letters.length; i++) letterBits[i] = bitLetra(letters[i]);
+    }
+
+    private static int bitLetra(char c) {
+        int i = c - 'a';
+        return i >= 0 && i < 26 ? 1 << i : 0;
     }
 
     private static char[] extractLetters(LinkedGraph g) {
@@ -49,6 +78,13 @@ public class BoggleSolver {
 
     // Valida una palabra normalizada (minúsculas, sin tildes, solo a–z) en el tablero
     public boolean canFormWord(String word) {
+        long t0 = Metricas.inicio();
+        boolean ok = formable(word);
+        H_FORMAR.registrarDesde(t0);
+        return ok;
+    }
+
+    private boolean formable(String word) {
         if (word == null) return false;
         int len = word.length();
         if (len < 3) return false;
@@ -135,38 +171,87 @@ public class BoggleSolver {
     // Variante con filtro para listado (reduce ruido visual sin afectar validación de usuario)
     public Set<String> findAllWords(Dictionary dict, int minLen, java.util.function.Predicate<String> accept) {
         Set<String> results = new HashSet<>();
-        boolean[] visited = new boolean[letters.length];
-        StringBuilder sb = new StringBuilder(16);
+        forEachWord(dict, minLen, accept, results);
+        return results;
+    }
+
+    /**
+     * Igual que findAllWords, pero entrega cada palabra (sin repetir) en cuanto la encuentra,
+     * para poder mostrar resultados parciales mientras la búsqueda sigue.
+     */
+    public void findAllWords(Dictionary dict, int minLen, java.util.function.Predicate<String> accept,
+                             Consumer<String> onWord) {
+        Set<String> seen = new HashSet<>();
+        forEachWord(dict, minLen, accept.and(w -> {
+            if (!seen.add(w)) return false;
+            onWord.accept(w);
+            return true;
+        }), null);
+    }
 
-        for (int start = 0; start < letters.length; start++) {
-            Arrays.fill(visited, false);
-            dfsEnumerate(start, dict, minLen, visited, sb, results, accept);
+    private void forEachWord(Dictionary dict, int minLen, java.util.function.Predicate<String> accept, Set<String> out) {
+        long t0 = Metricas.inicio();
+        EventosJfr.ResolucionTablero evento = new EventosJfr.ResolucionTablero();
+        evento.begin();
+        int[] counts = new int[3]; // {nodos visitados, palabras aceptadas, consultas fallidas}
+
+        // Prefiltro: solo las palabras cuyas letras (con repeticiones) están en el tablero
+        if (PREFILTRO && dict instanceof DiccionarioCongelado) {
+            long tp = Metricas.inicio();
+            dict = ((DiccionarioCongelado) dict).subdiccionario(letters);
+            H_PREFILTRO.registrarDesde(tp);
+        }
+
+        boolean trie = !CLASICO && dict instanceof RecorridoTrie;
+        if (trie) {
+            new RecorridoConjunto((RecorridoTrie) dict, minLen, accept, out, counts).recorrerTablero();
+        } else {
+            boolean[] visited = new boolean[letters.length];
+            StringBuilder sb = new StringBuilder(16);
+            for (int start = 0; start < letters.length; start++) {
+                Arrays.fill(visited, false);
+                dfsEnumerate(start, dict, minLen, visited, sb, out, accept, counts);
+            }
+        }
+        H_TODAS.registrarDesde(t0);
+        C_NODOS.sumar(counts[0]);
+        C_FALLIDAS.sumar(counts[2]);
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.tablero = new String(letters);
+            evento.nodosVisitados = counts[0];
+            evento.palabras = counts[1];
+            evento.consultasFallidas = counts[2];
+            evento.recorridoTrie = trie;
+            evento.commit();
         }
-        return results;
     }
 
     private void dfsEnumerate(int idx, Dictionary dict, int minLen, boolean[] visited, StringBuilder sb,
-                              Set<String> out, java.util.function.Predicate<String> accept) {
+                              Set<String> out, java.util.function.Predicate<String> accept, int[] counts) {
+        counts[0]++;
         visited[idx] = true;
         sb.append(letters[idx]);
         String cur = sb.toString();
 
         // poda por prefijo de diccionario
         if (!dict.containsPrefix(cur)) {
+            counts[2]++;
             sb.setLength(sb.length() - 1);
             visited[idx] = false;
             return;
         }
 
         if (cur.length() >= minLen && dict.containsWord(cur)) {
-            if (accept.test(cur)) {
-                out.add(cur);
+            // Palabras distintas: el set (o el filtro de la variante con consumidor) descarta repetidas
+            if (accept.test(cur) && (out == null || out.add(cur))) {
+                counts[1]++;
             }
         }
 
         for (int nb : neighbors[idx]) {
             if (!visited[nb]) {
-                dfsEnumerate(nb, dict, minLen, visited, sb, out, accept);
+                dfsEnumerate(nb, dict, minLen, visited, sb, out, accept, counts);
             }
         }
 
@@ -174,8 +259,98 @@ public class BoggleSolver {
         visited[idx] = false;
     }
 
+    /**
+     * Búsqueda de palabras que recorre a la vez el tablero y el trie del diccionario. Además de las
+     * máscaras de letras hijas, descarta un hijo si alguna letra que necesitan todas sus palabras
+     * (letrasRequeridas) ya no queda en las celdas sin visitar.
+     */
+    private final class RecorridoConjunto {
+        private final RecorridoTrie trie;
+        private final int minLen;
+        private final Predicate<String> accept;
+        private final Set<String> out;
+        private final int[] counts;
+        private final char[] prefijo = new char[letters.length];
+        private final int[] quedan = new int[26]; // celdas sin visitar por letra
+        private int libres;                       // bit i: queda alguna celda sin visitar con la letra 'a' + i
+        private int visitadas;                    // bit i: la celda i está en el camino actual
+
+        RecorridoConjunto(RecorridoTrie trie, int minLen, Predicate<String> accept, Set<String> out, int[] counts) {
+            this.trie = trie;
+            this.minLen = minLen;
+            this.accept = accept;
+            this.out = out;
+            this.counts = counts;
+            for (int i = 0; i < letters.length; i++) {
+                if (letterBits[i] == 0) continue;
+                quedan[letters[i] - 'a']++;
+                libres |= letterBits[i];
+            }
+        }
+
+        void recorrerTablero() {
+            int raiz = trie.mascaraHijos(RecorridoTrie.RAIZ);
+            for (int start = 0; start < letters.length; start++) {
+                if ((raiz & letterBits[start]) == 0) continue;
+                int nodo = trie.hijo(RecorridoTrie.RAIZ, letters[start]);
+                if (nodo == RecorridoTrie.NINGUNO) counts[2]++; // no pasa si la máscara es correcta
+                else if (viable(start, nodo)) recorrer(start, nodo, 0);
+            }
+        }
+
+        // nodo es el del trie al que se llega añadiendo letters[idx] al prefijo de longitud prof
+        private void recorrer(int idx, int nodo, int prof) {
+            counts[0]++;
+            prefijo[prof] = letters[idx];
+            int len = prof + 1;
+            if (len >= minLen && trie.esPalabra(nodo)) {
+                String w = new String(prefijo, 0, len);
+                if (accept.test(w) && (out == null || out.add(w))) counts[1]++;
+            }
+            visitar(idx);
+
+            int vecinos = 0;
+            for (int nb : neighbors[idx]) {
+                if ((visitadas & (1 << nb)) == 0) vecinos |= letterBits[nb];
+            }
+            int viables = vecinos & trie.mascaraHijos(nodo);
+            if (viables != 0) {
+                for (int nb : neighbors[idx]) {
+                    if ((visitadas & (1 << nb)) != 0 || (viables & letterBits[nb]) == 0) continue;
+                    int hijo = trie.hijo(nodo, letters[nb]);
+                    if (hijo == RecorridoTrie.NINGUNO) counts[2]++;
+                    else if (viable(nb, hijo)) recorrer(nb, hijo, len);
+                }
+            }
+            desvisitar(idx);
+        }
+
+        // Las letras que necesitan todas las palabras bajo nodo siguen en el tablero sin contar la celda idx
+        private boolean viable(int idx, int nodo) {
+            int requeridas = trie.letrasRequeridas(nodo);
+            if (requeridas == 0) return true;
+            int sinIdx = quedan[letters[idx] - 'a'] == 1 ? libres & ~letterBits[idx] : libres;
+            return (requeridas & ~sinIdx) == 0;
+        }
+
+        private void visitar(int idx) {
+            visitadas |= 1 << idx;
+            if (letterBits[idx] != 0 && --quedan[letters[idx] - 'a'] == 0) libres &= ~letterBits[idx];
+        }
+
+        private void desvisitar(int idx) {
+            visitadas &= ~(1 << idx);
+            if (letterBits[idx] != 0 && quedan[letters[idx] - 'a']++ == 0) libres |= letterBits[idx];
+        }
+    }
+
     // Ayudante para listado “limpio”
     public Set<String> findAllWordsFiltered(Dictionary dict, int minLen) {
         return findAllWords(dict, minLen, SpanishWordHeuristics::acceptableForListing);
     }
-}
\ No newline at end of file
+
+    // Listado “limpio” entregado palabra a palabra
+    public void findAllWordsFiltered(Dictionary dict, int minLen, Consumer<String> onWord) {
+        findAllWords(dict, minLen, SpanishWordHeuristics::acceptableForListing, onWord);
+    }
+}
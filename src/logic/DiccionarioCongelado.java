@@ -0,0 +1,228 @@
+package logic;
+
+import java.util.function.Predicate;
+
+/**
+ * Diccionario inmutable obtenido con TrieDictionary.freeze(), pensado para compartirlo entre
+ * cualquier número de hilos lectores (solver, partidas simultáneas, pool de tableros...).
+ *
+ * - Todos los campos son final y los arrays no se modifican tras el constructor: el modelo de
+ *   memoria garantiza que cualquier hilo que obtenga la referencia ve la estructura completa,
+ *   sin volatile ni sincronización en las consultas.
+ * - Trie en formato compacto por anchura (CSR): las aristas de cada nodo son contiguas y están
+ *   ordenadas por letra; la arista e lleva al nodo e + 1, así que no hace falta guardar destinos.
+ *   Tres arrays planos en lugar de un objeto por nodo: menos memoria y mejor localidad de caché.
+ * - Implementa RecorridoTrie para que el solver avance letra a letra desde el nodo anterior.
+ * - Cada nodo guarda además la máscara de letras (a-z) que usan TODAS las palabras por debajo de
+ *   él; subdiccionario() la usa para descartar ramas enteras que piden letras que el tablero no tiene.
+ */
+public final class DiccionarioCongelado implements Dictionary, RecorridoTrie {
+
+    private final int[] primeraArista; // aristas del nodo n: [primeraArista[n], primeraArista[n + 1])
+    private final char[] letra;        // letra de la arista e (que lleva al nodo e + 1)
+    private final long[] finPalabra;   // bit n: el nodo n termina una palabra
+    private final int[] requeridas;    // bit i: toda palabra que sigue al nodo usa la letra 'a' + i después de él
+    private final int[] hijos;         // bit i: el nodo tiene un hijo por la letra 'a' + i
+    private final int numPalabras;
+
+    DiccionarioCongelado(int[] primeraArista, char[] letra, long[] finPalabra, int numPalabras) {
+        this.primeraArista = primeraArista;
+        this.letra = letra;
+        this.finPalabra = finPalabra;
+        this.numPalabras = numPalabras;
+        this.hijos = new int[primeraArista.length - 1];
+        this.requeridas = calcularMascaras(hijos);
+    }
+
+    @Override
+    public void insert(String word) {
+        throw new UnsupportedOperationException("El diccionario congelado es de solo lectura");
+    }
+
+    @Override
+    public boolean containsWord(String word) {
+        int n = nodo(word);
+        return n != NINGUNO && esPalabra(n);
+    }
+
+    @Override
+    public boolean containsPrefix(String prefix) {
+        return nodo(prefix) != NINGUNO;
+    }
+
+    @Override
+    public int size() {
+        return numPalabras;
+    }
+
+    @Override
+    public int hijo(int nodo, char c) {
+        for (int e = primeraArista[nodo], fin = primeraArista[nodo + 1]; e < fin; e++) {
+            char l = letra[e];
+            if (l == c) return e + 1;
+            if (l > c) break; // ordenadas: ya no puede aparecer
+        }
+        return NINGUNO;
+    }
+
+    @Override
+    public boolean esPalabra(int nodo) {
+        return (finPalabra[nodo >>> 6] & (1L << nodo)) != 0;
+    }
+
+    @Override
+    public int mascaraHijos(int nodo) {
+        return hijos[nodo];
+    }
+
+    @Override
+    public int letrasRequeridas(int nodo) {
+        return requeridas[nodo];
+    }
+
+    public int getNumNodos() {
+        return primeraArista.length - 1;
+    }
+
+    // Acceso a los arrays para copiarlos a otro formato (DiccionarioFueraDeHeap); no modificarlos
+    int[] primeraArista() {
+        return primeraArista;
+    }
+
+    char[] letras() {
+        return letra;
+    }
+
+    long[] finPalabra() {
+        return finPalabra;
+    }
+
+    // Memoria de los arrays (sin contar la cabecera del objeto), para repartir un presupuesto de memoria
+    public long getBytesAproximados() {
+        return 16L * 5 + primeraArista.length * 4L + letra.length * 2L + finPalabra.length * 8L
+                + (requeridas.length + hijos.length) * 4L;
+    }
+
+    /**
+     * Recorre en orden alfabético las palabras que empiezan por prefijo y se detiene en la primera
+     * para la que parar devuelve true (resultado true). Como avanza palabra a palabra, parar pronto
+     * cuesta poco aunque el prefijo sea muy común.
+     */
+    public boolean recorrerPalabras(String prefijo, Predicate<String> parar) {
+        int n = nodo(prefijo);
+        if (n == NINGUNO) return false;
+        StringBuilder sb = new StringBuilder(prefijo);
+        return recorrer(n, sb, parar);
+    }
+
+    private boolean recorrer(int n, StringBuilder sb, Predicate<String> parar) {
+        if (esPalabra(n) && parar.test(sb.toString())) return true;
+        for (int e = primeraArista[n], fin = primeraArista[n + 1]; e < fin; e++) {
+            sb.append(letra[e]);
+            boolean parado = recorrer(e + 1, sb, parar);
+            sb.setLength(sb.length() - 1);
+            if (parado) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Subdiccionario con solo las palabras que se pueden escribir con las letras dadas (contando
+     * repeticiones: una letra que sale una vez no se puede usar dos). Es un filtro previo al solver,
+     * más estricto que la poda por prefijo: con el histograma del tablero se baja por el trie solo
+     * por letras que quedan, y se descarta un nodo en cuanto alguna letra que piden todas sus
+     * palabras ya no está. Los nodos que conservan alguna palabra se copian en el mismo formato.
+     *
+     * No tiene en cuenta la adyacencia: es un superconjunto de las palabras del tablero, normalmente
+     * de unos pocos cientos o miles de palabras.
+     */
+    public DiccionarioCongelado subdiccionario(char[] letras) {
+        int[] quedan = new int[26];
+        int mascara = 0;
+        for (char c : letras) {
+            int i = c - 'a';
+            if (i < 0 || i >= 26) continue;
+            quedan[i]++;
+            mascara |= 1 << i;
+        }
+        long[] conservar = new long[finPalabra.length];
+        int[] numConservados = new int[1];
+        if ((requeridas[RAIZ] & ~mascara) != 0 || !marcar(RAIZ, quedan, mascara, conservar, numConservados)) {
+            return new DiccionarioCongelado(new int[]{0, 0}, new char[0], new long[1], 0);
+        }
+
+        // Copia por anchura de los nodos marcados: mismo formato (la arista e lleva al nodo e + 1)
+        int k = numConservados[0];
+        int[] orden = new int[k];
+        int[] primera = new int[k + 1];
+        char[] letraSub = new char[k - 1];
+        long[] finSub = new long[(k + 63) >>> 6];
+        int palabras = 0, siguiente = 1;
+        orden[0] = RAIZ;
+        for (int i = 0; i < k; i++) {
+            int n = orden[i];
+            primera[i] = siguiente - 1;
+            for (int e = primeraArista[n], fin = primeraArista[n + 1]; e < fin; e++) {
+                int h = e + 1;
+                if ((conservar[h >>> 6] & (1L << h)) == 0) continue;
+                letraSub[siguiente - 1] = letra[e];
+                orden[siguiente++] = h;
+            }
+            if (esPalabra(n)) {
+                finSub[i >>> 6] |= 1L << i;
+                palabras++;
+            }
+        }
+        primera[k] = k - 1;
+        return new DiccionarioCongelado(primera, letraSub, finSub, palabras);
+    }
+
+    // Marca n si por debajo queda alguna palabra escribible con las letras que quedan. Los hijos se
+    // comprueban antes de bajar: sus máscaras son contiguas, así que descartarlos apenas cuesta
+    private boolean marcar(int n, int[] quedan, int mascara, long[] conservar, int[] numConservados) {
+        boolean alguna = esPalabra(n);
+        for (int e = primeraArista[n], fin = primeraArista[n + 1]; e < fin; e++) {
+            int i = letra[e] - 'a';
+            if (i < 0 || i >= 26 || quedan[i] == 0) continue;
+            int resto = quedan[i] == 1 ? mascara & ~(1 << i) : mascara;
+            if ((requeridas[e + 1] & ~resto) != 0) continue;
+            quedan[i]--;
+            if (marcar(e + 1, quedan, resto, conservar, numConservados)) alguna = true;
+            quedan[i]++;
+        }
+        if (alguna) {
+            conservar[n >>> 6] |= 1L << n;
+            numConservados[0]++;
+        }
+        return alguna;
+    }
+
+    // Rellena las letras de los hijos y devuelve las requeridas, de las hojas a la raíz (en orden de
+    // anchura los hijos van después del padre)
+    private int[] calcularMascaras(int[] hijos) {
+        int n = primeraArista.length - 1;
+        int[] req = new int[n];
+        for (int v = n - 1; v >= 0; v--) {
+            int r = -1, h = 0;
+            for (int e = primeraArista[v], fin = primeraArista[v + 1]; e < fin; e++) {
+                int i = letra[e] - 'a';
+                int bit = i >= 0 && i < 26 ? 1 << i : 0;
+                h |= bit;
+                r &= bit | req[e + 1];
+            }
+            hijos[v] = h;
+            // Si aquí ya termina una palabra (o no hay hijos) no hace falta ninguna letra más
+            req[v] = esPalabra(v) || primeraArista[v] == primeraArista[v + 1] ? 0 : r;
+        }
+        return req;
+    }
+
+    private int nodo(String s) {
+        if (s == null) return NINGUNO;
+        int n = RAIZ;
+        for (int i = 0; i < s.length() && n != NINGUNO; i++) {
+            n = hijo(n, s.charAt(i));
+        }
+        return n;
+    }
+}
@@ -0,0 +1,162 @@
+package logic;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Diccionario inmutable con el trie fuera del heap de Java: el mismo formato compacto por anchura
+ * que DiccionarioCongelado, pero guardado en un ByteBuffer directo o en un fichero mapeado en
+ * memoria. Para el GC es un único objeto pequeño, por grande que sea el diccionario: no hay nada
+ * que marcar ni copiar.
+ *
+ * - desde() copia un DiccionarioCongelado a memoria nativa; escribir() lo guarda en un fichero y
+ *   mapear() lo abre sin leerlo ni volver a construir nada (el sistema carga las páginas al tocarlas
+ *   y las comparte entre procesos).
+ * - Las consultas leen primitivas en posiciones absolutas del buffer (getInt/getChar/getLong), que
+ *   no cambian su estado: se puede compartir entre hilos sin sincronizar.
+ * - La memoria nativa se libera cuando el GC recoge el buffer (o se desmapea el fichero).
+ *
+ * Formato (little-endian):
+ *   [int MAGIA "BGDT"][int VERSION][int nodos][int aristas][int palabras][int 0]
+ *   [int primeraArista x (nodos + 1)][char letra x aristas][relleno hasta 8][long finPalabra x ((nodos + 63) / 64)]
+ */
+public final class DiccionarioFueraDeHeap implements Dictionary, RecorridoTrie {
+
+    public static final int MAGIA = 0x42474454; // "BGDT"
+    public static final int VERSION = 1;
+    private static final int CABECERA = 24;
+
+    private final ByteBuffer datos;
+    private final int numNodos;
+    private final int numPalabras;
+    private final int offLetras;
+    private final int offFin;
+
+    private DiccionarioFueraDeHeap(ByteBuffer datos) throws IOException {
+        this.datos = datos.order(ByteOrder.LITTLE_ENDIAN);
+        if (datos.capacity() < CABECERA || datos.getInt(0) != MAGIA) throw new IOException("No es un diccionario compilado");
+        if (datos.getInt(4) != VERSION) throw new IOException("Versión de diccionario no soportada: " + datos.getInt(4));
+        this.numNodos = datos.getInt(8);
+        int numAristas = datos.getInt(12);
+        this.numPalabras = datos.getInt(16);
+        this.offLetras = CABECERA + (numNodos + 1) * 4;
+        this.offFin = alinear8(offLetras + numAristas * 2);
+        if (datos.capacity() != tamano(numNodos, numAristas)) throw new IOException("Diccionario compilado truncado o corrupto");
+    }
+
+    // Copia el diccionario a memoria nativa (ByteBuffer directo)
+    public static DiccionarioFueraDeHeap desde(DiccionarioCongelado d) {
+        int[] primera = d.primeraArista();
+        char[] letra = d.letras();
+        long[] fin = d.finPalabra();
+        int nodos = primera.length - 1;
+        ByteBuffer b = ByteBuffer.allocateDirect(tamano(nodos, letra.length)).order(ByteOrder.LITTLE_ENDIAN);
+        b.putInt(MAGIA).putInt(VERSION).putInt(nodos).putInt(letra.length).putInt(d.size()).putInt(0);
+        b.asIntBuffer().put(primera);
+        int offLetras = CABECERA + primera.length * 4;
+        b.position(offLetras);
+        b.asCharBuffer().put(letra);
+        b.position(alinear8(offLetras + letra.length * 2));
+        b.asLongBuffer().put(fin);
+        b.clear();
+        try {
+            return new DiccionarioFueraDeHeap(b);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // lo acabamos de escribir: no puede estar mal
+        }
+    }
+
+    // Abre un diccionario compilado con escribir() mapeándolo en memoria (solo lectura)
+    public static DiccionarioFueraDeHeap mapear(Path fichero) throws IOException {
+        try (FileChannel ch = FileChannel.open(fichero, StandardOpenOption.READ)) {
+            // El mapeo sigue siendo válido después de cerrar el canal
+            return new DiccionarioFueraDeHeap(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+        }
+    }
+
+    public void escribir(Path fichero) throws IOException {
+        try (FileChannel ch = FileChannel.open(fichero, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer b = datos.duplicate();
+            b.clear();
+            while (b.hasRemaining()) ch.write(b);
+        }
+    }
+
+    @Override
+    public void insert(String word) {
+        throw new UnsupportedOperationException("El diccionario fuera del heap es de solo lectura");
+    }
+
+    @Override
+    public boolean containsWord(String word) {
+        int n = nodo(word);
+        return n != NINGUNO && esPalabra(n);
+    }
+
+    @Override
+    public boolean containsPrefix(String prefix) {
+        return nodo(prefix) != NINGUNO;
+    }
+
+    @Override
+    public int size() {
+        return numPalabras;
+    }
+
+    @Override
+    public int hijo(int nodo, char c) {
+        int base = CABECERA + nodo * 4;
+        for (int e = datos.getInt(base), fin = datos.getInt(base + 4); e < fin; e++) {
+            char l = datos.getChar(offLetras + e * 2);
+            if (l == c) return e + 1;
+            if (l > c) break; // ordenadas: ya no puede aparecer
+        }
+        return NINGUNO;
+    }
+
+    @Override
+    public boolean esPalabra(int nodo) {
+        return (datos.getLong(offFin + (nodo >>> 6) * 8) & (1L << nodo)) != 0;
+    }
+
+    // Se calcula con las aristas del nodo (el formato del fichero no guarda máscaras)
+    @Override
+    public int mascaraHijos(int nodo) {
+        int base = CABECERA + nodo * 4, m = 0;
+        for (int e = datos.getInt(base), fin = datos.getInt(base + 4); e < fin; e++) {
+            int i = datos.getChar(offLetras + e * 2) - 'a';
+            if (i >= 0 && i < 26) m |= 1 << i;
+        }
+        return m;
+    }
+
+    public int getNumNodos() {
+        return numNodos;
+    }
+
+    public long getBytesFueraDeHeap() {
+        return datos.capacity();
+    }
+
+    private int nodo(String s) {
+        if (s == null) return NINGUNO;
+        int n = RAIZ;
+        for (int i = 0; i < s.length() && n != NINGUNO; i++) {
+            n = hijo(n, s.charAt(i));
+        }
+        return n;
+    }
+
+    private static int tamano(int nodos, int aristas) {
+        return alinear8(CABECERA + (nodos + 1) * 4 + aristas * 2) + ((nodos + 63) >>> 6) * 8;
+    }
+
+    private static int alinear8(int n) {
+        return (n + 7) & ~7;
+    }
+}
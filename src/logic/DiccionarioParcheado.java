@@ -0,0 +1,229 @@
+package logic;
+
+import utils.ParcheDiccionario;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Diccionario inmutable formado por una base congelada más los cambios de uno o varios parches
+ * (ParcheDiccionario), sin reconstruir la base.
+ *
+ * - Las palabras añadidas van en un trie pequeño propio; las quitadas, en un conjunto.
+ * - containsPrefix sigue siendo exacto, que es lo que usa la poda del solver: un prefijo de la
+ *   base deja de valer si todas sus palabras se han quitado. Al aplicar el parche se calculan esos
+ *   prefijos vacíos solo a lo largo de las palabras quitadas, de la más larga a la más corta, y se
+ *   para en el primero que aún conserva alguna palabra.
+ * - aplicar() cuesta en proporción al parche más los cambios ya acumulados, no al tamaño de la
+ *   base. Cuando los cambios acumulados crecen, compactar() los funde en una base nueva (el
+ *   GestorDiccionario lo hace solo al pasar de CAMBIOS_COMPACTAR).
+ * - Implementa RecorridoTrie sobre las dos capas, para que el solver no pierda el recorrido nodo a
+ *   nodo por haber un parche. Un nodo es el de la base si el prefijo solo está en la base, o
+ *   getNumNodos() de la base + el de altas si está en altas (la raíz es la de las dos); para los de
+ *   altas se guarda también su nodo en la base. Las bajas y los prefijos vacíos se ocultan con
+ *   bitsets por nodo de la base.
+ */
+public final class DiccionarioParcheado implements Dictionary, RecorridoTrie {
+
+    private final DiccionarioCongelado base;
+    private final DiccionarioCongelado altas; // palabras añadidas que la base no tiene
+    private final TreeSet<String> listaAltas;
+    private final Set<String> bajas;          // palabras de la base que se han quitado
+    private final Set<String> prefijosVacios; // prefijos de la base cuyas palabras están todas quitadas
+    private final int numPalabras;
+
+    // Recorrido por nodos (RecorridoTrie)
+    private final int nodosBase;         // los nodos >= nodosBase son nodosBase + nodo de altas
+    private final int[] baseDeAlta;      // nodo de la base con el mismo prefijo que el de altas, o NINGUNO
+    private final BitSet nodosBajas;     // nodos de la base cuya palabra se ha quitado
+    private final BitSet nodosVacios;    // nodos de la base de prefijosVacios
+    private final BitSet padresDeVacios; // nodos de la base con algún hijo en nodosVacios
+
+    private DiccionarioParcheado(DiccionarioCongelado base, TreeSet<String> listaAltas, Set<String> bajas) {
+        this.base = base;
+        this.listaAltas = listaAltas;
+        this.bajas = bajas;
+        TrieDictionary t = new TrieDictionary();
+        for (String w : listaAltas) t.insert(w);
+        this.altas = t.freeze();
+        this.prefijosVacios = prefijosVacios(base, bajas);
+        this.numPalabras = base.size() + listaAltas.size() - bajas.size();
+
+        this.nodosBase = base.getNumNodos();
+        this.nodosBajas = new BitSet(nodosBase);
+        for (String w : bajas) nodosBajas.set(nodoBase(w));
+        this.nodosVacios = new BitSet(nodosBase);
+        this.padresDeVacios = new BitSet(nodosBase);
+        for (String p : prefijosVacios) {
+            nodosVacios.set(nodoBase(p));
+            padresDeVacios.set(nodoBase(p.substring(0, p.length() - 1)));
+        }
+        this.baseDeAlta = new int[altas.getNumNodos()];
+        emparejar(RAIZ, RAIZ);
+    }
+
+    // Base sin cambios, punto de partida para aplicar parches
+    public static DiccionarioParcheado sobre(DiccionarioCongelado base) {
+        if (base == null) throw new IllegalArgumentException("La base no puede ser null");
+        return new DiccionarioParcheado(base, new TreeSet<>(), new HashSet<>());
+    }
+
+    // Nueva versión con el parche encima de los cambios que ya había; esta no se modifica
+    public DiccionarioParcheado aplicar(ParcheDiccionario parche) {
+        TreeSet<String> a = new TreeSet<>(listaAltas);
+        Set<String> b = new HashSet<>(bajas);
+        for (String w : parche.getBajas()) {
+            if (!a.remove(w) && base.containsWord(w)) b.add(w);
+        }
+        for (String w : parche.getAltas()) {
+            if (!b.remove(w) && !base.containsWord(w)) a.add(w);
+        }
+        return new DiccionarioParcheado(base, a, b);
+    }
+
+    // Funde base y cambios en un diccionario congelado nuevo (la nueva base)
+    public DiccionarioCongelado compactar() {
+        List<String> palabras = new ArrayList<>(numPalabras);
+        base.recorrerPalabras("", w -> {
+            if (!bajas.contains(w)) palabras.add(w);
+            return false;
+        });
+        palabras.addAll(listaAltas);
+        palabras.sort(null);
+        TrieDictionary t = new TrieDictionary();
+        insertarEquilibrado(t, palabras, 0, palabras.size() - 1);
+        return t.freeze();
+    }
+
+    @Override
+    public void insert(String word) {
+        throw new UnsupportedOperationException("El diccionario parcheado es de solo lectura; usa aplicar()");
+    }
+
+    @Override
+    public boolean containsWord(String word) {
+        if (altas.containsWord(word)) return true;
+        return base.containsWord(word) && !bajas.contains(word);
+    }
+
+    @Override
+    public boolean containsPrefix(String prefix) {
+        if (altas.containsPrefix(prefix)) return true;
+        return base.containsPrefix(prefix) && !prefijosVacios.contains(prefix);
+    }
+
+    @Override
+    public int size() {
+        return numPalabras;
+    }
+
+    @Override
+    public int hijo(int nodo, char c) {
+        if (nodo != RAIZ && nodo < nodosBase) return hijoBase(nodo, c);
+        int a = nodo == RAIZ ? RAIZ : nodo - nodosBase;
+        int h = altas.hijo(a, c);
+        if (h != NINGUNO) return nodosBase + h;
+        int b = baseDeAlta[a];
+        return b == NINGUNO ? NINGUNO : hijoBase(b, c);
+    }
+
+    @Override
+    public boolean esPalabra(int nodo) {
+        if (nodo != RAIZ && nodo < nodosBase) return palabraBase(nodo);
+        int a = nodo == RAIZ ? RAIZ : nodo - nodosBase;
+        int b = baseDeAlta[a];
+        return altas.esPalabra(a) || b != NINGUNO && palabraBase(b);
+    }
+
+    @Override
+    public int mascaraHijos(int nodo) {
+        if (nodo != RAIZ && nodo < nodosBase) return mascaraBase(nodo);
+        int a = nodo == RAIZ ? RAIZ : nodo - nodosBase;
+        int b = baseDeAlta[a];
+        return altas.mascaraHijos(a) | (b == NINGUNO ? 0 : mascaraBase(b));
+    }
+
+    // Quitar palabras solo puede añadir letras requeridas, así que las de la base siguen valiendo
+    @Override
+    public int letrasRequeridas(int nodo) {
+        if (nodo != RAIZ && nodo < nodosBase) return base.letrasRequeridas(nodo);
+        int a = nodo == RAIZ ? RAIZ : nodo - nodosBase;
+        int b = baseDeAlta[a];
+        return b == NINGUNO ? altas.letrasRequeridas(a) : altas.letrasRequeridas(a) & base.letrasRequeridas(b);
+    }
+
+    public DiccionarioCongelado getBase() {
+        return base;
+    }
+
+    // Palabras añadidas más quitadas respecto a la base
+    public int getNumCambios() {
+        return listaAltas.size() + bajas.size();
+    }
+
+    private int hijoBase(int b, char c) {
+        int h = base.hijo(b, c);
+        return h == NINGUNO || nodosVacios.get(h) ? NINGUNO : h;
+    }
+
+    private boolean palabraBase(int b) {
+        return base.esPalabra(b) && !nodosBajas.get(b);
+    }
+
+    private int mascaraBase(int b) {
+        int m = base.mascaraHijos(b);
+        if (!padresDeVacios.get(b)) return m;
+        for (int resto = m; resto != 0; resto &= resto - 1) {
+            int i = Integer.numberOfTrailingZeros(resto);
+            if (nodosVacios.get(base.hijo(b, (char) ('a' + i)))) m &= ~(1 << i);
+        }
+        return m;
+    }
+
+    // Rellena baseDeAlta bajando a la vez por altas y por la base (altas es pequeño). Va por las
+    // aristas y no por la máscara para no dejarse letras fuera de a-z
+    private void emparejar(int a, int b) {
+        baseDeAlta[a] = b;
+        int[] primera = altas.primeraArista();
+        char[] letra = altas.letras();
+        for (int e = primera[a], fin = primera[a + 1]; e < fin; e++) {
+            emparejar(e + 1, b == NINGUNO ? NINGUNO : hijoBase(b, letra[e]));
+        }
+    }
+
+    private int nodoBase(String s) {
+        int n = RAIZ;
+        for (int i = 0; i < s.length() && n != NINGUNO; i++) n = base.hijo(n, s.charAt(i));
+        return n;
+    }
+
+    private static Set<String> prefijosVacios(DiccionarioCongelado base, Set<String> bajas) {
+        Set<String> vacios = new HashSet<>(), conPalabras = new HashSet<>();
+        for (String w : bajas) {
+            for (int i = w.length(); i > 0; i--) {
+                String p = w.substring(0, i);
+                // Ya decidido por otra palabra quitada: los prefijos más cortos también lo están
+                if (vacios.contains(p) || conPalabras.contains(p)) break;
+                if (base.recorrerPalabras(p, x -> !bajas.contains(x))) {
+                    conPalabras.add(p);
+                    break;
+                }
+                vacios.add(p);
+            }
+        }
+        return vacios;
+    }
+
+    // Mismo orden de inserción que la carga del diccionario (por mitades)
+    private static void insertarEquilibrado(TrieDictionary t, List<String> palabras, int lo, int hi) {
+        if (lo > hi) return;
+        int mid = (lo + hi) >>> 1;
+        t.insert(palabras.get(mid));
+        insertarEquilibrado(t, palabras, lo, mid - 1);
+        insertarEquilibrado(t, palabras, mid + 1, hi);
+    }
+}
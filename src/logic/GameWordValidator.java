@@ -1,11 +1,13 @@
 package logic;
 
+import utils.EventosJfr;
+import utils.Metricas;
 import utils.TextNormalizer;
 
 /**
  * Valida palabras ingresadas por el usuario:
  * 1) Normaliza (minúsculas, sin tildes, solo a-z).
- * 2) Aplica reglas del juego (longitud >= 3, sin 'ñ').
+ * 2) Aplica reglas del juego (longitud >= 3, sin los caracteres excluidos del idioma: 'ñ' en español).
  * 3) Verifica que se puede formar en el tablero con el solver.
  * 4) Verifica que existe en el diccionario (Dictionary.containsWord).
  */
@@ -14,17 +16,31 @@ public class GameWordValidator {
     public enum Result {
         OK,
         TOO_SHORT,
-        INVALID_CHARACTERS, // incluye 'ñ' o caracteres que no sean letras
+        INVALID_CHARACTERS, // incluye caracteres excluidos por el idioma ('ñ') o que no sean letras
         NOT_FORMABLE_ON_BOARD,
         NOT_IN_DICTIONARY
     }
 
+    private static final Metricas.Histograma H_VALIDAR = Metricas.histograma("validador.validateUserWord");
+    private static final Metricas.Contador[] C_RESULTADO = new Metricas.Contador[Result.values().length];
+    static {
+        for (Result r : Result.values()) {
+            C_RESULTADO[r.ordinal()] = Metricas.contador("validador.resultado." + r.name().toLowerCase());
+        }
+    }
+
     private final BoggleSolver solver;
     private final Dictionary dictionary;
+    private final String excluidos;
 
     public GameWordValidator(BoggleSolver solver, Dictionary dictionary) {
+        this(solver, dictionary, Idioma.ESPANOL.getExcluidos());
+    }
+
+    public GameWordValidator(BoggleSolver solver, Dictionary dictionary, String caracteresExcluidos) {
         this.solver = solver;
         this.dictionary = dictionary;
+        this.excluidos = caracteresExcluidos != null ? caracteresExcluidos : "";
     }
 
     public static final class Validation {
@@ -40,11 +56,29 @@ public class GameWordValidator {
     }
 
     public Validation validateUserWord(String rawInput) {
+        long t0 = Metricas.inicio();
+        EventosJfr.ValidacionEnvio evento = new EventosJfr.ValidacionEnvio();
+        evento.begin();
+        Validation v = validar(rawInput);
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.resultado = v.result.name();
+            evento.longitud = v.normalized.length();
+            evento.commit();
+        }
+        if (Metricas.ACTIVAS) {
+            H_VALIDAR.registrarDesde(t0);
+            C_RESULTADO[v.result.ordinal()].incrementar();
+        }
+        return v;
+    }
+
+    private Validation validar(String rawInput) {
         if (rawInput == null) return new Validation(Result.INVALID_CHARACTERS, "");
 
-        // Detecta 'ñ' explícitamente antes de normalizar (según la regla del juego)
-        if (rawInput.indexOf('ñ') >= 0 || rawInput.indexOf('Ñ') >= 0) {
-            return new Validation(Result.INVALID_CHARACTERS, "");
+        // Detecta los caracteres excluidos ('ñ' en español) antes de normalizar (según la regla del juego)
+        for (int i = 0; i < excluidos.length(); i++) {
+            if (rawInput.indexOf(excluidos.charAt(i)) >= 0) return new Validation(Result.INVALID_CHARACTERS, "");
         }
 
         // Si solo tiene espacios o está vacío -> caracteres inválidos
@@ -0,0 +1,126 @@
+package logic;
+
+import utils.DictionaryLoader;
+import utils.SpanishWordHeuristics;
+
+import java.util.Random;
+import java.util.function.Predicate;
+
+/**
+ * Definición de un idioma de juego: de dónde sale su diccionario, con qué letras se generan los
+ * tableros, qué entradas de su fichero se descartan al cargarlo, qué caracteres rechaza el validador
+ * y qué palabras se muestran en el análisis.
+ *
+ * Es solo la descripción (ligera y constante); el diccionario cargado lo guarda RegistroIdiomas,
+ * que lo carga al pedirlo y lo expulsa si hace falta memoria.
+ */
+public final class Idioma {
+
+    // Distribución ponderada simple para español (ajústala si quieres)
+    public static final Idioma ESPANOL = new Idioma("es", "Español", "game_files/diccionario.txt",
+            "aaaaaaa" +       // a
+                    "bbbb" +          // b
+                    "cccccc" +        // c
+                    "dddddd" +        // d
+                    "eeeeeeeeee" +    // e
+                    "ffff" +          // f
+                    "gggg" +          // g
+                    "hhhh" +          // h
+                    "iiiiiiii" +      // i
+                    "jj" +            // j
+                    "kk" +            // k (rara)
+                    "lllllll" +       // l
+                    "mmmmmmm" +       // m
+                    "nnnnnnnn" +      // n (sin ñ)
+                    "oooooooo" +      // o
+                    "pppppp" +        // p
+                    "q" +             // q (rara)
+                    "rrrrrrrr" +      // r
+                    "ssssssss" +      // s
+                    "tttttttt" +      // t
+                    "uuuuuu" +        // u
+                    "vv" +            // v
+                    "ww" +            // w (rara)
+                    "x" +             // x (rara)
+                    "yyyy" +          // y
+                    "z",              // z
+            "ñÑ", DictionaryLoader.Reglas.ESPANOL, SpanishWordHeuristics::acceptableForListing);
+
+    // Frecuencias aproximadas del inglés escrito
+    public static final Idioma INGLES = new Idioma("en", "English", "game_files/diccionario_en.txt",
+            "aaaaaaaa" + "bb" + "ccc" + "dddd" + "eeeeeeeeeeee" + "ff" + "ggg" + "hhhhhh" + "iiiiiii"
+                    + "j" + "k" + "lllll" + "mmm" + "nnnnnnn" + "oooooooo" + "pp" + "q" + "rrrrrr"
+                    + "ssssss" + "ttttttttt" + "uuu" + "vv" + "ww" + "x" + "yy" + "z",
+            "", DictionaryLoader.Reglas.LATINAS, w -> w.length() >= 3 && tieneVocal(w, "aeiouy"));
+
+    // Portugués: las letras con diacrítico se juegan sin él (ç -> c, ã -> a), como en español
+    public static final Idioma PORTUGUES = new Idioma("pt", "Português", "game_files/diccionario_pt.txt",
+            "aaaaaaaaaaaa" + "b" + "cccc" + "ddddd" + "eeeeeeeeeee" + "f" + "gg" + "h" + "iiiiii"
+                    + "j" + "lll" + "mmmmm" + "nnnnn" + "oooooooooo" + "ppp" + "q" + "rrrrrr"
+                    + "sssssss" + "ttttt" + "uuuu" + "vv" + "x" + "z",
+            "", DictionaryLoader.Reglas.LATINAS, w -> w.length() >= 3 && tieneVocal(w, "aeiou"));
+
+    private final String codigo;
+    private final String nombre;
+    private final String recursoDiccionario;
+    private final char[] letras;     // una entrada por "ficha": las letras repetidas salen más
+    private final String excluidos;  // caracteres que invalidan una palabra antes de normalizar
+    private final DictionaryLoader.Reglas reglasCarga;
+    private final Predicate<String> listable;
+
+    public Idioma(String codigo, String nombre, String recursoDiccionario, String letras,
+                  String excluidos, DictionaryLoader.Reglas reglasCarga, Predicate<String> listable) {
+        if (codigo == null || letras == null || letras.isEmpty()) {
+            throw new IllegalArgumentException("Un idioma necesita código y letras");
+        }
+        this.codigo = codigo;
+        this.nombre = nombre;
+        this.recursoDiccionario = recursoDiccionario;
+        this.letras = letras.toCharArray();
+        this.excluidos = excluidos != null ? excluidos : "";
+        this.reglasCarga = reglasCarga != null ? reglasCarga : DictionaryLoader.Reglas.LATINAS;
+        this.listable = listable != null ? listable : w -> true;
+    }
+
+    public String getCodigo() {
+        return codigo;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public String getRecursoDiccionario() {
+        return recursoDiccionario;
+    }
+
+    public String getExcluidos() {
+        return excluidos;
+    }
+
+    public char letraAleatoria(Random rnd) {
+        return letras[rnd.nextInt(letras.length)];
+    }
+
+    // Qué entradas del fichero del diccionario se descartan al cargarlo (RegistroIdiomas)
+    public DictionaryLoader.Reglas getReglasCarga() {
+        return reglasCarga;
+    }
+
+    // Heurística del análisis de fin de partida (no afecta a la validación de lo que escribe el jugador)
+    public boolean aceptableParaListado(String w) {
+        return w != null && listable.test(w);
+    }
+
+    @Override
+    public String toString() {
+        return codigo;
+    }
+
+    private static boolean tieneVocal(String w, String vocales) {
+        for (int i = 0; i < w.length(); i++) {
+            if (vocales.indexOf(w.charAt(i)) >= 0) return true;
+        }
+        return false;
+    }
+}
@@ -16,6 +16,23 @@ public class Jugador implements java.io.Serializable {
         setPartidasJugadas(0);
     }
 
+    // Restaura un jugador con sus datos acumulados (importaciones, herramientas)
+    public Jugador(String nombre, int puntos, int partidasJugadas, Date ultimaPartida) {
+        this(nombre);
+        setPuntos(puntos);
+        setPartidasJugadas(partidasJugadas);
+        this.ultimaPartida = ultimaPartida == null ? null : new Date(ultimaPartida.getTime());
+    }
+
+    // Copia independiente (para entregar instantáneas a otros hilos)
+    public Jugador copia() {
+        Jugador c = new Jugador(nombre);
+        c.puntos = puntos;
+        c.partidasJugadas = partidasJugadas;
+        c.ultimaPartida = ultimaPartida == null ? null : new Date(ultimaPartida.getTime());
+        return c;
+    }
+
     private void setNombre(String nombre) {
         this.nombre = nombre;
     }
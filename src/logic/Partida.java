@@ -1,6 +1,7 @@
 package logic;
 
 import cu.edu.cujae.ceis.graph.LinkedGraph;
+import utils.Metricas;
 import utils.TextNormalizer;
 
 import java.util.*;
@@ -38,12 +39,45 @@ public class Partida {
         }
     }
 
+    // Estado en vivo de lo que el jugador lleva escrito (sin enviar)
+    public enum EstadoPrefijo {
+        VACIO,
+        PREFIJO,        // todavía puede acabar en una palabra del tablero
+        PALABRA,        // ya es una palabra válida (y quizá prefijo de otras)
+        YA_ENCONTRADA,  // palabra válida que ya se aceptó
+        SIN_SALIDA      // ninguna palabra del tablero empieza así
+    }
+
+    public static class ConsultaPrefijo {
+        public final EstadoPrefijo estado;
+        public final String normalizada;
+        public final int[] ruta; // ruta parcial en el tablero, o null si no se puede formar
+
+        public ConsultaPrefijo(EstadoPrefijo estado, String normalizada, int[] ruta) {
+            this.estado = estado;
+            this.normalizada = normalizada;
+            this.ruta = ruta;
+        }
+    }
+
+    public static final int LONGITUD_MINIMA = 3;
+
+    private static final Metricas.Histograma H_ENVIAR = Metricas.histograma("partida.enviarPalabra");
+    private static final Metricas.Contador[] C_ESTADO = new Metricas.Contador[EstadoValidacionPalabra.values().length];
+    static {
+        for (EstadoValidacionPalabra e : EstadoValidacionPalabra.values()) {
+            C_ESTADO[e.ordinal()] = Metricas.contador("partida.envio." + e.name().toLowerCase());
+        }
+    }
+
     private final String nombreJugador;
     private final BoggleBoard tablero;
     private final LinkedGraph grafo;
     private final BoggleSolver solver;
     private final Dictionary diccionario;
+    private final Idioma idioma;
     private final GameWordValidator validador;
+    private final TrieSoluciones soluciones;
 
     private final Set<String> palabrasAceptadas = new LinkedHashSet<>();
     private int puntosTotales = 0;
@@ -53,16 +87,23 @@ public class Partida {
     private boolean finalizada = false;
 
     public Partida(String nombreJugador, BoggleBoard tablero, Dictionary diccionario) {
+        this(nombreJugador, TableroPreparado.preparar(tablero, diccionario));
+    }
+
+    // Con un tablero ya preparado (p. ej. de PoolTableros) la partida se crea sin calcular nada
+    public Partida(String nombreJugador, TableroPreparado preparado) {
         if (nombreJugador == null || nombreJugador.trim().isEmpty()) throw new IllegalArgumentException("Nombre de jugador inválido");
-        if (diccionario == null) throw new IllegalArgumentException("El diccionario no puede ser null");
+        if (preparado == null) throw new IllegalArgumentException("El tablero preparado no puede ser null");
 
         this.nombreJugador = nombreJugador.trim();
-        this.tablero = tablero != null ? tablero : new BoggleBoard();
-        this.diccionario = diccionario;
+        this.tablero = preparado.tablero;
+        this.diccionario = preparado.diccionario;
+        this.idioma = preparado.idioma;
 
-        this.grafo = BoggleGraphBuilder.build(this.tablero);
-        this.solver = new BoggleSolver(this.grafo);
-        this.validador = new GameWordValidator(this.solver, this.diccionario);
+        this.grafo = preparado.grafo;
+        this.solver = preparado.solver;
+        this.validador = new GameWordValidator(this.solver, this.diccionario, idioma.getExcluidos());
+        this.soluciones = preparado.soluciones;
     }
 
     public void iniciar() {
@@ -77,6 +118,16 @@ public class Partida {
      * Si la partida está finalizada, lanza excepción.
      */
     public ResultadoEnvio enviarPalabra(String palabraIngresada) {
+        long t0 = Metricas.inicio();
+        ResultadoEnvio r = procesarEnvio(palabraIngresada);
+        if (Metricas.ACTIVAS) {
+            H_ENVIAR.registrarDesde(t0);
+            C_ESTADO[r.estado.ordinal()].incrementar();
+        }
+        return r;
+    }
+
+    private ResultadoEnvio procesarEnvio(String palabraIngresada) {
         if (!iniciada) iniciar();
         if (finalizada) {
             throw new IllegalStateException("La partida ya ha finalizado");
@@ -117,39 +168,86 @@ public class Partida {
         return solver.pathForWord(palabraNormalizada);
     }
 
+    /**
+     * Estado del texto que el jugador está escribiendo: si aún puede formar una palabra de este
+     * tablero y la ruta parcial que ocupa. Solo consulta el trie de soluciones y el tablero.
+     */
+    public ConsultaPrefijo consultarPrefijo(String texto) {
+        if (texto == null || texto.trim().isEmpty()) return new ConsultaPrefijo(EstadoPrefijo.VACIO, "", null);
+        // Mismas reglas de caracteres que al enviar: los excluidos del idioma ('ñ' en español) se
+        // normalizarían a otra letra
+        String excluidos = idioma.getExcluidos();
+        for (int i = 0; i < texto.length(); i++) {
+            char ch = texto.charAt(i);
+            if (excluidos.indexOf(ch) >= 0 || (!Character.isLetter(ch) && !Character.isWhitespace(ch))) {
+                return new ConsultaPrefijo(EstadoPrefijo.SIN_SALIDA, "", null);
+            }
+        }
+        String norm = TextNormalizer.normalize(texto);
+        if (norm.isEmpty()) return new ConsultaPrefijo(EstadoPrefijo.VACIO, norm, null);
+        int[] ruta = solver.pathForWord(norm);
+        EstadoPrefijo estado;
+        if (soluciones.contiene(norm) && norm.length() >= LONGITUD_MINIMA) {
+            estado = palabrasAceptadas.contains(norm) ? EstadoPrefijo.YA_ENCONTRADA : EstadoPrefijo.PALABRA;
+        } else if (soluciones.esPrefijo(norm)) {
+            estado = EstadoPrefijo.PREFIJO;
+        } else {
+            estado = EstadoPrefijo.SIN_SALIDA;
+        }
+        return new ConsultaPrefijo(estado, norm, ruta);
+    }
+
+    public TrieSoluciones getSoluciones() {
+        return soluciones;
+    }
+
     /**
      * Calcula la puntuación según la longitud de la palabra, usando switch-case y una sola variable.
      */
     private int puntuarPalabra(String palabra) {
+        return palabra == null ? 0 : puntosPorLongitud(palabra.length());
+    }
+
+    // Puntos que vale una palabra de esa longitud (también para calcular el máximo posible)
+    public static int puntosPorLongitud(int longitud) {
         int puntos = 0;
-        if (palabra != null) {
-            int longitud = palabra.length();
-            switch (longitud) {
-                case 0:
-                case 1:
-                case 2:
-                    puntos = 0;
-                    break;
-                case 3:
-                case 4:
-                    puntos = 1;
-                    break;
-                case 5:
-                    puntos = 2;
-                    break;
-                case 6:
-                    puntos = 3;
-                    break;
-                case 7:
-                    puntos = 5;
-                    break;
-                default:
-                    if (longitud >= 8) puntos = 11;
-            }
+        switch (longitud) {
+            case 0:
+            case 1:
+            case 2:
+                puntos = 0;
+                break;
+            case 3:
+            case 4:
+                puntos = 1;
+                break;
+            case 5:
+                puntos = 2;
+                break;
+            case 6:
+                puntos = 3;
+                break;
+            case 7:
+                puntos = 5;
+                break;
+            default:
+                if (longitud >= 8) puntos = 11;
         }
         return puntos;
     }
 
+    /**
+     * Palabras "listables" del tablero (según la heurística del idioma), en orden alfabético. Salen
+     * del trie de soluciones que ya se calculó al preparar el tablero, sin volver a resolverlo.
+     */
+    public List<String> getSolucionesListables() {
+        List<String> res = new ArrayList<>();
+        for (String w : soluciones.palabras()) {
+            if (idioma.aceptableParaListado(w)) res.add(w);
+        }
+        return res;
+    }
+
     public void finalizar() {
         if (!iniciada) iniciar();
         if (!finalizada) {
@@ -166,6 +264,10 @@ public class Partida {
         return new ArrayList<>(palabrasAceptadas);
     }
 
+    public Idioma getIdioma() {
+        return idioma;
+    }
+
     public BoggleBoard getTablero() {
         return tablero;
     }
@@ -0,0 +1,117 @@
+package logic;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Reserva de tableros ya preparados para que empezar una partida sea inmediato.
+ *
+ * - Se rellena en segundo plano (en el Executor recibido) hasta CAPACIDAD tableros.
+ * - tomarEnSegundoPlano() nunca bloquea al que llama (p. ej. el EDT): si la reserva tiene un
+ *   tablero vigente lo entrega ya completado; si no, lo prepara en el Executor. tomar() es la
+ *   variante bloqueante, para hilos que sí pueden esperar.
+ * - El diccionario puede cambiar (GestorDiccionario): cada tablero se prepara con la versión
+ *   vigente y tomar() descarta los preparados con una anterior. renovar() los quita ya de la
+ *   reserva para no retener en memoria la versión vieja.
+ */
+public final class PoolTableros {
+
+    public static final int CAPACIDAD = 3;
+
+    private final Supplier<Dictionary> diccionario;
+    private final Idioma idioma;
+    private final Executor ejecutor;
+    private final ConcurrentLinkedQueue<TableroPreparado> reserva = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean rellenando = new AtomicBoolean(false);
+
+    public PoolTableros(Dictionary diccionario, Executor ejecutor) {
+        if (diccionario == null) throw new IllegalArgumentException("El diccionario no puede ser null");
+        this.diccionario = () -> diccionario;
+        this.idioma = Idioma.ESPANOL;
+        this.ejecutor = ejecutor;
+    }
+
+    // Con un diccionario que puede sustituirse: se consulta la versión vigente en cada tablero
+    public PoolTableros(Supplier<Dictionary> diccionario, Executor ejecutor) {
+        this(diccionario, Idioma.ESPANOL, ejecutor);
+    }
+
+    public PoolTableros(Supplier<Dictionary> diccionario, Idioma idioma, Executor ejecutor) {
+        if (diccionario == null) throw new IllegalArgumentException("El diccionario no puede ser null");
+        if (idioma == null) throw new IllegalArgumentException("El idioma no puede ser null");
+        this.diccionario = diccionario;
+        this.idioma = idioma;
+        this.ejecutor = ejecutor;
+    }
+
+    // Si la reserva está vacía prepara el tablero en el hilo que llama
+    public TableroPreparado tomar() {
+        TableroPreparado t = tomarDeReserva();
+        if (t == null) t = preparar();
+        rellenarEnSegundoPlano();
+        return t;
+    }
+
+    // Sin bloquear: completado ya si hay uno en reserva, o cuando el Executor termine de prepararlo
+    public CompletableFuture<TableroPreparado> tomarEnSegundoPlano() {
+        TableroPreparado t = tomarDeReserva();
+        CompletableFuture<TableroPreparado> f = t != null
+                ? CompletableFuture.completedFuture(t)
+                : CompletableFuture.supplyAsync(this::preparar, ejecutor);
+        rellenarEnSegundoPlano();
+        return f;
+    }
+
+    // Garantiza al menos un tablero en la reserva (en el hilo que llama)
+    public void asegurarDisponible() {
+        if (reserva.isEmpty()) reserva.offer(preparar());
+    }
+
+    // Rellena en el hilo que llama (pensado para el arranque)
+    public void rellenar() {
+        while (reserva.size() < CAPACIDAD) {
+            reserva.offer(preparar());
+        }
+    }
+
+    public void rellenarEnSegundoPlano() {
+        if (!rellenando.compareAndSet(false, true)) return;
+        ejecutor.execute(() -> {
+            try {
+                rellenar();
+            } catch (RuntimeException e) {
+                System.err.println("Advertencia preparando tableros: " + e.getMessage());
+            } finally {
+                rellenando.set(false);
+            }
+        });
+    }
+
+    // Quita de la reserva los tableros de versiones anteriores del diccionario y la vuelve a llenar
+    public void renovar() {
+        Dictionary vigente = diccionario.get();
+        reserva.removeIf(t -> t.getDiccionario() != vigente);
+        rellenarEnSegundoPlano();
+    }
+
+    public int disponibles() {
+        return reserva.size();
+    }
+
+    // Primer tablero de la reserva preparado con el diccionario vigente (los anteriores se descartan)
+    private TableroPreparado tomarDeReserva() {
+        Dictionary vigente = diccionario.get();
+        TableroPreparado t;
+        while ((t = reserva.poll()) != null && t.getDiccionario() != vigente) {
+            // preparado con una versión anterior del diccionario
+        }
+        return t;
+    }
+
+    private TableroPreparado preparar() {
+        return TableroPreparado.preparar(new BoggleBoard(idioma), diccionario.get(), idioma);
+    }
+}
@@ -0,0 +1,27 @@
+package logic;
+
+/**
+ * Acceso nodo a nodo a un trie de solo lectura, para recorrerlo a la vez que el tablero
+ * (cada paso es bajar un hijo, sin volver a recorrer el prefijo desde la raíz ni crear Strings).
+ *
+ * Los nodos son enteros opacos: RAIZ es el nodo del prefijo vacío y NINGUNO indica que no hay hijo.
+ * Las máscaras de letras usan 26 bits, uno por letra a-z, para cruzarlas con las del tablero.
+ */
+public interface RecorridoTrie {
+    int RAIZ = 0;
+    int NINGUNO = -1;
+
+    // Hijo de nodo por la letra c, o NINGUNO
+    int hijo(int nodo, char c);
+
+    // El camino de la raíz hasta nodo forma una palabra del diccionario
+    boolean esPalabra(int nodo);
+
+    // Bit i: nodo tiene un hijo por la letra 'a' + i
+    int mascaraHijos(int nodo);
+
+    // Bit i: todas las palabras que continúan tras nodo usan la letra 'a' + i (0 si no se sabe)
+    default int letrasRequeridas(int nodo) {
+        return 0;
+    }
+}
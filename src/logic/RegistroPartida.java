@@ -0,0 +1,39 @@
+package logic;
+
+/**
+ * Entrada del historial de partidas: una fila por cada Partida terminada.
+ * Es inmutable; se escribe en el log de HistorialPartidas y se reconstruye al consultarlo.
+ */
+public final class RegistroPartida {
+    public final String nombreJugador;
+    public final long marcaTiempo;   // millis de fin de partida
+    public final int puntos;
+    public final int numPalabras;
+    public final String claveTablero; // letras del tablero por filas (ver BoggleBoard.getClave())
+
+    public RegistroPartida(String nombreJugador, long marcaTiempo, int puntos, int numPalabras, String claveTablero) {
+        if (nombreJugador == null || nombreJugador.isEmpty()) throw new IllegalArgumentException("Nombre de jugador inválido");
+        this.nombreJugador = nombreJugador;
+        this.marcaTiempo = marcaTiempo;
+        this.puntos = puntos;
+        this.numPalabras = numPalabras;
+        this.claveTablero = claveTablero == null ? "" : claveTablero;
+    }
+
+    // Construye el registro a partir de una partida ya finalizada
+    public static RegistroPartida de(Partida partida) {
+        long fin = partida.getFinMillis() > 0 ? partida.getFinMillis() : System.currentTimeMillis();
+        return new RegistroPartida(
+                partida.getNombreJugador(),
+                fin,
+                partida.getPuntosTotales(),
+                partida.getPalabrasAceptadas().size(),
+                partida.getTablero().getClave()
+        );
+    }
+
+    @Override
+    public String toString() {
+        return nombreJugador + "@" + marcaTiempo + " " + puntos + "pts " + numPalabras + "pal [" + claveTablero + "]";
+    }
+}
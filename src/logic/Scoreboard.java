@@ -7,8 +7,11 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.List;
 
 import utils.TrabajarFichero;
 
@@ -17,14 +20,23 @@ public class Scoreboard {
     /*Obtiene el ranking de los 10 mejores
     jugadores ordenados por puntos y en caso de empate por fecha de ultima partida*/
     public static ArrayList<Jugador> obtenerRanking(File f) throws IOException, ClassNotFoundException {
-    ArrayList<Jugador> listado = TrabajarFichero.obtenerJugadores(f);
-        listado.sort(Comparator
-                .comparingInt(Jugador::getPuntos).reversed()
-                .thenComparing((Jugador j) -> {
-                    Date d = j.getUltimaPartida();
-                    return d == null ? Long.MIN_VALUE : d.getTime();
-                }, Comparator.reverseOrder())
-        );
+        return obtenerRanking(TrabajarFichero.obtenerJugadores(f));
+    }
+
+    /*Orden del ranking: puntos (desc), última partida (desc, sin partidas al final) y,
+    para que el orden sea total y estable entre páginas, nombre*/
+    public static final Comparator<Jugador> ORDEN_RANKING = Comparator
+            .comparingInt(Jugador::getPuntos).reversed()
+            .thenComparing((Jugador j) -> {
+                Date d = j.getUltimaPartida();
+                return d == null ? Long.MIN_VALUE : d.getTime();
+            }, Comparator.reverseOrder())
+            .thenComparing(Jugador::getNombre);
+
+    // Mismo ranking a partir de jugadores ya cargados (p. ej. desde RepositorioJugadores)
+    public static ArrayList<Jugador> obtenerRanking(Collection<Jugador> jugadores) {
+        ArrayList<Jugador> listado = new ArrayList<>(jugadores);
+        listado.sort(ORDEN_RANKING);
         if (listado.size() > 10) {
             listado=new ArrayList<>(listado.subList(0, 10));
         }
@@ -32,4 +44,30 @@ public class Scoreboard {
         return listado;
     }
 
+    // Ranking completo como array ordenado (base para paginar)
+    public static Jugador[] ordenar(Collection<Jugador> jugadores) {
+        Jugador[] orden = jugadores.toArray(new Jugador[0]);
+        Arrays.sort(orden, ORDEN_RANKING);
+        return orden;
+    }
+
+    // Jugadores de las posiciones [desde, desde+tam) de un ranking ya ordenado
+    public static List<Jugador> pagina(Jugador[] orden, int desde, int tam) {
+        if (desde < 0 || tam < 0) throw new IllegalArgumentException("Página inválida");
+        int hasta = Math.min(orden.length, desde + tam);
+        if (desde >= hasta) return new ArrayList<>();
+        return new ArrayList<>(Arrays.asList(orden).subList(desde, hasta));
+    }
+
+    /*Posición (desde 0) del jugador en un ranking ya ordenado, o -1. Búsqueda binaria con sus
+    datos actuales; si cambiaron después de ordenar, se busca el nombre recorriendo el array*/
+    public static int posicion(Jugador[] orden, Jugador j) {
+        int i = Arrays.binarySearch(orden, j, ORDEN_RANKING);
+        if (i >= 0) return i;
+        for (i = 0; i < orden.length; i++) {
+            if (orden[i].compareTo(j)) return i;
+        }
+        return -1;
+    }
+
 }
@@ -0,0 +1,60 @@
+package logic;
+
+import cu.edu.cujae.ceis.graph.LinkedGraph;
+
+/**
+ * Tablero con todo lo que una Partida necesita ya calculado: grafo, solver y trie de soluciones.
+ * Prepararlo es la parte cara de crear una partida, así que puede hacerse por adelantado y en
+ * segundo plano (ver PoolTableros). Es inmutable y puede pasar de un hilo a otro.
+ */
+public final class TableroPreparado {
+
+    final BoggleBoard tablero;
+    final LinkedGraph grafo;
+    final BoggleSolver solver;
+    final Dictionary diccionario;
+    final Idioma idioma;
+    final TrieSoluciones soluciones;
+
+    private TableroPreparado(BoggleBoard tablero, LinkedGraph grafo, BoggleSolver solver,
+                             Dictionary diccionario, Idioma idioma, TrieSoluciones soluciones) {
+        this.tablero = tablero;
+        this.grafo = grafo;
+        this.solver = solver;
+        this.diccionario = diccionario;
+        this.idioma = idioma;
+        this.soluciones = soluciones;
+    }
+
+    public static TableroPreparado preparar(BoggleBoard tablero, Dictionary diccionario) {
+        return preparar(tablero, diccionario, Idioma.ESPANOL);
+    }
+
+    // Con tablero null se genera uno aleatorio con las letras del idioma
+    public static TableroPreparado preparar(BoggleBoard tablero, Dictionary diccionario, Idioma idioma) {
+        if (diccionario == null) throw new IllegalArgumentException("El diccionario no puede ser null");
+        if (idioma == null) throw new IllegalArgumentException("El idioma no puede ser null");
+        BoggleBoard t = tablero != null ? tablero : new BoggleBoard(idioma);
+        LinkedGraph grafo = BoggleGraphBuilder.build(t);
+        BoggleSolver solver = new BoggleSolver(grafo);
+        // Todas las palabras válidas del tablero, una sola vez: las consultas en vivo no tocan el diccionario
+        TrieSoluciones soluciones = new TrieSoluciones(solver.findAllWords(diccionario, Partida.LONGITUD_MINIMA, w -> true));
+        return new TableroPreparado(t, grafo, solver, diccionario, idioma, soluciones);
+    }
+
+    public BoggleBoard getTablero() {
+        return tablero;
+    }
+
+    public Dictionary getDiccionario() {
+        return diccionario;
+    }
+
+    public Idioma getIdioma() {
+        return idioma;
+    }
+
+    public int getNumSoluciones() {
+        return soluciones.size();
+    }
+}
@@ -3,6 +3,15 @@ package logic;
 import cu.edu.cujae.ceis.tree.general.GeneralTree;
 import cu.edu.cujae.ceis.tree.binary.BinaryTreeNode;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Trie mutable que se usa para CONSTRUIR el diccionario (carga de palabras). No es seguro para
+ * uso concurrente: insert() modifica nodos y contador sin ninguna garantía de publicación.
+ * Una vez cargado, freeze() produce un DiccionarioCongelado inmutable para compartir entre hilos.
+ */
 public class TrieDictionary implements Dictionary {
 
     private static final class TrieValue {
@@ -62,6 +71,39 @@ public class TrieDictionary implements Dictionary {
         return wordCount;
     }
 
+    /**
+     * Copia el contenido actual a un DiccionarioCongelado (recorrido por anchura, hijos ordenados
+     * por letra). Este trie no cambia y puede seguir usándose o descartarse.
+     */
+    public DiccionarioCongelado freeze() {
+        // Nodos en orden de anchura: la arista e lleva al nodo e + 1, así que las aristas de un
+        // nodo empiezan donde empiezan sus hijos en este orden
+        List<BinaryTreeNode<TrieValue>> orden = new ArrayList<>();
+        List<BinaryTreeNode<TrieValue>> hijos = new ArrayList<>();
+        int[] primeraArista = new int[1024];
+        orden.add(root);
+        for (int i = 0; i < orden.size(); i++) {
+            if (i + 1 >= primeraArista.length) primeraArista = Arrays.copyOf(primeraArista, primeraArista.length * 2);
+            primeraArista[i] = orden.size() - 1;
+            hijos.clear();
+            for (BinaryTreeNode<TrieValue> h = orden.get(i).getLeft(); h != null; h = h.getRight()) hijos.add(h);
+            hijos.sort((x, y) -> Character.compare(x.getInfo().c, y.getInfo().c));
+            orden.addAll(hijos);
+        }
+        int n = orden.size();
+        primeraArista = Arrays.copyOf(primeraArista, n + 1);
+        primeraArista[n] = n - 1;
+
+        char[] letra = new char[n - 1];
+        long[] fin = new long[(n + 63) >>> 6];
+        for (int i = 0; i < n; i++) {
+            TrieValue v = orden.get(i).getInfo();
+            if (i > 0) letra[i - 1] = v.c;
+            if (v.isWord) fin[i >>> 6] |= 1L << i;
+        }
+        return new DiccionarioCongelado(primeraArista, letra, fin, wordCount);
+    }
+
     private BinaryTreeNode<TrieValue> walk(String s) {
         if (s == null) return null;
         BinaryTreeNode<TrieValue> cur = root;
@@ -0,0 +1,118 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Trie compacto con las palabras que se pueden formar en UN tablero concreto.
+ *
+ * Se construye una vez al crear la Partida y es de solo lectura. Los nodos viven en arrays
+ * planos (26 hijos por nodo, letras a-z normalizadas), así que consultar un prefijo es recorrer
+ * tantas posiciones de array como letras tenga: sin objetos ni búsquedas en el diccionario.
+ */
+public final class TrieSoluciones {
+
+    private static final int ALFABETO = 26;
+
+    private final int[] hijos;          // nodo * ALFABETO + letra -> nodo hijo (0 = no hay; la raíz es 0)
+    private final boolean[] esPalabra;  // el nodo termina una palabra
+    private final int[] palabrasDebajo; // palabras que empiezan por el prefijo del nodo
+    private final int numNodos;
+
+    public TrieSoluciones(Collection<String> palabras) {
+        int max = 1;
+        for (String p : palabras) max += p.length();
+        int[] h = new int[max * ALFABETO];
+        boolean[] fin = new boolean[max];
+        int[] debajo = new int[max];
+        int n = 1;
+        for (String p : palabras) {
+            if (!soloAZ(p)) continue;
+            int nodo = 0;
+            debajo[0]++;
+            for (int i = 0; i < p.length(); i++) {
+                int slot = nodo * ALFABETO + (p.charAt(i) - 'a');
+                if (h[slot] == 0) h[slot] = n++;
+                nodo = h[slot];
+                debajo[nodo]++;
+            }
+            if (fin[nodo]) { // repetida: deshacer la cuenta
+                nodo = 0;
+                debajo[0]--;
+                for (int i = 0; i < p.length(); i++) {
+                    nodo = h[nodo * ALFABETO + (p.charAt(i) - 'a')];
+                    debajo[nodo]--;
+                }
+            }
+            fin[nodo] = true;
+        }
+        this.numNodos = n;
+        this.hijos = Arrays.copyOf(h, n * ALFABETO);
+        this.esPalabra = Arrays.copyOf(fin, n);
+        this.palabrasDebajo = Arrays.copyOf(debajo, n);
+    }
+
+    // Nodo del prefijo (normalizado), o -1 si ninguna solución empieza así
+    public int nodo(CharSequence prefijo) {
+        int nodo = 0;
+        for (int i = 0; i < prefijo.length(); i++) {
+            int c = prefijo.charAt(i) - 'a';
+            if (c < 0 || c >= ALFABETO) return -1;
+            nodo = hijos[nodo * ALFABETO + c];
+            if (nodo == 0) return -1;
+        }
+        return nodo;
+    }
+
+    public boolean esPrefijo(CharSequence prefijo) {
+        return nodo(prefijo) >= 0;
+    }
+
+    public boolean contiene(CharSequence palabra) {
+        int nodo = nodo(palabra);
+        return nodo >= 0 && esPalabra[nodo];
+    }
+
+    // Soluciones que empiezan por el prefijo (incluida la propia palabra si lo es)
+    public int palabrasConPrefijo(CharSequence prefijo) {
+        int nodo = nodo(prefijo);
+        return nodo < 0 ? 0 : palabrasDebajo[nodo];
+    }
+
+    // Todas las soluciones en orden alfabético
+    public List<String> palabras() {
+        List<String> res = new ArrayList<>(size());
+        recoger(0, new StringBuilder(), res);
+        return res;
+    }
+
+    private void recoger(int nodo, StringBuilder sb, List<String> res) {
+        if (esPalabra[nodo]) res.add(sb.toString());
+        for (int c = 0; c < ALFABETO; c++) {
+            int hijo = hijos[nodo * ALFABETO + c];
+            if (hijo == 0) continue;
+            sb.append((char) ('a' + c));
+            recoger(hijo, sb, res);
+            sb.setLength(sb.length() - 1);
+        }
+    }
+
+    public int size() {
+        return palabrasDebajo[0];
+    }
+
+    public int getNumNodos() {
+        return numNodos;
+    }
+
+    private static boolean soloAZ(String p) {
+        if (p == null || p.isEmpty()) return false;
+        for (int i = 0; i < p.length(); i++) {
+            char c = p.charAt(i);
+            if (c < 'a' || c > 'z') return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,64 @@
+package utils;
+
+import logic.Jugador;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Almacén persistente de jugadores.
+ *
+ * Implementaciones:
+ *  - FicheroJugadores: el fichero único histórico "datos_partidas.dat" (vía TrabajarFichero).
+ *  - AlmacenParticionado: N ficheros por hash del nombre, cada uno con su cabecera, índice y cerrojo.
+ *
+ * Las implementaciones son seguras para uso concurrente desde varios hilos.
+ */
+public interface AlmacenJugadores {
+
+    // Agrega el jugador si no existe otro con el mismo nombre. Devuelve false si ya existía.
+    boolean agregarSiNoExiste(Jugador j) throws IOException;
+
+    // Jugador guardado con ese nombre, o null si no existe
+    Jugador buscar(String nombre) throws IOException;
+
+    // Sobrescribe el jugador guardado con el mismo nombre (IllegalArgumentException si no existe)
+    void actualizar(Jugador j) throws IOException;
+
+    // Recorre todos los jugadores guardados (sin orden definido)
+    void recorrer(Consumer<Jugador> visitor) throws IOException;
+
+    int contar() throws IOException;
+
+    // Ruta que identifica el almacén (para compartir instancias dentro del proceso)
+    String getUbicacion();
+
+    /**
+     * Escritor secuencial para construir un almacén nuevo de una sola pasada (importaciones masivas).
+     * No comprueba duplicados: el llamador debe garantizar nombres únicos. Los contadores de cabecera
+     * y los índices quedan completos al cerrar.
+     */
+    interface EscritorMasivo extends java.io.Closeable {
+        void escribir(Jugador j) throws IOException;
+    }
+
+    default ArrayList<Jugador> todos() throws IOException {
+        ArrayList<Jugador> res = new ArrayList<>();
+        recorrer(res::add);
+        return res;
+    }
+
+    /**
+     * Abre el almacén de la carpeta de datos: particionado si existe "jugadores/particiones.properties"
+     * (ver ReparticionarJugadores), o el fichero único "datos_partidas.dat" en otro caso.
+     */
+    static AlmacenJugadores abrir(File dirDatos) throws IOException {
+        File dirParticiones = new File(dirDatos, AlmacenParticionado.DIRECTORIO);
+        if (AlmacenParticionado.existe(dirParticiones)) {
+            return AlmacenParticionado.abrir(dirParticiones);
+        }
+        return FicheroJugadores.crear(new File(dirDatos, FicheroJugadores.NOMBRE_FICHERO));
+    }
+}
@@ -0,0 +1,603 @@
+package utils;
+
+import logic.Jugador;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Almacén de jugadores particionado por hash del nombre en N ficheros.
+ *
+ * Estructura de la carpeta:
+ *   particiones.properties      -> particiones=N
+ *   jugadores-0000.dat ...      -> [int vivos] ([int longitud][bytes])*   (longitud < 0 = hueco muerto)
+ *   jugadores-0000.idx ...      -> [long bytesCubiertos] ([UTF nombre][long offset])*
+ *
+ * - Cada partición tiene su propia cabecera, índice en memoria (cargado del .idx) y cerrojo,
+ *   así que los registros concurrentes solo compiten si caen en la misma partición.
+ * - El cerrojo de cada .dat es un CerrojoFichero, válido también entre procesos (otra copia del
+ *   juego o una herramienta sobre la misma carpeta de datos): las lecturas comparten el fichero y
+ *   las escrituras toman la cabecera en exclusiva. Bajo el cerrojo, el índice en memoria se pone
+ *   al día con lo que otros procesos anexaron al .dat antes de buscar, agregar o actualizar.
+ * - Las particiones se abren de forma perezosa: una búsqueda solo toca la partición del nombre.
+ * - Si un registro cambia de tamaño al actualizarlo se anexa de nuevo, se anota en el índice (gana
+ *   la última entrada) y solo entonces se marca como muerto el hueco anterior. Un cierre abrupto
+ *   entre esos pasos deja dos copias vivas; al abrir la partición se queda la del índice (o la
+ *   última del .dat, si el índice no llegó a anotarla) y la otra se marca como muerta.
+ * - Para cambiar N se usa la herramienta offline ReparticionarJugadores.
+ */
+public class AlmacenParticionado implements AlmacenJugadores, Closeable {
+
+    public static final String DIRECTORIO = "jugadores";
+    public static final String FICHERO_META = "particiones.properties";
+
+    private final File directorio;
+    private final int numParticiones;
+    private final AtomicReferenceArray<Particion> particiones;
+    private final IntConsumer alPasoActualizar; // solo en las pruebas de cierre abrupto
+
+    private AlmacenParticionado(File directorio, int numParticiones, IntConsumer alPasoActualizar) {
+        this.directorio = directorio;
+        this.numParticiones = numParticiones;
+        this.particiones = new AtomicReferenceArray<>(numParticiones);
+        this.alPasoActualizar = alPasoActualizar;
+    }
+
+    public static boolean existe(File directorio) {
+        return new File(directorio, FICHERO_META).isFile();
+    }
+
+    public static AlmacenParticionado abrir(File directorio) throws IOException {
+        return abrir(directorio, null);
+    }
+
+    // Con un observador de los pasos de Particion.actualizar (ver Particion.PASO_*)
+    static AlmacenParticionado abrir(File directorio, IntConsumer alPasoActualizar) throws IOException {
+        Properties meta = new Properties();
+        try (InputStream in = new FileInputStream(new File(directorio, FICHERO_META))) {
+            meta.load(in);
+        }
+        int n;
+        try {
+            n = Integer.parseInt(meta.getProperty("particiones", "").trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Fichero de particiones inválido en " + directorio, e);
+        }
+        if (n <= 0) throw new IOException("Número de particiones inválido: " + n);
+        return new AlmacenParticionado(directorio, n, alPasoActualizar);
+    }
+
+    // Crea un almacén vacío con n particiones (la carpeta no debe contener otro almacén)
+    public static AlmacenParticionado crear(File directorio, int n) throws IOException {
+        if (n <= 0) throw new IllegalArgumentException("El número de particiones debe ser > 0");
+        if (existe(directorio)) throw new IOException("Ya existe un almacén particionado en " + directorio);
+        if (!directorio.exists() && !directorio.mkdirs()) {
+            throw new IOException("No se pudo crear la carpeta " + directorio);
+        }
+        Properties meta = new Properties();
+        meta.setProperty("particiones", String.valueOf(n));
+        try (OutputStream out = new FileOutputStream(new File(directorio, FICHERO_META))) {
+            meta.store(out, "Almacen de jugadores particionado por hash del nombre");
+        }
+        return new AlmacenParticionado(directorio, n, null);
+    }
+
+    /**
+     * Escritor secuencial que construye un almacén nuevo de n particiones en una sola pasada:
+     * cada partición recibe su .dat y su .idx a la vez; cabeceras e índices se cierran al final.
+     */
+    public static AlmacenJugadores.EscritorMasivo escritorMasivo(File directorio, int n) throws IOException {
+        crear(directorio, n);
+        DataOutputStream[] datos = new DataOutputStream[n];
+        DataOutputStream[] indices = new DataOutputStream[n];
+        long[] offsets = new long[n];
+        int[] vivos = new int[n];
+        for (int i = 0; i < n; i++) {
+            datos[i] = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(ficheroDatos(directorio, i)), 1 << 14));
+            indices[i] = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(ficheroIndice(directorio, i)), 1 << 14));
+            datos[i].writeInt(0);    // vivos, se corrige al cerrar
+            indices[i].writeLong(0); // bytes cubiertos, se corrige al cerrar
+            offsets[i] = 4;
+        }
+        return new AlmacenJugadores.EscritorMasivo() {
+            @Override
+            public void escribir(Jugador j) throws IOException {
+                int p = particionDe(j.getNombre(), n);
+                byte[] bytes = Convert.toBytes(j);
+                datos[p].writeInt(bytes.length);
+                datos[p].write(bytes);
+                indices[p].writeUTF(j.getNombre());
+                indices[p].writeLong(offsets[p]);
+                offsets[p] += 4 + bytes.length;
+                vivos[p]++;
+            }
+
+            @Override
+            public void close() throws IOException {
+                for (int i = 0; i < n; i++) {
+                    datos[i].close();
+                    indices[i].close();
+                    try (RandomAccessFile dat = new RandomAccessFile(ficheroDatos(directorio, i), "rw");
+                         RandomAccessFile idx = new RandomAccessFile(ficheroIndice(directorio, i), "rw")) {
+                        dat.writeInt(vivos[i]);
+                        idx.writeLong(offsets[i]);
+                    }
+                }
+            }
+        };
+    }
+
+    private static File ficheroDatos(File directorio, int i) {
+        return new File(directorio, String.format("jugadores-%04d.dat", i));
+    }
+
+    private static File ficheroIndice(File directorio, int i) {
+        return new File(directorio, String.format("jugadores-%04d.idx", i));
+    }
+
+    public int getNumParticiones() {
+        return numParticiones;
+    }
+
+    public int getParticionesAbiertas() {
+        int abiertas = 0;
+        for (int i = 0; i < numParticiones; i++) {
+            if (particiones.get(i) != null) abiertas++;
+        }
+        return abiertas;
+    }
+
+    // Hash estable entre ejecuciones (String.hashCode está especificado) con mezcla final
+    public static int particionDe(String nombre, int numParticiones) {
+        int h = nombre.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return Math.floorMod(h, numParticiones);
+    }
+
+    // ---------------------------------------------------------------------------------
+    // AlmacenJugadores
+    // ---------------------------------------------------------------------------------
+
+    @Override
+    public boolean agregarSiNoExiste(Jugador j) throws IOException {
+        return particionPara(j.getNombre()).agregar(j);
+    }
+
+    @Override
+    public Jugador buscar(String nombre) throws IOException {
+        return particionPara(nombre).buscar(nombre);
+    }
+
+    @Override
+    public void actualizar(Jugador j) throws IOException {
+        particionPara(j.getNombre()).actualizar(j);
+    }
+
+    @Override
+    public void recorrer(Consumer<Jugador> visitor) throws IOException {
+        for (int i = 0; i < numParticiones; i++) {
+            particion(i).recorrer(visitor);
+        }
+    }
+
+    @Override
+    public int contar() throws IOException {
+        int total = 0;
+        for (int i = 0; i < numParticiones; i++) {
+            total += particion(i).contar();
+        }
+        return total;
+    }
+
+    @Override
+    public String getUbicacion() {
+        try {
+            return directorio.getCanonicalPath();
+        } catch (IOException e) {
+            return directorio.getAbsolutePath();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (int i = 0; i < numParticiones; i++) {
+            Particion p = particiones.getAndSet(i, null);
+            if (p != null) p.close();
+        }
+    }
+
+    private Particion particionPara(String nombre) throws IOException {
+        return particion(particionDe(nombre, numParticiones));
+    }
+
+    // Apertura perezosa (una sola vez por partición)
+    private Particion particion(int i) throws IOException {
+        Particion p = particiones.get(i);
+        if (p != null) return p;
+        synchronized (this) {
+            p = particiones.get(i);
+            if (p == null) {
+                p = new Particion(ficheroDatos(directorio, i), ficheroIndice(directorio, i), alPasoActualizar);
+                particiones.set(i, p);
+            }
+            return p;
+        }
+    }
+
+    // ---------------------------------------------------------------------------------
+    // Partición
+    // ---------------------------------------------------------------------------------
+
+    static final class Particion implements Closeable {
+        // Pasos de una actualización que cambia de tamaño (para las pruebas de cierre abrupto)
+        static final int PASO_INICIO = 0;
+        static final int PASO_ANEXADO = 1;
+        static final int PASO_INDEXADO = 2;
+
+        private final File dat;
+        private final File idx;
+        private final IntConsumer alPaso;
+        private final CerrojoFichero cerrojo;
+        private final RandomAccessFile indiceRaf;
+        private final Map<String, Long> indice = new ConcurrentHashMap<>();
+        private long conocidos; // bytes del .dat ya reflejados en el índice en memoria
+
+        Particion(File dat, File idx, IntConsumer alPaso) throws IOException {
+            this.dat = dat;
+            this.idx = idx;
+            this.alPaso = alPaso;
+            this.cerrojo = CerrojoFichero.de(dat);
+            this.indiceRaf = new RandomAccessFile(idx, "rw");
+            // Cabecera exclusiva: ningún otro proceso escribe ni lee la partición mientras se abre
+            try (CerrojoFichero.Bloqueo b = cerrojo.escritura(0, 4)) {
+                FileChannel datos = b.canal();
+                if (datos.size() < 4) {
+                    escribirInt(datos, 0, 0);
+                }
+
+                boolean reconstruir = indiceRaf.length() < 8;
+                Map<String, Long> sustituidas = new HashMap<>();
+                long cubiertos = reconstruir ? 0L : cargarIndice(sustituidas);
+                if (reconstruir || cubiertos > datos.size()) {
+                    // índice ausente o de otra versión del .dat: se rehace entero
+                    indice.clear();
+                    sustituidas.clear();
+                    indiceRaf.setLength(0);
+                    indiceRaf.writeLong(4L);
+                    cubiertos = 4L;
+                }
+                if (cubiertos < datos.size()) {
+                    // el .dat creció sin que se anotara en el índice (p. ej. cierre abrupto)
+                    indexarDesde(datos, cubiertos);
+                }
+                // Actualización interrumpida después de anotar la copia nueva: la vieja sigue viva
+                for (Map.Entry<String, Long> e : sustituidas.entrySet()) {
+                    if (!e.getValue().equals(indice.get(e.getKey()))) matarSiViva(datos, e.getValue());
+                }
+                // La cabecera se escribe después de anexar e indexar: un cierre entre medias la deja corta
+                if (leerInt(datos, 0) != indice.size()) escribirInt(datos, 0, indice.size());
+                conocidos = datos.size();
+            }
+        }
+
+        boolean agregar(Jugador j) throws IOException {
+            EventosJfr.OperacionFichero evento = EventosJfr.OperacionFichero.iniciar("agregar", dat);
+            try {
+                byte[] bytes = Convert.toBytes(j);
+                // La cabecera exclusiva serializa a todos los que escriben en la partición (en cualquier proceso)
+                try (CerrojoFichero.Bloqueo b = cerrojo.escritura(0, 4)) {
+                    FileChannel datos = b.canal();
+                    ponerAlDia(datos, true);
+                    if (indice.containsKey(j.getNombre())) return false;
+                    long offset = anexar(datos, bytes);
+                    anotarEnIndice(datos, j.getNombre(), offset);
+                    escribirInt(datos, 0, leerInt(datos, 0) + 1);
+                    return true;
+                }
+            } finally {
+                EventosJfr.OperacionFichero.terminar(evento);
+            }
+        }
+
+        Jugador buscar(String nombre) throws IOException {
+            EventosJfr.OperacionFichero evento = EventosJfr.OperacionFichero.iniciar("buscar", dat);
+            try {
+                try (CerrojoFichero.Bloqueo b = cerrojo.lectura()) {
+                    FileChannel datos = b.canal();
+                    ponerAlDia(datos, false);
+                    Long offset = indice.get(nombre);
+                    return offset == null ? null : leerJugador(datos, offset);
+                }
+            } finally {
+                EventosJfr.OperacionFichero.terminar(evento);
+            }
+        }
+
+        void actualizar(Jugador j) throws IOException {
+            EventosJfr.OperacionFichero evento = EventosJfr.OperacionFichero.iniciar("actualizar", dat);
+            try {
+                byte[] bytes = Convert.toBytes(j);
+                try (CerrojoFichero.Bloqueo b = cerrojo.escritura(0, 4)) {
+                    FileChannel datos = b.canal();
+                    ponerAlDia(datos, true);
+                    Long offset = indice.get(j.getNombre());
+                    if (offset == null) throw new IllegalArgumentException("Jugador no encontrado en el fichero.");
+                    int anterior = leerInt(datos, offset);
+                    if (anterior == bytes.length) {
+                        escribirRegistro(datos, offset, bytes);
+                    } else {
+                        // No cabe en su sitio: nueva copia al final, anotada en el índice, y solo
+                        // entonces el hueco muerto (un cierre a medias nunca deja el índice en un hueco)
+                        paso(PASO_INICIO);
+                        long nuevo = anexar(datos, bytes);
+                        paso(PASO_ANEXADO);
+                        anotarEnIndice(datos, j.getNombre(), nuevo);
+                        paso(PASO_INDEXADO);
+                        escribirInt(datos, offset, -anterior);
+                    }
+                }
+            } finally {
+                EventosJfr.OperacionFichero.terminar(evento);
+            }
+        }
+
+        void recorrer(Consumer<Jugador> visitor) throws IOException {
+            EventosJfr.OperacionFichero evento = EventosJfr.OperacionFichero.iniciar("recorrer", dat);
+            try {
+                try (CerrojoFichero.Bloqueo b = cerrojo.lectura()) {
+                    FileChannel datos = b.canal();
+                    long fin = datos.size();
+                    long pos = 4;
+                    DataInputStream in = flujoDesde(datos, pos);
+                    while (pos + 4 <= fin) {
+                        int len = in.readInt();
+                        int tam = Math.abs(len);
+                        if (pos + 4 + tam > fin) break; // cola a medias de un cierre abrupto
+                        if (len < 0) {
+                            in.skipNBytes(tam);
+                        } else {
+                            byte[] bytes = new byte[tam];
+                            in.readFully(bytes);
+                            visitor.accept(deserializar(bytes));
+                        }
+                        pos += 4 + tam;
+                    }
+                }
+            } finally {
+                EventosJfr.OperacionFichero.terminar(evento);
+            }
+        }
+
+        int contar() throws IOException {
+            EventosJfr.OperacionFichero evento = EventosJfr.OperacionFichero.iniciar("contar", dat);
+            try {
+                try (CerrojoFichero.Bloqueo b = cerrojo.lectura()) {
+                    ponerAlDia(b.canal(), false);
+                    return indice.size();
+                }
+            } finally {
+                EventosJfr.OperacionFichero.terminar(evento);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (CerrojoFichero.Bloqueo b = cerrojo.escritura(0, 4)) {
+                b.canal().close();
+                indiceRaf.close();
+            }
+        }
+
+        // --- índice ---
+
+        private void paso(int paso) {
+            if (alPaso != null) alPaso.accept(paso);
+        }
+
+        /**
+         * Incorpora al índice en memoria lo que otros procesos (u otra instancia sobre la misma
+         * carpeta) anexaron al .dat desde la última vez; la copia más al final de un nombre gana.
+         * Se llama con la partición bloqueada, así que nadie está escribiendo en ese momento: una
+         * cola a medias es de un proceso que murió, y quien escribe la corta antes de anexar.
+         */
+        private synchronized void ponerAlDia(FileChannel datos, boolean escritor) throws IOException {
+            long fin = datos.size();
+            if (fin == conocidos) return;
+            long pos = conocidos;
+            if (fin < pos) {
+                // el .dat se rehízo por fuera: se vuelve a indexar entero
+                indice.clear();
+                pos = 4;
+            }
+            while (pos + 4 <= fin) {
+                int len = leerInt(datos, pos);
+                long siguiente = pos + 4 + Math.abs(len);
+                if (siguiente > fin) break;
+                if (len >= 0) indice.put(leerJugador(datos, pos).getNombre(), pos);
+                pos = siguiente;
+            }
+            if (escritor && pos < fin) descartarCola(datos, pos);
+            conocidos = pos;
+        }
+
+        // Carga las entradas del .idx (en sustituidas, la posición anterior de cada nombre repetido);
+        // devuelve los bytes del .dat que cubren
+        private long cargarIndice(Map<String, Long> sustituidas) throws IOException {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(idx), 1 << 16))) {
+                long cubiertos = in.readLong();
+                while (true) {
+                    String nombre;
+                    try {
+                        nombre = in.readUTF();
+                    } catch (EOFException eof) {
+                        break;
+                    }
+                    Long anterior = indice.put(nombre, in.readLong()); // la última entrada de un nombre gana
+                    if (anterior != null) sustituidas.put(nombre, anterior);
+                }
+                return cubiertos;
+            } catch (EOFException truncado) {
+                return Long.MAX_VALUE; // fuerza reconstrucción
+            }
+        }
+
+        private void indexarDesde(FileChannel datos, long desde) throws IOException {
+            long pos = desde;
+            long fin = datos.size();
+            while (pos < fin) {
+                int len = pos + 4 <= fin ? leerInt(datos, pos) : 0;
+                if (pos + 4 > fin || pos + 4 + Math.abs(len) > fin) {
+                    // Registro a medias de un cierre abrupto: fuera, para no anexar detrás de él
+                    descartarCola(datos, pos);
+                    break;
+                }
+                if (len >= 0) {
+                    Jugador j = leerJugador(datos, pos);
+                    // Copia anexada por una actualización que no llegó a anotarse: gana la nueva
+                    Long anterior = indice.get(j.getNombre());
+                    if (anterior != null) matarSiViva(datos, anterior);
+                    anotarEnIndice(datos, j.getNombre(), pos);
+                }
+                pos += 4 + Math.abs(len);
+            }
+            actualizarCubiertos(datos);
+        }
+
+        private void anotarEnIndice(FileChannel datos, String nombre, long offset) throws IOException {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(nombre.length() + 16);
+            DataOutputStream out = new DataOutputStream(baos);
+            out.writeUTF(nombre);
+            out.writeLong(offset);
+            indiceRaf.seek(indiceRaf.length());
+            indiceRaf.write(baos.toByteArray());
+            EventosJfr.OperacionFichero.escritos(baos.size());
+            indice.put(nombre, offset);
+            actualizarCubiertos(datos);
+        }
+
+        private void descartarCola(FileChannel datos, long fin) throws IOException {
+            System.err.printf("[Jugadores] %s: se descartan %d bytes de un registro incompleto%n",
+                    dat.getName(), datos.size() - fin);
+            datos.truncate(fin);
+        }
+
+        private void matarSiViva(FileChannel datos, long offset) throws IOException {
+            if (offset + 4 > datos.size()) return;
+            int len = leerInt(datos, offset);
+            if (len > 0) escribirInt(datos, offset, -len);
+        }
+
+        // Solo bajo la cabecera exclusiva: lo anexado por este proceso ya está en el índice en memoria
+        private void actualizarCubiertos(FileChannel datos) throws IOException {
+            conocidos = datos.size();
+            indiceRaf.seek(0);
+            indiceRaf.writeLong(conocidos);
+        }
+
+        // --- acceso posicional al .dat (el llamador tiene el bloqueo) ---
+
+        private long anexar(FileChannel datos, byte[] bytes) throws IOException {
+            long offset = datos.size();
+            escribirRegistro(datos, offset, bytes);
+            return offset;
+        }
+
+        private void escribirRegistro(FileChannel datos, long offset, byte[] bytes) throws IOException {
+            ByteBuffer buf = ByteBuffer.allocate(4 + bytes.length);
+            buf.putInt(bytes.length).put(bytes).flip();
+            escribirCompleto(datos, buf, offset);
+        }
+
+        private Jugador leerJugador(FileChannel datos, long offset) throws IOException {
+            int len = leerInt(datos, offset);
+            if (len < 0) throw new IOException("El índice apunta a un hueco muerto en " + dat + " (posición " + offset + ")");
+            ByteBuffer buf = ByteBuffer.allocate(len);
+            leerCompleto(datos, buf, offset + 4);
+            return deserializar(buf.array());
+        }
+
+        private int leerInt(FileChannel datos, long offset) throws IOException {
+            ByteBuffer buf = ByteBuffer.allocate(4);
+            leerCompleto(datos, buf, offset);
+            return buf.getInt(0);
+        }
+
+        private void escribirInt(FileChannel datos, long offset, int valor) throws IOException {
+            ByteBuffer buf = ByteBuffer.allocate(4);
+            buf.putInt(valor).flip();
+            escribirCompleto(datos, buf, offset);
+        }
+
+        private void leerCompleto(FileChannel datos, ByteBuffer buf, long offset) throws IOException {
+            while (buf.hasRemaining()) {
+                int n = datos.read(buf, offset + buf.position());
+                if (n < 0) throw new EOFException("Registro truncado en " + dat);
+                EventosJfr.OperacionFichero.leidos(n);
+            }
+        }
+
+        private static void escribirCompleto(FileChannel datos, ByteBuffer buf, long offset) throws IOException {
+            while (buf.hasRemaining()) {
+                EventosJfr.OperacionFichero.escritos(datos.write(buf, offset + buf.position()));
+            }
+        }
+
+        // Lectura secuencial con buffer mediante lecturas posicionales: no se abre otro descriptor
+        // del .dat (cerrarlo soltaría los bloqueos del proceso) ni se mueve la posición del canal
+        private static DataInputStream flujoDesde(FileChannel datos, long inicio) {
+            InputStream posicional = new InputStream() {
+                private long pos = inicio;
+
+                @Override
+                public int read() throws IOException {
+                    byte[] uno = new byte[1];
+                    return read(uno, 0, 1) < 0 ? -1 : (uno[0] & 0xFF);
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int n = datos.read(ByteBuffer.wrap(b, off, len), pos);
+                    if (n > 0) {
+                        pos += n;
+                        EventosJfr.OperacionFichero.leidos(n);
+                    }
+                    return n;
+                }
+            };
+            return new DataInputStream(new BufferedInputStream(posicional, 1 << 16));
+        }
+
+        private static Jugador deserializar(byte[] bytes) throws IOException {
+            try {
+                return (Jugador) Convert.toObject(bytes);
+            } catch (ClassNotFoundException e) {
+                throw new IOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package utils;
+
+import logic.Jugador;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Herramienta offline de importación/exportación masiva del almacén de jugadores.
+ *
+ * Uso:
+ *   java -cp ... utils.CargaMasivaJugadores importar <origen|-> <carpetaDatos> [particiones] [--formato csv|bin]
+ *   java -cp ... utils.CargaMasivaJugadores exportar <carpetaDatos> <destino|-> [--formato csv|bin]
+ *
+ * Formatos (por extensión .csv/.bin o con --formato; "-" es stdin/stdout y por defecto csv):
+ *   csv -> nombre,puntos,partidasJugadas,ultimaPartidaMillis   (cabecera opcional, nombres entre comillas
+ *          si contienen comas o comillas; ultimaPartidaMillis vacío = nunca jugó)
+ *   bin -> "BGLJ" [int version] ([UTF nombre][int puntos][int partidas][long ultimaPartida o -1])*
+ *
+ * - La importación construye un almacén NUEVO (la carpeta no debe tener jugadores) en una sola pasada
+ *   secuencial, escribiendo datos e índices a la vez con AlmacenJugadores.EscritorMasivo; sin
+ *   particiones se genera el fichero único datos_partidas.dat.
+ * - Los nombres se validan (recortados, no vacíos, como mucho MAX_NOMBRE caracteres, sin caracteres
+ *   de control) y se descartan los repetidos: gana la primera aparición.
+ * - La memoria no depende del número de filas salvo por el conjunto de huellas de 64 bits de los
+ *   nombres ya vistos (unos 8-16 bytes por nombre distinto).
+ * - La exportación recorre el almacén sin cargarlo entero.
+ * - El progreso y las filas/s se informan por stderr (stdout puede ser el propio volcado).
+ */
+public final class CargaMasivaJugadores {
+    private CargaMasivaJugadores() {}
+
+    public static final int MAX_NOMBRE = 64;
+    private static final int MAGIA = 0x42474C4A; // "BGLJ"
+    private static final int VERSION = 1;
+    private static final long PROGRESO_CADA = 1_000_000L;
+
+    public static void main(String[] args) throws IOException {
+        List<String> pos = new ArrayList<>();
+        String formato = null;
+        for (int i = 0; i < args.length; i++) {
+            if ("--formato".equals(args[i]) && i + 1 < args.length) formato = args[++i];
+            else pos.add(args[i]);
+        }
+        if (pos.size() >= 3 && "importar".equals(pos.get(0))) {
+            int particiones = pos.size() > 3 ? Integer.parseInt(pos.get(3)) : 0;
+            Resumen r = importar(pos.get(1), new File(pos.get(2)), particiones, formatoDe(formato, pos.get(1)));
+            System.err.println("[Importar] " + r);
+        } else if (pos.size() >= 3 && "exportar".equals(pos.get(0))) {
+            Resumen r = exportar(new File(pos.get(1)), pos.get(2), formatoDe(formato, pos.get(2)));
+            System.err.println("[Exportar] " + r);
+        } else {
+            System.err.println("Uso: CargaMasivaJugadores importar <origen|-> <carpetaDatos> [particiones] [--formato csv|bin]");
+            System.err.println("     CargaMasivaJugadores exportar <carpetaDatos> <destino|-> [--formato csv|bin]");
+            System.exit(2);
+        }
+    }
+
+    // ---------------------------------------------------------------------------------
+    // Importación
+    // ---------------------------------------------------------------------------------
+
+    /**
+     * Importa desde origen ("-" = stdin) a un almacén nuevo en dirDatos.
+     * particiones > 0 crea un almacén particionado; 0 crea el fichero único.
+     */
+    public static Resumen importar(String origen, File dirDatos, int particiones, boolean binario) throws IOException {
+        File ficheroUnico = new File(dirDatos, FicheroJugadores.NOMBRE_FICHERO);
+        File dirParticiones = new File(dirDatos, AlmacenParticionado.DIRECTORIO);
+        if (AlmacenParticionado.existe(dirParticiones) || ficheroUnico.length() > 4) {
+            throw new IOException("La carpeta ya contiene jugadores: " + dirDatos);
+        }
+        if (!dirDatos.exists() && !dirDatos.mkdirs()) {
+            throw new IOException("No se pudo crear la carpeta " + dirDatos);
+        }
+        if (ficheroUnico.exists() && particiones == 0) {
+            java.nio.file.Files.delete(ficheroUnico.toPath()); // solo tenía la cabecera vacía
+        }
+
+        Resumen r = new Resumen();
+        ConjuntoHuellas vistos = new ConjuntoHuellas();
+        try (InputStream in = abrirEntrada(origen);
+             LectorJugadores lector = binario ? new LectorBinario(in) : new LectorCsv(in);
+             AlmacenJugadores.EscritorMasivo escritor = particiones > 0
+                     ? AlmacenParticionado.escritorMasivo(dirParticiones, particiones)
+                     : FicheroJugadores.escritorMasivo(ficheroUnico)) {
+            Jugador j;
+            while ((j = lector.siguiente(r)) != null) {
+                if (!vistos.agregar(huella(j.getNombre()))) {
+                    r.repetidos++;
+                } else {
+                    escritor.escribir(j);
+                    r.escritos++;
+                }
+                r.progreso("Importar");
+            }
+        }
+        return r.terminar();
+    }
+
+    // ---------------------------------------------------------------------------------
+    // Exportación
+    // ---------------------------------------------------------------------------------
+
+    public static Resumen exportar(File dirDatos, String destino, boolean binario) throws IOException {
+        AlmacenJugadores almacen = AlmacenJugadores.abrir(dirDatos);
+        Resumen r = new Resumen();
+        IOException[] error = {null};
+        try (OutputStream out = abrirSalida(destino);
+             EscritorFormato escritor = binario ? new EscritorBinario(out) : new EscritorCsv(out)) {
+            almacen.recorrer(j -> {
+                if (error[0] != null) return;
+                try {
+                    escritor.escribir(j);
+                    r.leidos++;
+                    r.escritos++;
+                    r.progreso("Exportar");
+                } catch (IOException e) {
+                    error[0] = e;
+                }
+            });
+        } finally {
+            if (almacen instanceof Closeable) ((Closeable) almacen).close();
+        }
+        if (error[0] != null) throw error[0];
+        return r.terminar();
+    }
+
+    // ---------------------------------------------------------------------------------
+    // Validación y huellas
+    // ---------------------------------------------------------------------------------
+
+    // Nombre normalizado, o null si no es válido
+    static String validarNombre(String nombre) {
+        if (nombre == null) return null;
+        String n = nombre.trim();
+        if (n.isEmpty() || n.length() > MAX_NOMBRE) return null;
+        for (int i = 0; i < n.length(); i++) {
+            if (Character.isISOControl(n.charAt(i))) return null;
+        }
+        return n;
+    }
+
+    // FNV-1a de 64 bits sobre los caracteres, con mezcla final (0 se reserva como hueco vacío)
+    static long huella(String nombre) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < nombre.length(); i++) {
+            h ^= nombre.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h == 0 ? 1 : h;
+    }
+
+    /**
+     * Conjunto abierto de longs (sondeo lineal). Dos nombres distintos solo se confundirían si
+     * coinciden sus 64 bits de huella: con millones de nombres la probabilidad es despreciable.
+     */
+    static final class ConjuntoHuellas {
+        private long[] tabla = new long[1 << 16];
+        private int tamano;
+
+        boolean agregar(long h) {
+            if (tamano * 2 >= tabla.length) crecer();
+            int mascara = tabla.length - 1;
+            int i = (int) h & mascara;
+            while (tabla[i] != 0) {
+                if (tabla[i] == h) return false;
+                i = (i + 1) & mascara;
+            }
+            tabla[i] = h;
+            tamano++;
+            return true;
+        }
+
+        private void crecer() {
+            long[] vieja = tabla;
+            tabla = new long[vieja.length * 2];
+            int mascara = tabla.length - 1;
+            for (long h : vieja) {
+                if (h == 0) continue;
+                int i = (int) h & mascara;
+                while (tabla[i] != 0) i = (i + 1) & mascara;
+                tabla[i] = h;
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------------
+    // Lectores
+    // ---------------------------------------------------------------------------------
+
+    private interface LectorJugadores extends Closeable {
+        // Siguiente jugador válido, o null al final. Las filas inválidas se cuentan en el resumen.
+        Jugador siguiente(Resumen r) throws IOException;
+    }
+
+    private static final class LectorCsv implements LectorJugadores {
+        private final BufferedReader in;
+        private long linea;
+
+        LectorCsv(InputStream in) {
+            this.in = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+        }
+
+        @Override
+        public Jugador siguiente(Resumen r) throws IOException {
+            String s;
+            while ((s = in.readLine()) != null) {
+                linea++;
+                if (s.isEmpty()) continue;
+                List<String> campos = partirCsv(s);
+                if (linea == 1 && "nombre".equalsIgnoreCase(campos.get(0).trim())) continue; // cabecera
+                r.leidos++;
+                Jugador j = desdeCampos(campos);
+                if (j != null) return j;
+                r.invalidos++;
+                if (r.invalidos <= 10) System.err.println("Fila " + linea + " inválida: " + s);
+            }
+            return null;
+        }
+
+        private static Jugador desdeCampos(List<String> c) {
+            if (c.size() < 3 || c.size() > 4) return null;
+            String nombre = validarNombre(c.get(0));
+            if (nombre == null) return null;
+            try {
+                int puntos = Integer.parseInt(c.get(1).trim());
+                int partidas = Integer.parseInt(c.get(2).trim());
+                String fecha = c.size() > 3 ? c.get(3).trim() : "";
+                if (puntos < 0 || partidas < 0) return null;
+                Date ultima = fecha.isEmpty() ? null : new Date(Long.parseLong(fecha));
+                return new Jugador(nombre, puntos, partidas, ultima);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        // Campos separados por comas; "..." admite comas y "" como comilla literal
+        private static List<String> partirCsv(String s) {
+            List<String> campos = new ArrayList<>(4);
+            StringBuilder actual = new StringBuilder();
+            boolean entreComillas = false;
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (entreComillas) {
+                    if (c == '"') {
+                        if (i + 1 < s.length() && s.charAt(i + 1) == '"') {
+                            actual.append('"');
+                            i++;
+                        } else {
+                            entreComillas = false;
+                        }
+                    } else {
+                        actual.append(c);
+                    }
+                } else if (c == '"') {
+                    entreComillas = true;
+                } else if (c == ',') {
+                    campos.add(actual.toString());
+                    actual.setLength(0);
+                } else {
+                    actual.append(c);
+                }
+            }
+            campos.add(actual.toString());
+            return campos;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    private static final class LectorBinario implements LectorJugadores {
+        private final DataInputStream in;
+
+        LectorBinario(InputStream in) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+            if (this.in.readInt() != MAGIA) throw new IOException("No es un volcado binario de jugadores");
+            int version = this.in.readInt();
+            if (version != VERSION) throw new IOException("Versión de volcado no soportada: " + version);
+        }
+
+        @Override
+        public Jugador siguiente(Resumen r) throws IOException {
+            while (true) {
+                String nombre;
+                try {
+                    nombre = in.readUTF();
+                } catch (EOFException fin) {
+                    return null;
+                }
+                int puntos = in.readInt();
+                int partidas = in.readInt();
+                long ultima = in.readLong();
+                r.leidos++;
+                String valido = validarNombre(nombre);
+                if (valido != null && puntos >= 0 && partidas >= 0) {
+                    return new Jugador(valido, puntos, partidas, ultima < 0 ? null : new Date(ultima));
+                }
+                r.invalidos++;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    // ---------------------------------------------------------------------------------
+    // Escritores de formato
+    // ---------------------------------------------------------------------------------
+
+    private interface EscritorFormato extends Closeable {
+        void escribir(Jugador j) throws IOException;
+    }
+
+    private static final class EscritorCsv implements EscritorFormato {
+        private final Writer out;
+
+        EscritorCsv(OutputStream out) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 1 << 16);
+            this.out.write("nombre,puntos,partidasJugadas,ultimaPartidaMillis\n");
+        }
+
+        @Override
+        public void escribir(Jugador j) throws IOException {
+            String nombre = j.getNombre();
+            if (nombre.indexOf(',') >= 0 || nombre.indexOf('"') >= 0) {
+                out.write('"');
+                out.write(nombre.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(nombre);
+            }
+            out.write(',');
+            out.write(Integer.toString(j.getPuntos()));
+            out.write(',');
+            out.write(Integer.toString(j.getPartidasJugadas()));
+            out.write(',');
+            if (j.getUltimaPartida() != null) out.write(Long.toString(j.getUltimaPartida().getTime()));
+            out.write('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    private static final class EscritorBinario implements EscritorFormato {
+        private final DataOutputStream out;
+
+        EscritorBinario(OutputStream out) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+            this.out.writeInt(MAGIA);
+            this.out.writeInt(VERSION);
+        }
+
+        @Override
+        public void escribir(Jugador j) throws IOException {
+            out.writeUTF(j.getNombre());
+            out.writeInt(j.getPuntos());
+            out.writeInt(j.getPartidasJugadas());
+            out.writeLong(j.getUltimaPartida() == null ? -1L : j.getUltimaPartida().getTime());
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    // ---------------------------------------------------------------------------------
+    // Auxiliares
+    // ---------------------------------------------------------------------------------
+
+    private static boolean formatoDe(String formato, String ruta) {
+        if (formato != null) {
+            if ("bin".equalsIgnoreCase(formato)) return true;
+            if ("csv".equalsIgnoreCase(formato)) return false;
+            throw new IllegalArgumentException("Formato desconocido: " + formato);
+        }
+        return ruta.toLowerCase().endsWith(".bin");
+    }
+
+    private static InputStream abrirEntrada(String origen) throws IOException {
+        if ("-".equals(origen)) return System.in;
+        return new FileInputStream(origen);
+    }
+
+    private static OutputStream abrirSalida(String destino) throws IOException {
+        if ("-".equals(destino)) {
+            // No cerrar System.out al terminar: solo vaciarlo
+            return new java.io.FilterOutputStream(System.out) {
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                }
+
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            };
+        }
+        return new FileOutputStream(destino);
+    }
+
+    public static final class Resumen {
+        public long leidos, escritos, invalidos, repetidos;
+        private final long inicio = System.nanoTime();
+        private long nanos;
+        private long siguienteAviso = PROGRESO_CADA;
+
+        private void progreso(String etiqueta) {
+            long n = leidos;
+            if (n >= siguienteAviso) {
+                siguienteAviso += PROGRESO_CADA;
+                System.err.printf("[%s] %,d filas (%,.0f filas/s)%n", etiqueta, n, filasPorSegundo(System.nanoTime() - inicio));
+            }
+        }
+
+        private Resumen terminar() {
+            nanos = System.nanoTime() - inicio;
+            return this;
+        }
+
+        private double filasPorSegundo(long ns) {
+            return ns <= 0 ? 0.0 : leidos * 1e9 / ns;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("leídas=%,d | escritas=%,d | inválidas=%,d | repetidas=%,d | %d ms | %,.0f filas/s",
+                    leidos, escritos, invalidos, repetidos, nanos / 1_000_000L, filasPorSegundo(nanos));
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Cerrojos de fichero seguros entre procesos (FileChannel.lock) y entre hilos del mismo proceso.
+ *
+ * - Hay una instancia por fichero (ruta canónica) y un único FileChannel abierto para él.
+ *   Toda la E/S del fichero debe hacerse a través de canal(): en POSIX, cerrar cualquier otro
+ *   descriptor del mismo fichero liberaría los bloqueos del proceso.
+ * - Lectores: cerrojo de lectura del proceso + bloqueo compartido del SO sobre todo el fichero.
+ *   Los lectores del mismo proceso comparten ese bloqueo (contador), así que no se serializan.
+ * - Escritores: cerrojo de escritura del proceso + bloqueos exclusivos del SO solo sobre los
+ *   rangos que modifican (cabecera, registro, cola), de modo que procesos distintos pueden
+ *   escribir registros distintos a la vez.
+ * - Se mide el tiempo de espera de cada adquisición (proceso + SO).
+ */
+public final class CerrojoFichero {
+
+    public static final long HASTA_EL_FINAL = Long.MAX_VALUE;
+
+    private static final Map<String, CerrojoFichero> CERROJOS = new ConcurrentHashMap<>();
+
+    // Instrumentación global de esperas
+    private static final LongAdder ADQUISICIONES = new LongAdder();
+    private static final LongAdder NANOS_ESPERA = new LongAdder();
+    private static final AtomicLong MAX_NANOS_ESPERA = new AtomicLong();
+
+    private final File fichero;
+    private final ReentrantReadWriteLock rw = new ReentrantReadWriteLock();
+    private final Object monitorCompartido = new Object();
+    private FileChannel canal;
+    private FileLock bloqueoCompartido;
+    private int lectores;
+
+    private CerrojoFichero(File fichero) {
+        this.fichero = fichero;
+    }
+
+    public static CerrojoFichero de(File fichero) {
+        String clave;
+        try {
+            clave = fichero.getCanonicalPath();
+        } catch (IOException e) {
+            clave = fichero.getAbsolutePath();
+        }
+        return CERROJOS.computeIfAbsent(clave, k -> new CerrojoFichero(fichero));
+    }
+
+    // Canal compartido del fichero (se crea el fichero si no existe)
+    public synchronized FileChannel canal() throws IOException {
+        if (canal == null || !canal.isOpen()) {
+            canal = FileChannel.open(fichero.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        return canal;
+    }
+
+    /**
+     * Acceso de lectura: compartido con el resto de lectores (de este y de otros procesos).
+     */
+    public Bloqueo lectura() throws IOException {
+        long t0 = System.nanoTime();
+        Lock local = rw.readLock();
+        local.lock();
+        try {
+            synchronized (monitorCompartido) {
+                if (lectores == 0) {
+                    bloqueoCompartido = canal().lock(0, HASTA_EL_FINAL, true);
+                }
+                lectores++;
+            }
+        } catch (IOException | RuntimeException e) {
+            local.unlock();
+            throw e;
+        }
+        registrarEspera(t0);
+        return new Bloqueo(local, true);
+    }
+
+    /**
+     * Acceso de escritura: exclusivo dentro del proceso y exclusivo en el SO sobre [pos, pos+tam).
+     * Se pueden añadir más rangos con Bloqueo.rango(...).
+     */
+    public Bloqueo escritura(long pos, long tam) throws IOException {
+        long t0 = System.nanoTime();
+        Lock local = rw.writeLock();
+        local.lock();
+        registrarEspera(t0);
+        Bloqueo b = new Bloqueo(local, false);
+        try {
+            b.rango(pos, tam, false);
+        } catch (IOException | RuntimeException e) {
+            b.close();
+            throw e;
+        }
+        return b;
+    }
+
+    public final class Bloqueo implements AutoCloseable {
+        private final Lock local;
+        private final boolean esLectura;
+        private final List<FileLock> rangos = new ArrayList<>(2);
+        private boolean cerrado;
+
+        private Bloqueo(Lock local, boolean esLectura) {
+            this.local = local;
+            this.esLectura = esLectura;
+        }
+
+        // Canal compartido del fichero, para hacer la E/S bajo este bloqueo
+        public FileChannel canal() throws IOException {
+            return CerrojoFichero.this.canal();
+        }
+
+        /**
+         * Bloquea otro rango del fichero en el SO (solo para escritores). Los rangos de un mismo
+         * escritor no deben solaparse; un rango puede liberarse antes con FileLock.release().
+         */
+        public FileLock rango(long pos, long tam, boolean compartido) throws IOException {
+            if (esLectura) throw new IllegalStateException("Un lector no puede bloquear rangos");
+            long t0 = System.nanoTime();
+            FileLock l = canal().lock(pos, tam, compartido);
+            registrarEspera(t0);
+            rangos.add(l);
+            return l;
+        }
+
+        @Override
+        public void close() {
+            if (cerrado) return;
+            cerrado = true;
+            try {
+                if (esLectura) {
+                    synchronized (monitorCompartido) {
+                        if (--lectores == 0 && bloqueoCompartido != null) {
+                            liberar(bloqueoCompartido);
+                            bloqueoCompartido = null;
+                        }
+                    }
+                } else {
+                    for (FileLock l : rangos) liberar(l);
+                    rangos.clear();
+                }
+            } finally {
+                local.unlock();
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------------
+    // Instrumentación
+    // ---------------------------------------------------------------------------------
+
+    public static long getAdquisiciones() {
+        return ADQUISICIONES.sum();
+    }
+
+    public static long getNanosEspera() {
+        return NANOS_ESPERA.sum();
+    }
+
+    public static long getMaxNanosEspera() {
+        return MAX_NANOS_ESPERA.get();
+    }
+
+    public static String resumenEsperas() {
+        long n = getAdquisiciones();
+        double mediaUs = n == 0 ? 0.0 : getNanosEspera() / 1000.0 / n;
+        return String.format("bloqueos=%d | espera media=%.1f us | espera max=%.1f us",
+                n, mediaUs, getMaxNanosEspera() / 1000.0);
+    }
+
+    private static void registrarEspera(long t0) {
+        long espera = System.nanoTime() - t0;
+        ADQUISICIONES.increment();
+        NANOS_ESPERA.add(espera);
+        long max;
+        while (espera > (max = MAX_NANOS_ESPERA.get())) {
+            if (MAX_NANOS_ESPERA.compareAndSet(max, espera)) break;
+        }
+    }
+
+    private static void liberar(FileLock l) {
+        try {
+            l.release();
+        } catch (IOException ignored) {
+            // el canal se cerró: el SO ya liberó el bloqueo
+        }
+    }
+}
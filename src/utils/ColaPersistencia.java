@@ -0,0 +1,161 @@
+package utils;
+
+import logic.Jugador;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ejecutor dedicado de persistencia para el almacén de jugadores.
+ *
+ * - Todas las operaciones sobre el almacén se ejecutan en un único hilo ("Persistencia"),
+ *   así que nunca se pisan entre sí y nunca corren en el hilo de la interfaz.
+ * - actualizarJugador es write-behind: se guarda la última instantánea por nombre y se escribe
+ *   tras RETARDO_ESCRITURA_MS. Varias actualizaciones seguidas del mismo jugador se funden en una.
+ * - Las lecturas vacían antes las escrituras pendientes, por lo que siempre ven el último estado.
+ * - Cada operación devuelve un CompletableFuture para quien necesite confirmación.
+ */
+public class ColaPersistencia {
+
+    public static final long RETARDO_ESCRITURA_MS = 250;
+
+    private final AlmacenJugadores almacen;
+    private final ScheduledExecutorService ejecutor;
+
+    // Escrituras pendientes (coalescidas por nombre) y el future que las confirma
+    private final Map<String, Pendiente> pendientes = new ConcurrentHashMap<>();
+    private final AtomicBoolean vaciadoProgramado = new AtomicBoolean(false);
+
+    private static final class Pendiente {
+        final Jugador instantanea;
+        final CompletableFuture<Void> confirmacion;
+
+        Pendiente(Jugador instantanea, CompletableFuture<Void> confirmacion) {
+            this.instantanea = instantanea;
+            this.confirmacion = confirmacion;
+        }
+    }
+
+    public ColaPersistencia(AlmacenJugadores almacen) {
+        this.almacen = almacen;
+        this.ejecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Persistencia");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public AlmacenJugadores getAlmacen() {
+        return almacen;
+    }
+
+    // ---------------------------------------------------------------------------------
+    // Escrituras
+    // ---------------------------------------------------------------------------------
+
+    /**
+     * Encola la actualización del jugador (write-behind). Se toma una copia en este momento,
+     * así que el llamador puede seguir modificando su objeto. Si ya había una actualización
+     * pendiente para el mismo nombre, se sustituye y ambos llamadores reciben el mismo future.
+     */
+    public CompletableFuture<Void> actualizarJugador(Jugador j) {
+        Jugador copia = j.copia();
+        Pendiente p = pendientes.compute(copia.getNombre(), (nombre, previo) ->
+                new Pendiente(copia, previo != null ? previo.confirmacion : new CompletableFuture<>()));
+        programarVaciado();
+        return p.confirmacion;
+    }
+
+    // Registra el jugador si no existe. El future indica si se agregó (false = nombre repetido).
+    public CompletableFuture<Boolean> agregarSiNoExiste(Jugador j) {
+        Jugador copia = j.copia();
+        return enviar(() -> almacen.agregarSiNoExiste(copia));
+    }
+
+    // ---------------------------------------------------------------------------------
+    // Lecturas
+    // ---------------------------------------------------------------------------------
+
+    // Devuelve el jugador guardado con ese nombre, o null si no existe
+    public CompletableFuture<Jugador> cargarJugador(String nombre) {
+        return enviar(() -> almacen.buscar(nombre));
+    }
+
+    // Lista vacía si no hay jugadores
+    public CompletableFuture<ArrayList<Jugador>> obtenerJugadores() {
+        return enviar(almacen::todos);
+    }
+
+    // ---------------------------------------------------------------------------------
+    // Genérico / ciclo de vida
+    // ---------------------------------------------------------------------------------
+
+    /**
+     * Ejecuta cualquier tarea de E/S en el hilo de persistencia, después de vaciar las escrituras
+     * pendientes (para respetar el orden lógico escritura -> lectura).
+     */
+    public <T> CompletableFuture<T> enviar(Callable<T> tarea) {
+        CompletableFuture<T> f = new CompletableFuture<>();
+        ejecutor.execute(() -> {
+            try {
+                vaciarPendientes();
+                f.complete(tarea.call());
+            } catch (Throwable t) {
+                f.completeExceptionally(t);
+            }
+        });
+        return f;
+    }
+
+    // Fuerza la escritura inmediata de lo pendiente
+    public CompletableFuture<Void> vaciar() {
+        return enviar(() -> null);
+    }
+
+    /**
+     * Vacía lo pendiente y detiene el hilo. Espera como mucho esperaMillis.
+     */
+    public void cerrar(long esperaMillis) {
+        try {
+            vaciar().get(esperaMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            System.err.println("Advertencia vaciando la cola de persistencia: " + e.getMessage());
+        } finally {
+            ejecutor.shutdown();
+        }
+    }
+
+    public int getEscriturasPendientes() {
+        return pendientes.size();
+    }
+
+    private void programarVaciado() {
+        if (vaciadoProgramado.compareAndSet(false, true)) {
+            ejecutor.schedule(() -> {
+                vaciadoProgramado.set(false);
+                vaciarPendientes();
+            }, RETARDO_ESCRITURA_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Solo se llama desde el hilo de persistencia
+    private void vaciarPendientes() {
+        for (String nombre : pendientes.keySet()) {
+            Pendiente p = pendientes.remove(nombre);
+            if (p == null) continue;
+            try {
+                almacen.actualizar(p.instantanea);
+                p.confirmacion.complete(null);
+            } catch (Throwable t) {
+                p.confirmacion.completeExceptionally(t);
+            }
+        }
+    }
+}
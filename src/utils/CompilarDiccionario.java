@@ -0,0 +1,52 @@
+package utils;
+
+import logic.DiccionarioCongelado;
+import logic.DiccionarioFueraDeHeap;
+import logic.Dictionary;
+import logic.TrieDictionary;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Compila una lista de palabras al formato binario de DiccionarioFueraDeHeap, que luego se abre
+ * mapeándolo en memoria sin leer, filtrar ni insertar nada.
+ *
+ * Uso:
+ *   java -cp ... utils.CompilarDiccionario <entrada.txt|recurso> <salida.trie>
+ *
+ * La entrada es un fichero del disco o, si no existe, un recurso del classpath (p. ej.
+ * game_files/diccionario.txt); se aplican los filtros normales de DictionaryLoader.
+ */
+public final class CompilarDiccionario {
+    private CompilarDiccionario() {}
+
+    public static final String EXTENSION = ".trie";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Uso: CompilarDiccionario <entrada.txt|recurso> <salida" + EXTENSION + ">");
+            System.exit(2);
+        }
+        long t0 = System.nanoTime();
+        TrieDictionary t = new TrieDictionary();
+        File entrada = new File(args[0]);
+        if (entrada.isFile()) DictionaryLoader.loadIntoDictionary(entrada, t);
+        else DictionaryLoader.loadIntoDictionary(args[0], t);
+        DiccionarioCongelado c = t.freeze();
+        Path salida = Paths.get(args[1]);
+        DiccionarioFueraDeHeap.desde(c).escribir(salida);
+        System.err.printf("[Compilar] %s: %d palabras, %d nodos, %d KB en %d ms%n", salida, c.size(),
+                c.getNumNodos(), salida.toFile().length() >> 10, (System.nanoTime() - t0) / 1_000_000L);
+    }
+
+    // Abre un diccionario compilado (.trie) mapeado o, si no, carga la lista de palabras del fichero
+    public static Dictionary abrir(File fichero) throws IOException {
+        if (fichero.getName().endsWith(EXTENSION)) return DiccionarioFueraDeHeap.mapear(fichero.toPath());
+        TrieDictionary t = new TrieDictionary();
+        DictionaryLoader.loadIntoDictionary(fichero, t);
+        return t.freeze();
+    }
+}
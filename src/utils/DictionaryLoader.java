@@ -6,14 +6,67 @@ import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.text.Normalizer;
 import java.util.*;
+import java.util.regex.Pattern;
 
 public final class DictionaryLoader {
     private DictionaryLoader() {}
 
+    // Fases de la carga: lectura + filtrado + orden, e inserción en el diccionario
+    private static final Metricas.Histograma H_LECTURA = Metricas.histograma("diccionario.carga.lectura");
+    private static final Metricas.Histograma H_INSERCION = Metricas.histograma("diccionario.carga.insercion");
+    private static final Metricas.Contador C_LINEAS = Metricas.contador("diccionario.carga.lineas");
+    private static final Metricas.Contador C_PALABRAS = Metricas.contador("diccionario.carga.palabras");
+
+    /**
+     * Reglas de carga de un idioma: qué entradas del fichero se descartan antes de normalizar. Cada
+     * Idioma tiene las suyas (Idioma.getReglasCarga); las de ESPANOL son las de siempre.
+     * Tras quitar tildes, una entrada con letras fuera de a-z (ß, œ...) se descarta en vez de mutilarla.
+     */
+    public static final class Reglas {
+        // Sin 'ñ' (el tablero no la tiene); siglas y nombres propios con las mayúsculas del español
+        public static final Reglas ESPANOL = new Reglas("ñÑ",
+                Pattern.compile("^[A-ZÁÉÍÓÚÜÑ .\\-\\+/]+$"),
+                Pattern.compile("^[A-ZÁÉÍÓÚÜ][a-záéíóúü]+$"),
+                Pattern.compile(".*[\\./\\-\\+_0-9].*"),
+                false);
+        // Otros alfabetos latinos (inglés, portugués): mayúsculas de Unicode y el apóstrofo como puntuación
+        public static final Reglas LATINAS = new Reglas("",
+                Pattern.compile("^[\\p{Lu} .\\-\\+/]+$"),
+                Pattern.compile("^\\p{Lu}\\p{Ll}+$"),
+                Pattern.compile(".*[\\./\\-\\+_0-9'’].*"),
+                false);
+
+        final String excluidas;    // una sola basta para descartar la entrada
+        final Pattern siglas;      // null: no se descartan siglas
+        final Pattern propios;     // null: no se descartan nombres propios
+        final Pattern puntuacion;  // null: no se descartan entradas con puntuación o dígitos
+        final boolean exigirVocal;
+
+        public Reglas(String excluidas, Pattern siglas, Pattern propios, Pattern puntuacion, boolean exigirVocal) {
+            this.excluidas = excluidas != null ? excluidas : "";
+            this.siglas = siglas;
+            this.propios = propios;
+            this.puntuacion = puntuacion;
+            this.exigirVocal = exigirVocal;
+        }
+
+        private boolean excluye(String raw) {
+            for (int i = 0; i < excluidas.length(); i++) {
+                if (raw.indexOf(excluidas.charAt(i)) >= 0) return true;
+            }
+            return false;
+        }
+    }
+
     public static void loadIntoDictionary(String resourcePath, Dictionary dict) throws IOException {
         loadWithOptions(resourcePath, dict, true, true, true, false); // requireVowel=false por defecto
     }
 
+    // Carga un recurso del classpath con las reglas de un idioma
+    public static void loadIntoDictionary(String resourcePath, Dictionary dict, Reglas reglas) throws IOException {
+        loadFromStream(abrirRecurso(resourcePath), dict, reglas);
+    }
+
     public static void loadWithOptions(
             String resourcePath,
             Dictionary dict,
@@ -23,44 +76,125 @@ public final class DictionaryLoader {
             boolean requireVowel // NUEVA opción
     ) throws IOException {
 
-        InputStream is = DictionaryLoader.class.getClassLoader().getResourceAsStream(resourcePath);
-        if (is == null) {
-            throw new FileNotFoundException("No se encontró el recurso en el classpath: " + resourcePath);
-        }
+        loadFromStream(abrirRecurso(resourcePath), dict, excludeAllCapsTokens, excludeProperNouns, excludePunctuatedTokens, requireVowel);
+    }
+
+    // Carga desde un fichero del disco (herramientas de línea de comandos), con las opciones por defecto
+    public static void loadIntoDictionary(File file, Dictionary dict) throws IOException {
+        loadFromStream(new FileInputStream(file), dict, true, true, true, false);
+    }
 
+    /**
+     * Carga desde cualquier flujo (UTF-8, una palabra por línea) con las reglas del español y las
+     * opciones de loadWithOptions. El flujo se cierra al terminar.
+     */
+    public static void loadFromStream(
+            InputStream is,
+            Dictionary dict,
+            boolean excludeAllCapsTokens,
+            boolean excludeProperNouns,
+            boolean excludePunctuatedTokens,
+            boolean requireVowel
+    ) throws IOException {
+        Reglas es = Reglas.ESPANOL;
+        loadFromStream(is, dict, new Reglas(es.excluidas, excludeAllCapsTokens ? es.siglas : null,
+                excludeProperNouns ? es.propios : null, excludePunctuatedTokens ? es.puntuacion : null, requireVowel));
+    }
+
+    // Carga desde cualquier flujo (UTF-8, una palabra por línea) con las reglas dadas. El flujo se cierra al terminar.
+    public static void loadFromStream(InputStream is, Dictionary dict, Reglas reglas) throws IOException {
+        long t0 = Metricas.inicio();
+        EventosJfr.CargaDiccionario evento = new EventosJfr.CargaDiccionario();
+        evento.begin();
+        EventosJfr.FasesCarga fases = new EventosJfr.FasesCarga();
         Set<String> uniqueSorted = new TreeSet<>();
-        int skippedEnye = 0, skippedAllCaps = 0, skippedProper = 0, skippedPunct = 0, skippedTriples = 0, skippedNoVowel = 0, total = 0;
+        int skippedExcluded = 0, skippedForeign = 0, skippedAllCaps = 0, skippedProper = 0, skippedPunct = 0, skippedTriples = 0, skippedNoVowel = 0, total = 0;
+        int filtered = 0, normalizedCount = 0;
 
         try (BufferedReader br = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
             String line;
-            while ((line = br.readLine()) != null) {
+            while (true) {
+                fases.pasarA(EventosJfr.FasesCarga.LECTURA);
+                if ((line = br.readLine()) == null) break;
+                fases.pasarA(EventosJfr.FasesCarga.FILTRO);
                 total++;
                 String raw = line.trim();
                 if (raw.isEmpty()) continue;
-                if (containsEnye(raw)) { skippedEnye++; continue; }
-                if (excludeAllCapsTokens && isAllCapsToken(raw)) { skippedAllCaps++; continue; }
-                if (excludePunctuatedTokens && hasPunctuation(raw)) { skippedPunct++; continue; }
-                if (excludeProperNouns && isProperNoun(raw)) { skippedProper++; continue; }
+                if (reglas.excluye(raw)) { skippedExcluded++; continue; }
+                if (reglas.siglas != null && isAllCapsToken(raw, reglas.siglas)) { skippedAllCaps++; continue; }
+                if (reglas.puntuacion != null && reglas.puntuacion.matcher(raw).matches()) { skippedPunct++; continue; }
+                if (reglas.propios != null && reglas.propios.matcher(raw).matches()) { skippedProper++; continue; }
 
-                String normalized = normalize(raw);
+                fases.pasarA(EventosJfr.FasesCarga.NORMALIZACION);
+                filtered++;
+                String folded = fold(raw);
+                if (hasForeignLetter(folded)) { skippedForeign++; continue; }
+                String normalized = onlyAz(folded);
                 if (normalized.length() < 3) continue;
                 if (hasTripleRepeat(normalized)) { skippedTriples++; continue; }
 
-                if (requireVowel && !hasVowel(normalized)) { skippedNoVowel++; continue; }
+                if (reglas.exigirVocal && !hasVowel(normalized)) { skippedNoVowel++; continue; }
 
+                normalizedCount++;
                 uniqueSorted.add(normalized);
             }
         }
 
         List<String> words = new ArrayList<>(uniqueSorted);
+        H_LECTURA.registrarDesde(t0);
+        long t1 = Metricas.inicio();
+        fases.pasarA(EventosJfr.FasesCarga.INSERCION);
         insertBalanced(dict, words, 0, words.size() - 1);
+        H_INSERCION.registrarDesde(t1);
+        C_LINEAS.sumar(total);
+        C_PALABRAS.sumar(words.size());
+        fases.terminar(total, filtered, normalizedCount, words.size());
+        evento.end();
+        if (evento.shouldCommit()) {
+            evento.lineas = total;
+            evento.palabras = dict.size();
+            evento.descartadas = total - normalizedCount;
+            evento.commit();
+        }
 
         System.out.printf(
-                "Diccionario: total lineas=%d | cargadas=%d | ñ=%d | SIGLAS=%d | PUNTOS=%d | PROPIOS=%d | triples=%d | sinVocal=%d%n",
-                total, dict.size(), skippedEnye, skippedAllCaps, skippedPunct, skippedProper, skippedTriples, skippedNoVowel
+                "Diccionario: total lineas=%d | cargadas=%d | excluidas=%d | ajenas=%d | SIGLAS=%d | PUNTOS=%d | PROPIOS=%d | triples=%d | sinVocal=%d%n",
+                total, dict.size(), skippedExcluded, skippedForeign, skippedAllCaps, skippedPunct, skippedProper, skippedTriples, skippedNoVowel
         );
     }
 
+    /**
+     * Normaliza una palabra suelta con los filtros por defecto de la carga (sin tildes, minúsculas,
+     * solo a-z, al menos 3 letras, sin triples). Devuelve null si la carga la descartaría.
+     */
+    public static String normalizeWord(String raw) {
+        return normalizeWord(raw, Reglas.ESPANOL);
+    }
+
+    // Igual, con las reglas de carga de un idioma
+    public static String normalizeWord(String raw, Reglas reglas) {
+        if (raw == null) return null;
+        raw = raw.trim();
+        if (raw.isEmpty() || reglas.excluye(raw)
+                || (reglas.siglas != null && isAllCapsToken(raw, reglas.siglas))
+                || (reglas.puntuacion != null && reglas.puntuacion.matcher(raw).matches())
+                || (reglas.propios != null && reglas.propios.matcher(raw).matches())) return null;
+        String folded = fold(raw);
+        if (hasForeignLetter(folded)) return null;
+        String normalized = onlyAz(folded);
+        if (normalized.length() < 3 || hasTripleRepeat(normalized)) return null;
+        if (reglas.exigirVocal && !hasVowel(normalized)) return null;
+        return normalized;
+    }
+
+    private static InputStream abrirRecurso(String resourcePath) throws IOException {
+        InputStream is = DictionaryLoader.class.getClassLoader().getResourceAsStream(resourcePath);
+        if (is == null) {
+            throw new FileNotFoundException("No se encontró el recurso en el classpath: " + resourcePath);
+        }
+        return is;
+    }
+
     private static void insertBalanced(Dictionary dict, List<String> words, int lo, int hi) {
         if (lo > hi) return;
         int mid = (lo + hi) >>> 1;
@@ -70,12 +204,19 @@ public final class DictionaryLoader {
         insertBalanced(dict, words, mid + 1, hi);
     }
 
-    private static boolean containsEnye(String s) { return s.indexOf('ñ') >= 0 || s.indexOf('Ñ') >= 0; }
-    private static String normalize(String input) {
+    // Minúsculas y sin diacríticos (á -> a, ç -> c); lo que no sea letra se quita después
+    private static String fold(String input) {
         String lower = input.toLowerCase();
         String nfd = Normalizer.normalize(lower, Normalizer.Form.NFD);
-        String withoutDiacritics = nfd.replaceAll("\\p{M}+", "");
-        return withoutDiacritics.replaceAll("[^a-z]", "");
+        return nfd.replaceAll("\\p{M}+", "");
+    }
+    private static String onlyAz(String folded) { return folded.replaceAll("[^a-z]", ""); }
+    private static boolean hasForeignLetter(String folded) {
+        for (int i = 0; i < folded.length(); i++) {
+            char ch = folded.charAt(i);
+            if ((ch < 'a' || ch > 'z') && Character.isLetter(ch)) return true;
+        }
+        return false;
     }
     private static boolean hasTripleRepeat(String s) {
         int run = 1;
@@ -85,9 +226,9 @@ public final class DictionaryLoader {
         }
         return false;
     }
-    private static boolean isAllCapsToken(String raw) {
+    private static boolean isAllCapsToken(String raw, Pattern siglas) {
         if (raw.length() < 2) return false;
-        if (raw.matches("^[A-ZÁÉÍÓÚÜÑ .\\-\\+/]+$")) {
+        if (siglas.matcher(raw).matches()) {
             int upper = 0, letters = 0;
             for (int i = 0; i < raw.length(); i++) {
                 char ch = raw.charAt(i);
@@ -97,8 +238,6 @@ public final class DictionaryLoader {
         }
         return false;
     }
-    private static boolean isProperNoun(String raw) { return raw.matches("^[A-ZÁÉÍÓÚÜ][a-záéíóúü]+$"); }
-    private static boolean hasPunctuation(String raw) { return raw.matches(".*[\\./\\-\\+_0-9].*"); }
     private static boolean hasVowel(String w) {
         for (int i = 0; i < w.length(); i++) {
             char ch = w.charAt(i);
@@ -0,0 +1,210 @@
+package utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.io.File;
+
+/**
+ * Eventos propios para Java Flight Recorder (categoría "Boggle" en JMC).
+ *
+ * Grabar con el perfil del repositorio (jfr/boggle.jfc):
+ *   java -XX:StartFlightRecording=settings=default,settings=jfr/boggle.jfc,filename=boggle.jfr ...
+ *
+ * Sin una grabación activa, isEnabled()/shouldCommit() son falsos y el JIT reduce cada punto de
+ * instrumentación a una comprobación; los campos solo se rellenan si el evento se va a escribir.
+ */
+public final class EventosJfr {
+    private EventosJfr() {}
+
+    @Name("boggle.CargaDiccionario")
+    @Label("Carga del diccionario")
+    @Category({"Boggle", "Diccionario"})
+    public static final class CargaDiccionario extends Event {
+        @Label("Líneas leídas")
+        public long lineas;
+
+        @Label("Palabras cargadas")
+        public long palabras;
+
+        @Label("Líneas descartadas")
+        public long descartadas;
+    }
+
+    @Name("boggle.FaseDiccionario")
+    @Label("Fase de carga del diccionario")
+    @Description("Tiempo acumulado de una fase (lectura, filtro, normalización, inserción) durante una carga")
+    @Category({"Boggle", "Diccionario"})
+    @StackTrace(false)
+    public static final class FaseDiccionario extends Event {
+        @Label("Fase")
+        public String fase;
+
+        @Label("Tiempo")
+        @Timespan(Timespan.NANOSECONDS)
+        public long tiempo;
+
+        @Label("Elementos")
+        @Description("Lectura: líneas leídas; filtro: líneas que lo pasan; normalización: palabras normalizadas; inserción: palabras insertadas")
+        public long elementos;
+    }
+
+    @Name("boggle.ResolucionTablero")
+    @Label("Resolución de tablero")
+    @Category({"Boggle", "Solver"})
+    @StackTrace(false)
+    public static final class ResolucionTablero extends Event {
+        @Label("Tablero")
+        public String tablero;
+
+        @Label("Palabras")
+        public int palabras;
+
+        @Label("Nodos visitados")
+        @Description("Llamadas de la búsqueda en profundidad (celdas exploradas)")
+        public long nodosVisitados;
+
+        @Label("Consultas fallidas")
+        @Description("Prefijos buscados en el diccionario que no existían (ramas muertas)")
+        public long consultasFallidas;
+
+        @Label("Recorrido del trie")
+        @Description("La búsqueda avanzó por los nodos del trie con máscaras de letras en vez de consultar cadenas")
+        public boolean recorridoTrie;
+    }
+
+    @Name("boggle.ResolucionLote")
+    @Label("Resolución de un lote de tableros")
+    @Category({"Boggle", "Solver"})
+    @StackTrace(false)
+    public static final class ResolucionLote extends Event {
+        @Label("Tableros")
+        public int tableros;
+
+        @Label("Palabras")
+        @Description("Suma de las palabras encontradas en cada tablero")
+        public int palabras;
+
+        @Label("Nodos del trie")
+        @Description("Nodos del diccionario recorridos una sola vez para todo el lote")
+        public long nodosTrie;
+
+        @Label("Estados")
+        @Description("Pares (nodo, camino en un tablero) evaluados")
+        public long estados;
+    }
+
+    @Name("boggle.ValidacionEnvio")
+    @Label("Validación de palabra")
+    @Category({"Boggle", "Partida"})
+    @StackTrace(false)
+    public static final class ValidacionEnvio extends Event {
+        @Label("Resultado")
+        public String resultado;
+
+        @Label("Longitud")
+        public int longitud;
+    }
+
+    @Name("boggle.OperacionFichero")
+    @Label("Operación del fichero de jugadores")
+    @Category({"Boggle", "Jugadores"})
+    public static final class OperacionFichero extends Event {
+        @Label("Operación")
+        public String operacion;
+
+        @Label("Fichero")
+        public String fichero;
+
+        @Label("Bytes leídos")
+        @DataAmount
+        public long bytesLeidos;
+
+        @Label("Bytes escritos")
+        @DataAmount
+        public long bytesEscritos;
+
+        @Label("Accesos posicionales")
+        @Description("Lecturas y escrituras en una posición del canal (cada una es un salto)")
+        public long saltos;
+
+        // La operación en curso del hilo, para que los ayudantes de E/S puedan sumar sin recibirla
+        private static final ThreadLocal<OperacionFichero> EN_CURSO = new ThreadLocal<>();
+
+        // Empieza el evento si hay una grabación que lo recoja; null si no
+        public static OperacionFichero iniciar(String operacion, File fichero) {
+            OperacionFichero e = new OperacionFichero();
+            if (!e.isEnabled()) return null;
+            e.operacion = operacion;
+            e.fichero = fichero.getName();
+            e.begin();
+            EN_CURSO.set(e);
+            return e;
+        }
+
+        public static void leidos(long bytes) {
+            OperacionFichero e = EN_CURSO.get();
+            if (e != null) {
+                e.bytesLeidos += bytes;
+                e.saltos++;
+            }
+        }
+
+        public static void escritos(long bytes) {
+            OperacionFichero e = EN_CURSO.get();
+            if (e != null) {
+                e.bytesEscritos += bytes;
+                e.saltos++;
+            }
+        }
+
+        public static void terminar(OperacionFichero e) {
+            if (e == null) return;
+            EN_CURSO.remove();
+            e.commit();
+        }
+    }
+
+    /**
+     * Cronómetro de las fases de la carga del diccionario. El bucle de lectura marca cada cambio de
+     * fase con pasarA(); el tiempo desde la marca anterior se suma a la fase que termina. Sin
+     * grabación activa no llama a System.nanoTime().
+     */
+    public static final class FasesCarga {
+        public static final int LECTURA = 0, FILTRO = 1, NORMALIZACION = 2, INSERCION = 3;
+        private static final String[] NOMBRES = {"lectura", "filtro", "normalizacion", "insercion"};
+
+        private final boolean activo = new FaseDiccionario().isEnabled();
+        private final long[] tiempo = new long[NOMBRES.length];
+        private int fase = LECTURA;
+        private long marca = activo ? System.nanoTime() : 0L;
+
+        public void pasarA(int nueva) {
+            if (!activo) return;
+            long t = System.nanoTime();
+            tiempo[fase] += t - marca;
+            marca = t;
+            fase = nueva;
+        }
+
+        // Cierra la fase en curso y escribe un evento por fase con los elementos que procesó cada una
+        public void terminar(long lineas, long aceptadas, long normalizadas, long insertadas) {
+            if (!activo) return;
+            pasarA(fase);
+            long[] elementos = {lineas, aceptadas, normalizadas, insertadas};
+            for (int i = 0; i < NOMBRES.length; i++) {
+                FaseDiccionario e = new FaseDiccionario();
+                e.fase = NOMBRES[i];
+                e.tiempo = tiempo[i];
+                e.elementos = elementos[i];
+                e.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package utils;
+
+import logic.Jugador;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.function.Consumer;
+
+/**
+ * Almacén de fichero único (formato histórico de TrabajarFichero):
+ *   [int totalJugadores] ([int longitud][bytes Jugador serializado])*
+ *
+ * Cada operación recorre el fichero, así que está pensado para pocos jugadores.
+ * Los bloqueos de CerrojoFichero (vía TrabajarFichero) protegen cada operación dentro del proceso y
+ * entre procesos: las lecturas (buscar, recorrer, contar) no toman el monitor de la instancia, así
+ * que los lectores comparten el bloqueo y no hacen cola unos detrás de otros. Solo las escrituras
+ * se serializan además con el monitor.
+ */
+public class FicheroJugadores implements AlmacenJugadores {
+
+    public static final String NOMBRE_FICHERO = "datos_partidas.dat";
+
+    private final File fichero;
+
+    public FicheroJugadores(File fichero) {
+        this.fichero = fichero;
+    }
+
+    // Crea el fichero (y su carpeta) con la cabecera si todavía no existe
+    public static FicheroJugadores crear(File fichero) throws IOException {
+        File parent = fichero.getParentFile();
+        if (parent != null && !parent.exists()) parent.mkdirs();
+        if (!fichero.exists()) fichero.createNewFile();
+        TrabajarFichero.crearEncabezado(fichero);
+        return new FicheroJugadores(fichero);
+    }
+
+    // Escritor secuencial sobre un fichero nuevo (no debe existir o estar vacío)
+    public static AlmacenJugadores.EscritorMasivo escritorMasivo(File fichero) throws IOException {
+        if (fichero.exists() && fichero.length() > 0) {
+            throw new IOException("El fichero de destino ya contiene datos: " + fichero);
+        }
+        File parent = fichero.getParentFile();
+        if (parent != null && !parent.exists()) parent.mkdirs();
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fichero), 1 << 16));
+        out.writeInt(0); // la cabecera real se escribe al cerrar
+        return new AlmacenJugadores.EscritorMasivo() {
+            private int total;
+
+            @Override
+            public void escribir(Jugador j) throws IOException {
+                byte[] bytes = Convert.toBytes(j);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+                total++;
+            }
+
+            @Override
+            public void close() throws IOException {
+                out.close();
+                try (RandomAccessFile raf = new RandomAccessFile(fichero, "rw")) {
+                    raf.writeInt(total);
+                }
+            }
+        };
+    }
+
+    public File getFichero() {
+        return fichero;
+    }
+
+    @Override
+    public synchronized boolean agregarSiNoExiste(Jugador j) throws IOException {
+        try {
+            return TrabajarFichero.agregarJugador(fichero, j);
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public Jugador buscar(String nombre) throws IOException {
+        for (Jugador j : todos()) {
+            if (j.getNombre().equals(nombre)) return j;
+        }
+        return null;
+    }
+
+    @Override
+    public synchronized void actualizar(Jugador j) throws IOException {
+        try {
+            TrabajarFichero.actualizarJugador(fichero, j);
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void recorrer(Consumer<Jugador> visitor) throws IOException {
+        try {
+            TrabajarFichero.recorrerJugadores(fichero, visitor);
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public int contar() throws IOException {
+        return TrabajarFichero.contarJugadores(fichero);
+    }
+
+    @Override
+    public String getUbicacion() {
+        try {
+            return fichero.getCanonicalPath();
+        } catch (IOException e) {
+            return fichero.getAbsolutePath();
+        }
+    }
+}
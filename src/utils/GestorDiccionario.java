@@ -0,0 +1,321 @@
+package utils;
+
+import logic.DiccionarioCongelado;
+import logic.DiccionarioParcheado;
+import logic.Dictionary;
+import logic.TrieDictionary;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Diccionario recargable en caliente: vigila el fichero de palabras y, cuando cambia, construye
+ * un diccionario nuevo en segundo plano y lo publica de golpe (copy-on-write).
+ *
+ * - actual() devuelve siempre una versión completa e inmutable (DiccionarioCongelado, o
+ *   DiccionarioParcheado si hay parche); nunca se modifica una versión publicada, se sustituye la
+ *   referencia entera.
+ * - Quien toma una versión se queda con ella: las partidas en curso siguen con el diccionario con
+ *   el que empezaron y las nuevas usan el nuevo. El gestor solo guarda la versión vigente, así que
+ *   las anteriores las recoge el GC en cuanto ninguna partida (ni tablero en reserva) las usa.
+ * - Si la recarga falla o el fichero queda vacío se conserva la versión anterior.
+ * - La fuente es el fichero indicado con -Dboggle.diccionario=ruta o, si no, el recurso del
+ *   classpath. Un recurso dentro de un jar no se puede vigilar: se carga una vez y ya.
+ * - Cambios pequeños sin reconstruir: junto al fichero puede haber un parche (diccionario.txt ->
+ *   diccionario.parche, ver ParcheDiccionario). Cambiar el parche solo lo vuelve a aplicar sobre la
+ *   base ya cargada; cambiar la base la reconstruye y le aplica el parche. compactar() funde el
+ *   parche en el fichero base y lo borra; se hace solo tras una recarga si el parche acumula más de
+ *   CAMBIOS_COMPACTAR palabras (-Dboggle.diccionario.compactar=N), porque aplicar() rehace los
+ *   cambios acumulados cada vez.
+ */
+public final class GestorDiccionario implements Closeable {
+
+    // Tras un aviso, espera a que el fichero deje de cambiar (los editores escriben en varios pasos)
+    public static final long ESPERA_ESTABLE_MS = 500;
+
+    // Palabras añadidas más quitadas a partir de las cuales se compacta tras recargar
+    public static final int CAMBIOS_COMPACTAR = Integer.getInteger("boggle.diccionario.compactar", 5000);
+
+    private static final Metricas.Histograma H_RECARGA = Metricas.histograma("diccionario.recarga");
+    private static final Metricas.Contador C_RECARGAS = Metricas.contador("diccionario.recargas");
+    private static final Metricas.Contador C_FALLOS = Metricas.contador("diccionario.recargas.fallidas");
+
+    private final String recurso;
+    private final Path fichero; // null si la fuente no es un fichero del disco
+    private final Path parche;  // null si no hay fichero
+    private final AtomicReference<Dictionary> actual = new AtomicReference<>();
+    private DiccionarioCongelado base;
+    private FileTime baseEscrita; // fecha del fichero base tras compactar, para no recargarlo otra vez
+    private final List<Consumer<Dictionary>> oyentes = new CopyOnWriteArrayList<>();
+    private volatile int version;
+    private WatchService vigilante;
+
+    private GestorDiccionario(String recurso, Path fichero) {
+        this.recurso = recurso;
+        this.fichero = fichero;
+        this.parche = fichero != null ? fichero.resolveSibling(sinExtension(fichero.getFileName().toString()) + ".parche") : null;
+    }
+
+    /**
+     * Carga la primera versión (en el hilo que llama) a partir del recurso del classpath o del
+     * fichero de -Dboggle.diccionario. Para recargar en caliente, llamar después a vigilar().
+     */
+    public static GestorDiccionario abrir(String recurso) throws IOException {
+        String ruta = System.getProperty("boggle.diccionario");
+        GestorDiccionario g = new GestorDiccionario(recurso, ruta != null ? Paths.get(ruta) : ficheroDelRecurso(recurso));
+        g.base = g.construir();
+        Dictionary inicial = g.base;
+        try {
+            inicial = g.conParche(g.base);
+        } catch (IOException e) {
+            // Un parche mal escrito no impide arrancar: se juega con la base hasta que se corrija
+            System.err.println("[Diccionario] Parche ignorado: " + e.getMessage());
+        }
+        g.actual.set(inicial);
+        g.version = 1;
+        return g;
+    }
+
+    // Versión vigente: tomarla una vez por partida y guardarla, no llamar en cada consulta
+    public Dictionary actual() {
+        return actual.get();
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public Path getFichero() {
+        return fichero;
+    }
+
+    public Path getParche() {
+        return parche;
+    }
+
+    // Se avisa (en el hilo del vigilante) con cada versión nueva que se publica
+    public void alCambiar(Consumer<Dictionary> oyente) {
+        oyentes.add(oyente);
+    }
+
+    /**
+     * Empieza a vigilar el fichero en un hilo daemon ("Diccionario"). Devuelve false si la fuente
+     * no es un fichero del disco y por tanto no se puede recargar.
+     */
+    public synchronized boolean vigilar() throws IOException {
+        if (vigilante != null) return true;
+        if (fichero == null) {
+            System.err.println("[Diccionario] " + recurso + " no es un fichero del disco; no se recargará en caliente");
+            return false;
+        }
+        Path carpeta = fichero.toAbsolutePath().getParent();
+        vigilante = FileSystems.getDefault().newWatchService();
+        // Se vigila la carpeta: guardar suele ser escribir un temporal y renombrarlo (CREATE, no MODIFY)
+        carpeta.register(vigilante, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        Thread t = new Thread(() -> bucle(vigilante), "Diccionario");
+        t.setDaemon(true);
+        t.start();
+        System.out.println("[Diccionario] Vigilando " + fichero.toAbsolutePath());
+        return true;
+    }
+
+    /**
+     * Construye una versión nueva y la publica. Devuelve false (y conserva la anterior) si no se
+     * pudo leer o no contiene palabras. La llama el vigilante, pero también se puede forzar.
+     */
+    public synchronized boolean recargar() {
+        long t0 = System.nanoTime();
+        try {
+            DiccionarioCongelado nuevaBase = construir();
+            if (nuevaBase.size() == 0) throw new IOException("el diccionario nuevo está vacío");
+            Dictionary nuevo = conParche(nuevaBase);
+            base = nuevaBase;
+            publicar(nuevo, "base", t0);
+            compactarSiCrecio();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            return descartar(e);
+        }
+    }
+
+    /**
+     * Vuelve a aplicar el fichero de parche sobre la base ya cargada (sin releer la base). Es lo
+     * que hace el vigilante cuando solo cambia el parche.
+     */
+    public synchronized boolean recargarParche() {
+        long t0 = System.nanoTime();
+        try {
+            Dictionary nuevo = conParche(base);
+            if (nuevo == actual.get()) return true; // sin parche y ya estaba la base sola (p. ej. tras compactar)
+            publicar(nuevo, "parche", t0);
+            compactarSiCrecio();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            return descartar(e);
+        }
+    }
+
+    /**
+     * Funde el parche en la base: escribe la lista de palabras resultante en el fichero base, borra
+     * el parche y publica la base nueva. Devuelve false si no había nada que compactar.
+     */
+    public synchronized boolean compactar() throws IOException {
+        Dictionary d = actual.get();
+        if (fichero == null || !(d instanceof DiccionarioParcheado)) return false;
+        long t0 = System.nanoTime();
+        DiccionarioCongelado nuevaBase = ((DiccionarioParcheado) d).compactar();
+        Path tmp = fichero.resolveSibling(fichero.getFileName() + ".tmp");
+        try (BufferedWriter bw = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            IOException[] error = new IOException[1];
+            nuevaBase.recorrerPalabras("", w -> {
+                try {
+                    bw.write(w);
+                    bw.newLine();
+                    return false;
+                } catch (IOException e) {
+                    error[0] = e;
+                    return true;
+                }
+            });
+            if (error[0] != null) throw error[0];
+        }
+        Files.move(tmp, fichero, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        baseEscrita = Files.getLastModifiedTime(fichero);
+        Files.deleteIfExists(parche);
+        base = nuevaBase;
+        publicar(nuevaBase, "compactación", t0);
+        return true;
+    }
+
+    // Si falla se sigue con la versión parcheada, que ya está publicada
+    private void compactarSiCrecio() {
+        Dictionary d = actual.get();
+        if (!(d instanceof DiccionarioParcheado) || ((DiccionarioParcheado) d).getNumCambios() < CAMBIOS_COMPACTAR) return;
+        try {
+            compactar();
+        } catch (IOException e) {
+            System.err.println("[Diccionario] No se pudo compactar el parche: " + e.getMessage());
+        }
+    }
+
+    private void publicar(Dictionary nuevo, String origen, long t0) {
+        Dictionary anterior = actual.getAndSet(nuevo);
+        version++;
+        H_RECARGA.registrarDesde(t0);
+        C_RECARGAS.incrementar();
+        System.out.printf("[Diccionario] Versión %d publicada (%s): %d palabras (antes %d) en %d ms%n",
+                version, origen, nuevo.size(), anterior.size(), (System.nanoTime() - t0) / 1_000_000L);
+        for (Consumer<Dictionary> o : oyentes) {
+            try {
+                o.accept(nuevo);
+            } catch (RuntimeException e) {
+                System.err.println("[Diccionario] Error avisando del cambio: " + e.getMessage());
+            }
+        }
+    }
+
+    private boolean descartar(Exception e) {
+        C_FALLOS.incrementar();
+        System.err.println("[Diccionario] Recarga descartada, se mantiene la versión " + version + ": " + e.getMessage());
+        return false;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (vigilante != null) vigilante.close();
+    }
+
+    private DiccionarioCongelado construir() throws IOException {
+        TrieDictionary d = new TrieDictionary();
+        if (fichero != null) DictionaryLoader.loadIntoDictionary(fichero.toFile(), d);
+        else DictionaryLoader.loadIntoDictionary(recurso, d);
+        return d.freeze();
+    }
+
+    // La base con el fichero de parche aplicado, o la base tal cual si no hay parche
+    private Dictionary conParche(DiccionarioCongelado b) throws IOException {
+        if (parche == null || !Files.isRegularFile(parche)) return b;
+        ParcheDiccionario p = ParcheDiccionario.leer(parche);
+        DiccionarioParcheado d = DiccionarioParcheado.sobre(b).aplicar(p);
+        if (p.getIgnoradas() > 0) {
+            System.err.println("[Diccionario] " + parche.getFileName() + ": " + p.getIgnoradas() + " líneas ignoradas");
+        }
+        return d.getNumCambios() == 0 ? b : d;
+    }
+
+    private void bucle(WatchService ws) {
+        Path nombreBase = fichero.getFileName(), nombreParche = parche.getFileName();
+        try {
+            while (true) {
+                // cambios[0]: la base; cambios[1]: el parche
+                boolean[] cambios = new boolean[2];
+                anotarCambios(ws.take(), nombreBase, nombreParche, cambios);
+                if (!cambios[0] && !cambios[1]) continue;
+                // Agrupa la ráfaga de avisos de un mismo guardado en una sola recarga
+                WatchKey k;
+                while ((k = ws.poll(ESPERA_ESTABLE_MS, TimeUnit.MILLISECONDS)) != null) {
+                    anotarCambios(k, nombreBase, nombreParche, cambios);
+                }
+                if (cambios[0] && Files.isRegularFile(fichero) && !escritoAlCompactar()) recargar();
+                else if (cambios[1]) recargarParche();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // cerrado: termina el hilo
+        }
+    }
+
+    private synchronized boolean escritoAlCompactar() {
+        try {
+            return baseEscrita != null && baseEscrita.equals(Files.getLastModifiedTime(fichero));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void anotarCambios(WatchKey k, Path base, Path parche, boolean[] cambios) {
+        for (WatchEvent<?> e : k.pollEvents()) {
+            if (e.kind() == StandardWatchEventKinds.OVERFLOW) cambios[0] = cambios[1] = true;
+            else if (base.equals(e.context())) cambios[0] = true;
+            else if (parche.equals(e.context())) cambios[1] = true;
+        }
+        k.reset();
+    }
+
+    private static String sinExtension(String nombre) {
+        int punto = nombre.lastIndexOf('.');
+        return punto > 0 ? nombre.substring(0, punto) : nombre;
+    }
+
+    private static Path ficheroDelRecurso(String recurso) throws IOException {
+        URL url = GestorDiccionario.class.getClassLoader().getResource(recurso);
+        if (url == null) throw new FileNotFoundException("No se encontró el recurso en el classpath: " + recurso);
+        if (!"file".equals(url.getProtocol())) return null;
+        try {
+            return Paths.get(url.toURI());
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+}
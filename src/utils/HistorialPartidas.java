@@ -0,0 +1,346 @@
+package utils;
+
+import logic.RegistroPartida;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * Historial de partidas: log de solo-anexado particionado por mes.
+ *
+ * Cada mes es un segmento "historial-AAAA-MM.dat" con registros binarios:
+ *   [long marcaTiempo][int puntos][int numPalabras][UTF nombre][UTF claveTablero]
+ * y un índice disperso "historial-AAAA-MM.idx" con una entrada cada INTERVALO_INDICE registros:
+ *   [long marcaTiempo][long offset][int ordinal]
+ *
+ * Las consultas por rango de tiempo solo abren los segmentos que se solapan con el rango y,
+ * dentro de cada uno, saltan con el índice al primer bloque que puede contener registros.
+ * Dentro de un segmento las marcas de tiempo son no decrecientes (se fuerza al escribir).
+ *
+ * Antes de anexar por primera vez a un segmento se comprueba su cola: si un cierre abrupto dejó un
+ * registro a medias, el .dat se trunca al final del último registro completo (y el índice a sus
+ * entradas completas que apuntan antes de ese final), para que lo anexado después siga siendo
+ * legible en los recorridos secuenciales.
+ */
+public class HistorialPartidas {
+
+    public static final int INTERVALO_INDICE = 64;
+    private static final int TAM_ENTRADA_INDICE = 8 + 8 + 4;
+    private static final DateTimeFormatter FORMATO_SEGMENTO = DateTimeFormatter.ofPattern("yyyy-MM");
+
+    private final File directorio;
+    private final ZoneId zona;
+
+    // Estado de cola de cada segmento ya visitado para anexar sin reescanear
+    private final Map<YearMonth, EstadoSegmento> estados = new HashMap<>();
+
+    private static final class EstadoSegmento {
+        int registros;
+        long ultimaMarca;
+    }
+
+    public HistorialPartidas(File directorio) {
+        this(directorio, ZoneId.systemDefault());
+    }
+
+    public HistorialPartidas(File directorio, ZoneId zona) {
+        if (directorio == null) throw new IllegalArgumentException("El directorio no puede ser null");
+        this.directorio = directorio;
+        this.zona = zona;
+        if (!directorio.exists()) directorio.mkdirs();
+    }
+
+    // ---------------------------------------------------------------------------------
+    // Escritura
+    // ---------------------------------------------------------------------------------
+
+    public synchronized void registrar(RegistroPartida r) throws IOException {
+        YearMonth mes = mesDe(r.marcaTiempo);
+        File dat = ficheroDatos(mes);
+        EstadoSegmento estado = estadoDe(mes);
+
+        // Mantiene el segmento ordenado aunque el reloj retroceda
+        long marca = Math.max(r.marcaTiempo, estado.ultimaMarca);
+        long offset = dat.length();
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(dat, true)))) {
+            out.writeLong(marca);
+            out.writeInt(r.puntos);
+            out.writeInt(r.numPalabras);
+            out.writeUTF(r.nombreJugador);
+            out.writeUTF(r.claveTablero);
+        }
+
+        if (estado.registros % INTERVALO_INDICE == 0) {
+            try (DataOutputStream idx = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(ficheroIndice(mes), true)))) {
+                idx.writeLong(marca);
+                idx.writeLong(offset);
+                idx.writeInt(estado.registros);
+            }
+        }
+        estado.registros++;
+        estado.ultimaMarca = marca;
+    }
+
+    // ---------------------------------------------------------------------------------
+    // Consultas
+    // ---------------------------------------------------------------------------------
+
+    /**
+     * Recorre en orden cronológico los registros con desde <= marcaTiempo <= hasta.
+     * Solo lee los segmentos del rango y, en cada uno, a partir del bloque indicado por el índice.
+     */
+    public synchronized void consultar(long desde, long hasta, Consumer<RegistroPartida> visitor) throws IOException {
+        if (desde > hasta) return;
+        YearMonth primero = mesDe(desde);
+        YearMonth ultimo = mesDe(hasta);
+        for (YearMonth mes : segmentosExistentes()) {
+            if (mes.isBefore(primero) || mes.isAfter(ultimo)) continue;
+            consultarSegmento(mes, desde, hasta, visitor);
+        }
+    }
+
+    public List<RegistroPartida> consultar(long desde, long hasta) throws IOException {
+        List<RegistroPartida> res = new ArrayList<>();
+        consultar(desde, hasta, res::add);
+        return res;
+    }
+
+    // Historial de un jugador en el rango (orden cronológico)
+    public List<RegistroPartida> historialJugador(String nombre, long desde, long hasta) throws IOException {
+        List<RegistroPartida> res = new ArrayList<>();
+        consultar(desde, hasta, r -> {
+            if (r.nombreJugador.equals(nombre)) res.add(r);
+        });
+        return res;
+    }
+
+    // Mejores partidas individuales del rango, de mayor a menor puntuación (empate: la más reciente primero)
+    public List<RegistroPartida> mejoresPartidas(long desde, long hasta, int limite) throws IOException {
+        if (limite <= 0) return new ArrayList<>();
+        Comparator<RegistroPartida> orden = Comparator
+                .comparingInt((RegistroPartida r) -> r.puntos)
+                .thenComparingLong(r -> r.marcaTiempo);
+        PriorityQueue<RegistroPartida> top = new PriorityQueue<>(limite + 1, orden);
+        consultar(desde, hasta, r -> {
+            top.add(r);
+            if (top.size() > limite) top.poll();
+        });
+        List<RegistroPartida> res = new ArrayList<>(top);
+        res.sort(orden.reversed());
+        return res;
+    }
+
+    public List<RegistroPartida> mejoresPartidasSemana(int limite) throws IOException {
+        LocalDate hoy = LocalDate.now(zona);
+        LocalDate lunes = hoy.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        return mejoresPartidas(inicioDia(lunes), System.currentTimeMillis(), limite);
+    }
+
+    public List<RegistroPartida> mejoresPartidasMes(int limite) throws IOException {
+        LocalDate primero = LocalDate.now(zona).withDayOfMonth(1);
+        return mejoresPartidas(inicioDia(primero), System.currentTimeMillis(), limite);
+    }
+
+    // ---------------------------------------------------------------------------------
+    // Internos
+    // ---------------------------------------------------------------------------------
+
+    private void consultarSegmento(YearMonth mes, long desde, long hasta, Consumer<RegistroPartida> visitor) throws IOException {
+        File dat = ficheroDatos(mes);
+        if (!dat.exists() || dat.length() == 0) return;
+
+        long inicio = offsetInicial(mes, desde);
+        try (FileInputStream fis = new FileInputStream(dat)) {
+            fis.getChannel().position(inicio);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(fis));
+            while (true) {
+                RegistroPartida r = leerRegistro(in);
+                if (r == null || r.marcaTiempo > hasta) break;
+                if (r.marcaTiempo >= desde) visitor.accept(r);
+            }
+        }
+    }
+
+    // Offset de la última entrada del índice con marca < desde (o 0 si no hay)
+    private long offsetInicial(YearMonth mes, long desde) throws IOException {
+        File idx = ficheroIndice(mes);
+        if (!idx.exists()) return 0L;
+        try (RandomAccessFile raf = new RandomAccessFile(idx, "r")) {
+            long entradas = raf.length() / TAM_ENTRADA_INDICE;
+            long lo = 0, hi = entradas - 1, encontrado = -1;
+            while (lo <= hi) {
+                long mid = (lo + hi) >>> 1;
+                raf.seek(mid * TAM_ENTRADA_INDICE);
+                long marca = raf.readLong();
+                if (marca < desde) {
+                    encontrado = mid;
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            if (encontrado < 0) return 0L;
+            raf.seek(encontrado * TAM_ENTRADA_INDICE + 8);
+            return raf.readLong();
+        }
+    }
+
+    private EstadoSegmento estadoDe(YearMonth mes) throws IOException {
+        EstadoSegmento e = estados.get(mes);
+        if (e != null) return e;
+
+        e = new EstadoSegmento();
+        File dat = ficheroDatos(mes);
+        if (dat.exists() && dat.length() > 0) {
+            File idx = ficheroIndice(mes);
+            try (RandomAccessFile datos = new RandomAccessFile(dat, "rw");
+                 RandomAccessFile indice = idx.exists() ? new RandomAccessFile(idx, "rw") : null) {
+                // Entradas completas del índice que apuntan dentro del .dat
+                long entradas = indice == null ? 0 : indice.length() / TAM_ENTRADA_INDICE;
+                long offset = 0L;
+                int ordinal = 0;
+                while (entradas > 0) {
+                    indice.seek((entradas - 1) * TAM_ENTRADA_INDICE + 8);
+                    offset = indice.readLong();
+                    ordinal = indice.readInt();
+                    if (offset < datos.length()) break;
+                    entradas--;
+                    offset = 0L;
+                    ordinal = 0;
+                }
+
+                // Parte de la última entrada del índice y cuenta como mucho INTERVALO_INDICE registros
+                long fin = offset;
+                try (FileInputStream fis = new FileInputStream(dat)) {
+                    fis.getChannel().position(offset);
+                    ContadorBytes contador = new ContadorBytes(new BufferedInputStream(fis));
+                    DataInputStream in = new DataInputStream(contador);
+                    RegistroPartida r;
+                    while ((r = leerRegistro(in)) != null) {
+                        ordinal++;
+                        e.ultimaMarca = r.marcaTiempo;
+                        fin = offset + contador.leidos;
+                    }
+                }
+                e.registros = ordinal;
+
+                // Cola de un registro a medias: fuera, para no anexar detrás de ella
+                if (fin < datos.length()) {
+                    System.err.printf("[Historial] %s: se descartan %d bytes de un registro incompleto%n",
+                            dat.getName(), datos.length() - fin);
+                    datos.setLength(fin);
+                }
+                if (indice != null && indice.length() != entradas * TAM_ENTRADA_INDICE) {
+                    indice.setLength(entradas * TAM_ENTRADA_INDICE);
+                }
+            }
+        }
+        estados.put(mes, e);
+        return e;
+    }
+
+    // Bytes consumidos por el DataInputStream (el buffer lee por delante, así que se cuenta encima)
+    private static final class ContadorBytes extends FilterInputStream {
+        long leidos;
+
+        ContadorBytes(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) leidos++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) leidos += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long s = super.skip(n);
+            leidos += s;
+            return s;
+        }
+    }
+
+    private static RegistroPartida leerRegistro(DataInputStream in) throws IOException {
+        try {
+            long marca = in.readLong();
+            int puntos = in.readInt();
+            int palabras = in.readInt();
+            String nombre = in.readUTF();
+            String clave = in.readUTF();
+            return new RegistroPartida(nombre, marca, puntos, palabras, clave);
+        } catch (EOFException eof) {
+            // fin de segmento (o registro truncado por un cierre abrupto): se ignora la cola
+            return null;
+        }
+    }
+
+    // Meses con segmento en disco, en orden cronológico
+    private List<YearMonth> segmentosExistentes() {
+        List<YearMonth> meses = new ArrayList<>();
+        String[] nombres = directorio.list();
+        if (nombres == null) return meses;
+        for (String n : nombres) {
+            if (!n.startsWith("historial-") || !n.endsWith(".dat")) continue;
+            try {
+                meses.add(YearMonth.parse(n.substring("historial-".length(), n.length() - ".dat".length()), FORMATO_SEGMENTO));
+            } catch (DateTimeParseException ignored) {
+                // fichero ajeno al historial
+            }
+        }
+        meses.sort(Comparator.naturalOrder());
+        return meses;
+    }
+
+    private YearMonth mesDe(long millis) {
+        return YearMonth.from(Instant.ofEpochMilli(millis).atZone(zona));
+    }
+
+    private long inicioDia(LocalDate d) {
+        return d.atStartOfDay(zona).toInstant().toEpochMilli();
+    }
+
+    private File ficheroDatos(YearMonth mes) {
+        return new File(directorio, "historial-" + FORMATO_SEGMENTO.format(mes) + ".dat");
+    }
+
+    private File ficheroIndice(YearMonth mes) {
+        return new File(directorio, "historial-" + FORMATO_SEGMENTO.format(mes) + ".idx");
+    }
+}
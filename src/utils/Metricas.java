@@ -0,0 +1,240 @@
+package utils;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas del proceso: contadores y histogramas de latencia de las operaciones calientes
+ * (validación, solver, carga del diccionario, fichero de jugadores...).
+ *
+ * Activación (propiedades de sistema, leídas una sola vez al cargar la clase):
+ *   -Dboggle.metricas=true                 registra sin exportar (consultable con volcar())
+ *   -Dboggle.metricas.fichero=ruta         vuelca cada boggle.metricas.intervalo segundos (10) y al salir
+ *   -Dboggle.metricas.puerto=9464          sirve GET http://127.0.0.1:puerto/metricas
+ * Indicar fichero o puerto ya las activa.
+ *
+ * Con las métricas desactivadas ACTIVAS es una constante false: el JIT elimina las ramas que la
+ * comprueban y el coste en las rutas calientes es nulo (ni siquiera se llama a System.nanoTime()).
+ * Uso típico:
+ *
+ *   private static final Metricas.Histograma H = Metricas.histograma("validador.validar");
+ *   long t0 = Metricas.inicio();
+ *   ...
+ *   H.registrarDesde(t0);
+ *
+ * Los histogramas son de tipo HDR: cubos log-lineales (32 por cada potencia de dos), así que
+ * cualquier valor de nanosegundos a horas se guarda con un error relativo inferior al 3 % en una
+ * tabla fija, sin reservar memoria al registrar. El volcado sigue el formato de texto de Prometheus.
+ */
+public final class Metricas {
+
+    private static final String FICHERO = System.getProperty("boggle.metricas.fichero");
+    private static final Integer PUERTO = Integer.getInteger("boggle.metricas.puerto");
+    private static final long INTERVALO_S = Long.getLong("boggle.metricas.intervalo", 10L);
+
+    public static final boolean ACTIVAS = Boolean.getBoolean("boggle.metricas") || FICHERO != null || PUERTO != null;
+
+    private static final Map<String, Contador> CONTADORES = new ConcurrentHashMap<>();
+    private static final Map<String, Histograma> HISTOGRAMAS = new ConcurrentHashMap<>();
+    private static final double[] CUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private static boolean exportando;
+
+    private Metricas() {}
+
+    public static Contador contador(String nombre) {
+        return CONTADORES.computeIfAbsent(nombre, k -> new Contador());
+    }
+
+    // Histograma de duraciones en nanosegundos
+    public static Histograma histograma(String nombre) {
+        return HISTOGRAMAS.computeIfAbsent(nombre, k -> new Histograma());
+    }
+
+    // Marca de inicio para registrarDesde (0 si están desactivadas)
+    public static long inicio() {
+        return ACTIVAS ? System.nanoTime() : 0L;
+    }
+
+    public static final class Contador {
+        private final LongAdder valor = new LongAdder();
+
+        private Contador() {}
+
+        public void incrementar() {
+            if (ACTIVAS) valor.increment();
+        }
+
+        public void sumar(long n) {
+            if (ACTIVAS) valor.add(n);
+        }
+
+        public long valor() {
+            return valor.sum();
+        }
+    }
+
+    public static final class Histograma {
+        private static final int BITS_SUB = 5;
+        private static final int SUB = 1 << BITS_SUB; // cubos por potencia de dos
+        private static final int NUM_CUBOS = (64 - BITS_SUB) * SUB;
+
+        private final AtomicLongArray cubos = new AtomicLongArray(NUM_CUBOS);
+        private final LongAdder cuenta = new LongAdder();
+        private final LongAdder suma = new LongAdder();
+        private final AtomicLong maximo = new AtomicLong();
+
+        private Histograma() {}
+
+        public void registrarDesde(long inicioNanos) {
+            if (ACTIVAS) registrar(System.nanoTime() - inicioNanos);
+        }
+
+        public void registrar(long valor) {
+            if (!ACTIVAS) return;
+            long v = Math.max(0, valor);
+            cubos.incrementAndGet(cubo(v));
+            cuenta.increment();
+            suma.add(v);
+            long max;
+            while (v > (max = maximo.get())) {
+                if (maximo.compareAndSet(max, v)) break;
+            }
+        }
+
+        public long cuenta() {
+            return cuenta.sum();
+        }
+
+        public long maximo() {
+            return maximo.get();
+        }
+
+        // Valor por debajo del cual queda la fracción q de las muestras (cota superior de su cubo)
+        public long cuantil(double q) {
+            long total = cuenta.sum();
+            if (total == 0) return 0;
+            long objetivo = Math.max(1, (long) Math.ceil(q * total));
+            long acumulado = 0;
+            for (int i = 0; i < NUM_CUBOS; i++) {
+                acumulado += cubos.get(i);
+                if (acumulado >= objetivo) return Math.min(techo(i), maximo.get());
+            }
+            return maximo.get();
+        }
+
+        // Los valores < SUB tienen cubo propio; a partir de ahí, SUB cubos por cada potencia de dos
+        static int cubo(long v) {
+            if (v < SUB) return (int) v;
+            int k = 63 - Long.numberOfLeadingZeros(v);
+            return (k - BITS_SUB + 1) * SUB + (int) ((v >>> (k - BITS_SUB)) & (SUB - 1));
+        }
+
+        static long techo(int cubo) {
+            if (cubo < SUB) return cubo;
+            int k = cubo / SUB + BITS_SUB - 1;
+            long base = (long) (SUB + cubo % SUB) << (k - BITS_SUB);
+            return base + (1L << (k - BITS_SUB)) - 1;
+        }
+    }
+
+    // ---------------------------------------------------------------------------------
+    // Exportación
+    // ---------------------------------------------------------------------------------
+
+    /**
+     * Arranca el volcado periódico a fichero y/o el endpoint HTTP según las propiedades.
+     * Sin métricas activas no hace nada. Llamar una vez desde main.
+     */
+    public static synchronized void iniciarExportacion() {
+        if (!ACTIVAS || exportando) return;
+        exportando = true;
+        ScheduledExecutorService hilo = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Metricas");
+            t.setDaemon(true);
+            return t;
+        });
+        if (FICHERO != null) {
+            File f = new File(FICHERO);
+            hilo.scheduleWithFixedDelay(() -> volcarA(f), INTERVALO_S, INTERVALO_S, TimeUnit.SECONDS);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> volcarA(f), "Metricas-final"));
+        }
+        if (PUERTO != null) {
+            // Arrancado desde el hilo daemon: el despachador del servidor hereda esa condición y no
+            // impide que la JVM termine
+            hilo.execute(() -> {
+                try {
+                    HttpServer srv = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), PUERTO), 0);
+                    srv.createContext("/metricas", ex -> {
+                        byte[] cuerpo = volcar().getBytes(StandardCharsets.UTF_8);
+                        ex.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                        ex.sendResponseHeaders(200, cuerpo.length);
+                        try (OutputStream os = ex.getResponseBody()) {
+                            os.write(cuerpo);
+                        }
+                    });
+                    srv.start();
+                    System.err.println("[Metricas] Sirviendo en http://127.0.0.1:" + PUERTO + "/metricas");
+                } catch (IOException e) {
+                    System.err.println("[Metricas] No se pudo abrir el puerto " + PUERTO + ": " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    // Escribe a un temporal y lo mueve encima: quien lea el fichero nunca ve un volcado a medias
+    private static void volcarA(File f) {
+        try {
+            File tmp = new File(f.getAbsoluteFile().getParentFile(), f.getName() + ".tmp");
+            Files.write(tmp.toPath(), volcar().getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("[Metricas] No se pudo volcar a " + f + ": " + e.getMessage());
+        }
+    }
+
+    // Todas las métricas en formato de texto de Prometheus (orden alfabético)
+    public static String volcar() {
+        StringWriter sb = new StringWriter();
+        for (Map.Entry<String, Contador> e : new TreeMap<>(CONTADORES).entrySet()) {
+            String n = nombreExportado(e.getKey());
+            sb.append("# TYPE ").append(n).append(" counter\n");
+            sb.append(n).append(' ').append(Long.toString(e.getValue().valor())).append('\n');
+        }
+        for (Map.Entry<String, Histograma> e : new TreeMap<>(HISTOGRAMAS).entrySet()) {
+            String n = nombreExportado(e.getKey()) + "_ns";
+            Histograma h = e.getValue();
+            sb.append("# TYPE ").append(n).append(" summary\n");
+            for (double q : CUANTILES) {
+                sb.append(n).append("{quantile=\"").append(Double.toString(q)).append("\"} ")
+                        .append(Long.toString(h.cuantil(q))).append('\n');
+            }
+            sb.append(n).append("_max ").append(Long.toString(h.maximo())).append('\n');
+            sb.append(n).append("_sum ").append(Long.toString(h.suma.sum())).append('\n');
+            sb.append(n).append("_count ").append(Long.toString(h.cuenta())).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static String nombreExportado(String nombre) {
+        return "boggle_" + nombre.replaceAll("[^A-Za-z0-9_]", "_");
+    }
+}
@@ -0,0 +1,116 @@
+package utils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Parche del diccionario: palabras que se añaden y que se quitan respecto a una base, para
+ * cambiar unas pocas palabras sin volver a leer y filtrar el fichero completo.
+ *
+ * Formato de texto (UTF-8), una palabra por línea, ordenadas alfabéticamente:
+ *   # comentario
+ *   +palabra      se añade
+ *   -palabra      se quita
+ *
+ * Las palabras se normalizan como en la carga del diccionario (DictionaryLoader.normalizeWord);
+ * las que la carga descartaría se ignoran. Si una palabra aparece varias veces, manda la última.
+ */
+public final class ParcheDiccionario {
+
+    public static final ParcheDiccionario VACIO = new ParcheDiccionario(new String[0], new String[0], 0);
+
+    private final String[] altas; // ordenadas, sin repetir
+    private final String[] bajas; // ordenadas, sin repetir, disjuntas con altas
+    private final int ignoradas;
+
+    private ParcheDiccionario(String[] altas, String[] bajas, int ignoradas) {
+        this.altas = altas;
+        this.bajas = bajas;
+        this.ignoradas = ignoradas;
+    }
+
+    public static ParcheDiccionario de(Collection<String> altas, Collection<String> bajas) {
+        TreeMap<String, Boolean> cambios = new TreeMap<>();
+        int ignoradas = 0;
+        for (String w : bajas) ignoradas += anotar(cambios, w, false) ? 0 : 1;
+        for (String w : altas) ignoradas += anotar(cambios, w, true) ? 0 : 1;
+        return crear(cambios, ignoradas);
+    }
+
+    public static ParcheDiccionario leer(Path fichero) throws IOException {
+        TreeMap<String, Boolean> cambios = new TreeMap<>();
+        int ignoradas = 0, numLinea = 0;
+        try (BufferedReader br = Files.newBufferedReader(fichero, StandardCharsets.UTF_8)) {
+            String linea;
+            while ((linea = br.readLine()) != null) {
+                numLinea++;
+                linea = linea.trim();
+                if (linea.isEmpty() || linea.charAt(0) == '#') continue;
+                char op = linea.charAt(0);
+                if (op != '+' && op != '-') {
+                    throw new IOException(fichero.getFileName() + ":" + numLinea + ": se esperaba '+' o '-' y no '" + op + "'");
+                }
+                if (!anotar(cambios, linea.substring(1), op == '+')) ignoradas++;
+            }
+        }
+        return crear(cambios, ignoradas);
+    }
+
+    // Escribe a un temporal y lo mueve encima, para que el vigilante nunca lea un parche a medias
+    public void escribir(Path fichero) throws IOException {
+        Path tmp = fichero.resolveSibling(fichero.getFileName() + ".tmp");
+        TreeMap<String, Boolean> cambios = new TreeMap<>();
+        for (String w : altas) cambios.put(w, true);
+        for (String w : bajas) cambios.put(w, false);
+        try (BufferedWriter bw = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Boolean> e : cambios.entrySet()) {
+                bw.write(e.getValue() ? '+' : '-');
+                bw.write(e.getKey());
+                bw.newLine();
+            }
+        }
+        Files.move(tmp, fichero, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public List<String> getAltas() {
+        return Collections.unmodifiableList(Arrays.asList(altas));
+    }
+
+    public List<String> getBajas() {
+        return Collections.unmodifiableList(Arrays.asList(bajas));
+    }
+
+    // Líneas descartadas por la normalización (vacías, nombres propios, muy cortas...)
+    public int getIgnoradas() {
+        return ignoradas;
+    }
+
+    public int tamano() {
+        return altas.length + bajas.length;
+    }
+
+    private static boolean anotar(TreeMap<String, Boolean> cambios, String palabra, boolean alta) {
+        String w = DictionaryLoader.normalizeWord(palabra);
+        if (w == null) return false;
+        cambios.put(w, alta);
+        return true;
+    }
+
+    private static ParcheDiccionario crear(TreeMap<String, Boolean> cambios, int ignoradas) {
+        List<String> altas = new ArrayList<>(), bajas = new ArrayList<>();
+        cambios.forEach((w, alta) -> (alta ? altas : bajas).add(w));
+        return new ParcheDiccionario(altas.toArray(new String[0]), bajas.toArray(new String[0]), ignoradas);
+    }
+}
@@ -0,0 +1,312 @@
+package utils;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import logic.Dictionary;
+import logic.Jugador;
+import logic.Partida;
+import logic.TableroPreparado;
+import logic.TrieDictionary;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Prueba de carga sin interfaz: muchos jugadores simultáneos, cada uno con sus propias partidas,
+ * sobre un único DiccionarioCongelado compartido.
+ *
+ * Uso:
+ *   java -cp ... utils.PruebaCargaPartidas [jugadores] [--partidas K] [--envios M] [--pausa-ms P]
+ *        [--hilos N] [--particiones N] [--datos carpeta]
+ *
+ * - Cada jugador simulado (por defecto 1000) juega K partidas (3) de M envíos (40). Los envíos imitan
+ *   a una persona: sobre todo soluciones del tablero, pero también repetidas, con erratas, con tildes
+ *   y mayúsculas o demasiado cortas. Entre envío y envío "piensa" un tiempo exponencial de media P ms
+ *   (0 = sin pausa, máxima presión).
+ * - Al terminar cada partida guarda el resultado en el almacén de jugadores: el fichero único de
+ *   TrabajarFichero, o uno particionado con --particiones. Sin --datos se usa una carpeta temporal
+ *   que se borra al final.
+ * - Hilos: si la JVM tiene hilos virtuales (Java 21+) cada jugador va en uno propio; si no, o con
+ *   --hilos N, en un pool de N hilos de plataforma (por defecto min(jugadores, 256)).
+ * - Informa del rendimiento (partidas/s, envíos/s), de los percentiles p50/p99/p999 de cada
+ *   operación y de las pausas de GC. Las latencias usan los histogramas de Metricas, que se activan
+ *   siempre para esta prueba (así también se pueden exportar con -Dboggle.metricas.puerto).
+ */
+public final class PruebaCargaPartidas {
+
+    private static final String RUTA_DICCIONARIO = "game_files/diccionario.txt";
+    private static final long PROGRESO_MS = 5_000;
+
+    private final int jugadores;
+    private final int partidas;
+    private final int envios;
+    private final long pausaMs;
+    private final Dictionary dict;
+    private final AlmacenJugadores almacen;
+
+    private final Metricas.Histograma hCrear = Metricas.histograma("carga.crearPartida");
+    private final Metricas.Histograma hEnviar = Metricas.histograma("carga.enviarPalabra");
+    private final Metricas.Histograma hGuardar = Metricas.histograma("carga.guardarResultado");
+    private final Metricas.Histograma hGc = Metricas.histograma("carga.pausaGc");
+    private final LongAdder[] porEstado = new LongAdder[Partida.EstadoValidacionPalabra.values().length];
+    private final LongAdder partidasTerminadas = new LongAdder();
+    private final LongAdder enviosHechos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private long msGcPrevios; // pausas de antes de la prueba (carga del diccionario), que no se cuentan
+
+    private PruebaCargaPartidas(int jugadores, int partidas, int envios, long pausaMs, Dictionary dict, AlmacenJugadores almacen) {
+        this.jugadores = jugadores;
+        this.partidas = partidas;
+        this.envios = envios;
+        this.pausaMs = pausaMs;
+        this.dict = dict;
+        this.almacen = almacen;
+        for (int i = 0; i < porEstado.length; i++) porEstado[i] = new LongAdder();
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Antes de que se cargue Metricas: ACTIVAS se lee una sola vez
+        if (System.getProperty("boggle.metricas") == null) System.setProperty("boggle.metricas", "true");
+
+        int jugadores = 1000, partidas = 3, envios = 40, hilos = 0, particiones = 0;
+        long pausaMs = 0;
+        String datos = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--partidas": partidas = Integer.parseInt(args[++i]); break;
+                case "--envios": envios = Integer.parseInt(args[++i]); break;
+                case "--pausa-ms": pausaMs = Long.parseLong(args[++i]); break;
+                case "--hilos": hilos = Integer.parseInt(args[++i]); break;
+                case "--particiones": particiones = Integer.parseInt(args[++i]); break;
+                case "--datos": datos = args[++i]; break;
+                default: jugadores = Integer.parseInt(args[i]);
+            }
+        }
+        Metricas.iniciarExportacion();
+
+        File dir = datos != null ? new File(datos) : Files.createTempDirectory("boggle-carga").toFile();
+        if (!dir.exists() && !dir.mkdirs()) throw new IOException("No se pudo crear " + dir);
+        AlmacenJugadores almacen = particiones > 0
+                ? AlmacenParticionado.crear(new File(dir, AlmacenParticionado.DIRECTORIO), particiones)
+                : AlmacenJugadores.abrir(dir);
+
+        long t0 = System.nanoTime();
+        TrieDictionary trie = new TrieDictionary();
+        DictionaryLoader.loadIntoDictionary(RUTA_DICCIONARIO, trie);
+        Dictionary dict = trie.freeze();
+        System.err.printf("[Carga] Diccionario listo en %d ms%n", (System.nanoTime() - t0) / 1_000_000L);
+
+        PruebaCargaPartidas prueba = new PruebaCargaPartidas(jugadores, partidas, envios, pausaMs, dict, almacen);
+        try {
+            prueba.ejecutar(hilos);
+        } finally {
+            if (almacen instanceof Closeable) ((Closeable) almacen).close();
+            if (datos == null) borrar(dir.toPath());
+        }
+    }
+
+    private void ejecutar(int hilos) throws InterruptedException {
+        escucharGc();
+        ExecutorService ejecutor = hilos > 0 ? null : hilosVirtuales();
+        String modo = "virtuales";
+        if (ejecutor == null) {
+            int n = hilos > 0 ? hilos : Math.min(jugadores, 256);
+            AtomicInteger k = new AtomicInteger();
+            ejecutor = Executors.newFixedThreadPool(n, r -> {
+                Thread t = new Thread(r, "Jugador-" + k.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+            modo = n + " de plataforma";
+        }
+        System.err.printf("[Carga] %d jugadores x %d partidas x %d envíos | pausa media %d ms | hilos %s | almacén %s%n",
+                jugadores, partidas, envios, pausaMs, modo, almacen.getUbicacion());
+
+        long inicio = System.nanoTime();
+        for (int i = 0; i < jugadores; i++) {
+            int id = i;
+            ejecutor.execute(() -> {
+                try {
+                    jugar(id);
+                } catch (Exception e) {
+                    fallos.increment();
+                    System.err.println("[Carga] Jugador " + id + " falló: " + e);
+                }
+            });
+        }
+        ejecutor.shutdown();
+        while (!ejecutor.awaitTermination(PROGRESO_MS, TimeUnit.MILLISECONDS)) {
+            double s = (System.nanoTime() - inicio) / 1e9;
+            System.err.printf("[Carga] %.0f s | partidas=%d | envíos=%d (%.0f/s)%n",
+                    s, partidasTerminadas.sum(), enviosHechos.sum(), enviosHechos.sum() / s);
+        }
+        informar((System.nanoTime() - inicio) / 1e9);
+    }
+
+    // ---------------------------------------------------------------------------------
+    // Jugador simulado
+    // ---------------------------------------------------------------------------------
+
+    private void jugar(int id) throws IOException, InterruptedException {
+        Random rnd = ThreadLocalRandom.current();
+        String nombre = "carga-" + id;
+        for (int g = 0; g < partidas; g++) {
+            long t0 = System.nanoTime();
+            Partida p = new Partida(nombre, TableroPreparado.preparar(null, dict));
+            hCrear.registrarDesde(t0);
+            p.iniciar();
+
+            List<String> soluciones = p.getSoluciones().palabras();
+            List<String> aceptadas = new ArrayList<>();
+            for (int k = 0; k < envios; k++) {
+                pensar(rnd);
+                String envio = siguienteEnvio(rnd, soluciones, aceptadas);
+                long t1 = System.nanoTime();
+                Partida.ResultadoEnvio r = p.enviarPalabra(envio);
+                hEnviar.registrarDesde(t1);
+                porEstado[r.estado.ordinal()].increment();
+                enviosHechos.increment();
+                if (r.estado == Partida.EstadoValidacionPalabra.OK) aceptadas.add(r.normalizada);
+            }
+            p.finalizar();
+
+            long t2 = System.nanoTime();
+            guardar(nombre, p.getPuntosTotales());
+            hGuardar.registrarDesde(t2);
+            partidasTerminadas.increment();
+        }
+    }
+
+    private void pensar(Random rnd) throws InterruptedException {
+        if (pausaMs <= 0) return;
+        Thread.sleep((long) (-Math.log(1.0 - rnd.nextDouble()) * pausaMs));
+    }
+
+    // Mezcla de envíos de una persona: aciertos, repetidas, erratas, tildes/mayúsculas y cortas
+    private static String siguienteEnvio(Random rnd, List<String> soluciones, List<String> aceptadas) {
+        int tirada = rnd.nextInt(100);
+        if (tirada < 15 && !aceptadas.isEmpty()) return aceptadas.get(rnd.nextInt(aceptadas.size()));
+        if (soluciones.isEmpty() || tirada >= 95) {
+            return "" + (char) ('a' + rnd.nextInt(26)) + (char) ('a' + rnd.nextInt(26));
+        }
+        String w = soluciones.get(rnd.nextInt(soluciones.size()));
+        if (tirada < 70) return w;
+        if (tirada < 85) { // errata: una letra cambiada
+            char[] c = w.toCharArray();
+            c[rnd.nextInt(c.length)] = (char) ('a' + rnd.nextInt(26));
+            return new String(c);
+        }
+        return w.toUpperCase(Locale.ROOT).replace('A', 'Á').replace('E', 'É');
+    }
+
+    private void guardar(String nombre, int puntos) throws IOException {
+        Jugador j = almacen.buscar(nombre);
+        if (j == null) {
+            almacen.agregarSiNoExiste(new Jugador(nombre));
+            j = almacen.buscar(nombre);
+        }
+        j.actualizarUltimaPartida(puntos);
+        almacen.actualizar(j);
+    }
+
+    // ---------------------------------------------------------------------------------
+    // Hilos, GC e informe
+    // ---------------------------------------------------------------------------------
+
+    // Executors.newVirtualThreadPerTaskExecutor() por reflexión (Java 21+); null si no existe
+    private static ExecutorService hilosVirtuales() {
+        try {
+            Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) m.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    // Cada recolección notifica su duración (ms): las que paran la aplicación van al histograma de pausas
+    private void escucharGc() {
+        msGcPrevios = msEnPausasGc();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!(gc instanceof NotificationEmitter) || !esPausa(gc.getName(), "")) continue;
+            ((NotificationEmitter) gc).addNotificationListener((n, h) -> {
+                if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(n.getType())) return;
+                GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) n.getUserData());
+                if (!esPausa(info.getGcName(), info.getGcAction())) return;
+                hGc.registrar(TimeUnit.MILLISECONDS.toNanos(info.getGcInfo().getDuration()));
+            }, null, null);
+        }
+    }
+
+    // Los colectores concurrentes notifican también sus ciclos ("G1 Concurrent GC", "ZGC Cycles",
+    // "Shenandoah Cycles", ConcurrentMarkSweep), que duran mientras la aplicación sigue en marcha:
+    // no son pausas. Sus pausas van en otro colector ("ZGC Pauses", "G1 Young Generation"...)
+    private static long msEnPausasGc() {
+        long ms = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (esPausa(gc.getName(), "")) ms += Math.max(0, gc.getCollectionTime());
+        }
+        return ms;
+    }
+
+    private static boolean esPausa(String colector, String accion) {
+        String c = colector.toLowerCase(Locale.ROOT), a = accion.toLowerCase(Locale.ROOT);
+        return !c.contains("concurrent") && !c.endsWith("cycles") && !a.contains("concurrent");
+    }
+
+    private void informar(double segundos) {
+        long envs = enviosHechos.sum();
+        System.out.printf("%n== Prueba de carga: %d jugadores, %.1f s ==%n", jugadores, segundos);
+        System.out.printf("partidas=%d (%.1f/s) | envíos=%d (%.0f/s) | jugadores fallidos=%d%n",
+                partidasTerminadas.sum(), partidasTerminadas.sum() / segundos, envs, envs / segundos, fallos.sum());
+        StringBuilder estados = new StringBuilder("envíos por resultado:");
+        for (Partida.EstadoValidacionPalabra e : Partida.EstadoValidacionPalabra.values()) {
+            long n = porEstado[e.ordinal()].sum();
+            if (n > 0) estados.append(String.format(" %s=%.1f%%", e.name().toLowerCase(), 100.0 * n / Math.max(1, envs)));
+        }
+        System.out.println(estados);
+        System.out.printf("%-22s %10s %12s %12s %12s %12s%n", "operación", "n", "p50", "p99", "p999", "max");
+        fila("crear partida", hCrear);
+        fila("enviar palabra", hEnviar);
+        fila("guardar resultado", hGuardar);
+        fila("pausas de GC", hGc);
+        long totalGcMs = msEnPausasGc() - msGcPrevios;
+        System.out.printf("GC: %d pausas, %d ms en pausa (%.2f%% del tiempo)%n",
+                hGc.cuenta(), totalGcMs, 100.0 * totalGcMs / (segundos * 1000));
+    }
+
+    private static void fila(String nombre, Metricas.Histograma h) {
+        System.out.printf("%-22s %10d %12s %12s %12s %12s%n", nombre, h.cuenta(),
+                ms(h.cuantil(0.5)), ms(h.cuantil(0.99)), ms(h.cuantil(0.999)), ms(h.maximo()));
+    }
+
+    private static String ms(long nanos) {
+        return String.format("%.3f ms", nanos / 1e6);
+    }
+
+    private static void borrar(Path dir) {
+        try (Stream<Path> s = Files.walk(dir)) {
+            s.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        } catch (IOException e) {
+            System.err.println("[Carga] No se pudo borrar " + dir + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package utils;
+
+import logic.DiccionarioCongelado;
+import logic.Idioma;
+import logic.TableroPreparado;
+import logic.TrieDictionary;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro de idiomas para alojar partidas en varios idiomas en un mismo proceso.
+ *
+ * - Cada idioma registrado (Idioma) es solo su descripción; el paquete con el diccionario cargado
+ *   se construye la primera vez que se pide con obtener().
+ * - Los paquetes cargados se guardan en una LRU limitada por memoria (tamaño estimado de cada
+ *   diccionario congelado). Al pasarse del límite se expulsan los menos usados recientemente, pero
+ *   nunca el último pedido. Las partidas que ya usaban un paquete expulsado lo conservan hasta que
+ *   terminan; después el GC lo recoge, y si se vuelve a pedir se carga otra vez.
+ * - Varias peticiones simultáneas del mismo idioma esperan a una única carga.
+ *
+ * Límite: -Dboggle.idiomas.memoriaMb (por defecto MEMORIA_POR_DEFECTO_MB).
+ */
+public final class RegistroIdiomas {
+
+    public static final long MEMORIA_POR_DEFECTO_MB = 64;
+
+    private static final Metricas.Histograma H_CARGA = Metricas.histograma("idiomas.carga");
+    private static final Metricas.Contador C_ACIERTOS = Metricas.contador("idiomas.aciertos");
+    private static final Metricas.Contador C_CARGAS = Metricas.contador("idiomas.cargas");
+    private static final Metricas.Contador C_EXPULSIONES = Metricas.contador("idiomas.expulsiones");
+
+    /** Un idioma listo para jugar: su descripción y su diccionario cargado (inmutable). */
+    public static final class Paquete {
+        private final Idioma idioma;
+        private final DiccionarioCongelado diccionario;
+
+        private Paquete(Idioma idioma, DiccionarioCongelado diccionario) {
+            this.idioma = idioma;
+            this.diccionario = diccionario;
+        }
+
+        public Idioma getIdioma() {
+            return idioma;
+        }
+
+        public DiccionarioCongelado getDiccionario() {
+            return diccionario;
+        }
+
+        // Tablero aleatorio con las letras del idioma, listo para una Partida
+        public TableroPreparado preparar() {
+            return TableroPreparado.preparar(null, diccionario, idioma);
+        }
+    }
+
+    private final long memoriaMaxima;
+    private final Map<String, Idioma> idiomas = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Paquete>> cargando = new ConcurrentHashMap<>();
+    // Orden de acceso: el primero es el menos usado recientemente. Protegido por el monitor del registro.
+    private final LinkedHashMap<String, Paquete> residentes = new LinkedHashMap<>(8, 0.75f, true);
+    private long memoriaUsada;
+
+    public RegistroIdiomas(long memoriaMaximaBytes) {
+        if (memoriaMaximaBytes <= 0) throw new IllegalArgumentException("La memoria máxima debe ser positiva");
+        this.memoriaMaxima = memoriaMaximaBytes;
+    }
+
+    // Español, inglés y portugués, con el límite de memoria de boggle.idiomas.memoriaMb
+    public static RegistroIdiomas conIdiomasPorDefecto() {
+        RegistroIdiomas r = new RegistroIdiomas(Long.getLong("boggle.idiomas.memoriaMb", MEMORIA_POR_DEFECTO_MB) << 20);
+        r.registrar(Idioma.ESPANOL);
+        r.registrar(Idioma.INGLES);
+        r.registrar(Idioma.PORTUGUES);
+        return r;
+    }
+
+    public void registrar(Idioma idioma) {
+        idiomas.put(idioma.getCodigo(), idioma);
+    }
+
+    public Idioma getIdioma(String codigo) {
+        return idiomas.get(codigo);
+    }
+
+    public List<Idioma> getIdiomas() {
+        return new ArrayList<>(idiomas.values());
+    }
+
+    /**
+     * Paquete del idioma, cargándolo si no está en memoria (en el hilo que llama; si otro hilo ya lo
+     * está cargando, espera a esa carga).
+     */
+    public Paquete obtener(String codigo) throws IOException {
+        Paquete p = residente(codigo);
+        if (p != null) {
+            C_ACIERTOS.incrementar();
+            return p;
+        }
+        Idioma idioma = idiomas.get(codigo);
+        if (idioma == null) throw new IllegalArgumentException("Idioma no registrado: " + codigo);
+
+        CompletableFuture<Paquete> nueva = new CompletableFuture<>();
+        CompletableFuture<Paquete> enCurso = cargando.putIfAbsent(codigo, nueva);
+        if (enCurso != null) return esperar(enCurso);
+        try {
+            // Otro hilo pudo terminar de cargarlo entre la primera comprobación y el putIfAbsent
+            p = residente(codigo);
+            if (p == null) {
+                p = cargar(idioma);
+                guardar(p);
+            }
+            nueva.complete(p);
+            return p;
+        } catch (IOException | RuntimeException e) {
+            nueva.completeExceptionally(e);
+            throw e;
+        } finally {
+            cargando.remove(codigo, nueva);
+        }
+    }
+
+    public synchronized boolean esResidente(String codigo) {
+        return residentes.containsKey(codigo);
+    }
+
+    public synchronized long getMemoriaUsada() {
+        return memoriaUsada;
+    }
+
+    private synchronized Paquete residente(String codigo) {
+        return residentes.get(codigo);
+    }
+
+    private synchronized void guardar(Paquete p) {
+        residentes.put(p.idioma.getCodigo(), p);
+        memoriaUsada += p.diccionario.getBytesAproximados();
+        Iterator<Paquete> it = residentes.values().iterator();
+        while (memoriaUsada > memoriaMaxima && residentes.size() > 1) {
+            Paquete viejo = it.next();
+            it.remove();
+            memoriaUsada -= viejo.diccionario.getBytesAproximados();
+            C_EXPULSIONES.incrementar();
+            System.out.printf("[Idiomas] Expulsado %s (%d KB) para dejar sitio a %s%n",
+                    viejo.idioma.getCodigo(), viejo.diccionario.getBytesAproximados() >> 10, p.idioma.getCodigo());
+        }
+    }
+
+    private static Paquete cargar(Idioma idioma) throws IOException {
+        long t0 = System.nanoTime();
+        TrieDictionary d = new TrieDictionary();
+        DictionaryLoader.loadIntoDictionary(idioma.getRecursoDiccionario(), d, idioma.getReglasCarga());
+        DiccionarioCongelado congelado = d.freeze();
+        H_CARGA.registrarDesde(t0);
+        C_CARGAS.incrementar();
+        System.out.printf("[Idiomas] Cargado %s: %d palabras, %d KB en %d ms%n", idioma.getCodigo(),
+                congelado.size(), congelado.getBytesAproximados() >> 10, (System.nanoTime() - t0) / 1_000_000L);
+        return new Paquete(idioma, congelado);
+    }
+
+    private static Paquete esperar(CompletableFuture<Paquete> carga) throws IOException {
+        try {
+            return carga.join();
+        } catch (CompletionException e) {
+            Throwable causa = e.getCause();
+            if (causa instanceof IOException) throw (IOException) causa;
+            if (causa instanceof RuntimeException) throw (RuntimeException) causa;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Herramienta offline para cambiar el número de particiones del almacén de jugadores.
+ *
+ * Uso: java -cp ... utils.ReparticionarJugadores <carpetaDatos> <N>
+ *
+ * Lee el almacén actual de la carpeta (particionado, o el fichero único datos_partidas.dat si aún no
+ * se ha particionado), escribe todos los jugadores en "jugadores.nuevo" con N particiones y al final
+ * intercambia las carpetas. La carpeta anterior se conserva como "jugadores.anterior-<millis>".
+ * La aplicación no debe estar en marcha sobre esa carpeta mientras se ejecuta.
+ */
+public final class ReparticionarJugadores {
+    private ReparticionarJugadores() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Uso: ReparticionarJugadores <carpetaDatos> <particiones>");
+            System.exit(2);
+        }
+        File dirDatos = new File(args[0]);
+        int n = Integer.parseInt(args[1]);
+        reparticionar(dirDatos, n);
+    }
+
+    public static void reparticionar(File dirDatos, int n) throws IOException {
+        File actual = new File(dirDatos, AlmacenParticionado.DIRECTORIO);
+        File nuevo = new File(dirDatos, AlmacenParticionado.DIRECTORIO + ".nuevo");
+        if (nuevo.exists()) borrarCarpeta(nuevo); // restos de una ejecución interrumpida
+
+        AlmacenJugadores origen = AlmacenJugadores.abrir(dirDatos);
+        long inicio = System.nanoTime();
+        int[] copiados = {0};
+        IOException[] error = {null};
+        try (AlmacenParticionado destino = AlmacenParticionado.crear(nuevo, n)) {
+            origen.recorrer(j -> {
+                if (error[0] != null) return;
+                try {
+                    if (destino.agregarSiNoExiste(j)) copiados[0]++;
+                } catch (IOException e) {
+                    error[0] = e;
+                }
+            });
+        } finally {
+            if (origen instanceof AlmacenParticionado) ((AlmacenParticionado) origen).close();
+        }
+        if (error[0] != null) throw error[0];
+
+        if (actual.exists()) {
+            File anterior = new File(dirDatos, AlmacenParticionado.DIRECTORIO + ".anterior-" + System.currentTimeMillis());
+            Files.move(actual.toPath(), anterior.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            System.out.println("Almacén anterior conservado en " + anterior);
+        }
+        Files.move(nuevo.toPath(), actual.toPath(), StandardCopyOption.ATOMIC_MOVE);
+
+        long ms = (System.nanoTime() - inicio) / 1_000_000L;
+        System.out.printf("Reparticionado: %d jugadores en %d particiones (%d ms) -> %s%n",
+                copiados[0], n, ms, actual);
+    }
+
+    private static void borrarCarpeta(File dir) throws IOException {
+        File[] hijos = dir.listFiles();
+        if (hijos != null) {
+            for (File h : hijos) {
+                if (h.isDirectory()) borrarCarpeta(h);
+                else Files.delete(h.toPath());
+            }
+        }
+        Files.delete(dir.toPath());
+    }
+}
@@ -0,0 +1,275 @@
+package utils;
+
+import logic.Jugador;
+import logic.Scoreboard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Repositorio de jugadores compartido por todo el proceso (uno por almacén de datos).
+ *
+ * - Carga el almacén una sola vez, en segundo plano (precargar()), en un ConcurrentHashMap.
+ * - Las lecturas se sirven desde memoria; solo esperan si la precarga aún no terminó.
+ * - Las escrituras actualizan la memoria y se propagan a disco a través de ColaPersistencia.
+ * - Cuenta las búsquedas por nombre que encuentran al jugador en memoria y las que no, y las
+ *   lecturas que esperaron a la precarga; los contadores siempre están activos y se reflejan en
+ *   Metricas (jugadores.cache.*) junto con el tiempo de la precarga.
+ * - El ranking completo se sirve por páginas desde una clasificación ordenada que se reconstruye
+ *   (en el hilo "Consultas", nunca en el EDT) solo cuando alguna escritura la dejó obsoleta.
+ */
+public final class RepositorioJugadores {
+
+    private static final Map<String, RepositorioJugadores> INSTANCIAS = new ConcurrentHashMap<>();
+
+    // La caché guarda el almacén entero: un fallo es un nombre que no está, no una lectura de disco
+    private static final Metricas.Contador C_ACIERTOS = Metricas.contador("jugadores.cache.aciertos");
+    private static final Metricas.Contador C_FALLOS = Metricas.contador("jugadores.cache.fallos");
+    private static final Metricas.Contador C_ESPERAS = Metricas.contador("jugadores.cache.esperas");
+    private static final Metricas.Contador C_ESCRITURAS = Metricas.contador("jugadores.escrituras");
+    private static final Metricas.Histograma H_PRECARGA = Metricas.histograma("jugadores.precarga");
+
+    private final ColaPersistencia persistencia;
+    private final Map<String, Jugador> cache = new ConcurrentHashMap<>();
+
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private final LongAdder esperas = new LongAdder();
+    private final LongAdder escrituras = new LongAdder();
+
+    private volatile CompletableFuture<Void> carga;
+    private volatile long milisCarga = -1;
+
+    // Clasificación ordenada y la versión de la caché sobre la que se construyó
+    private final AtomicLong version = new AtomicLong();
+    private volatile Clasificacion clasificacion;
+    private final ExecutorService consultas = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "Consultas");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final class Clasificacion {
+        final long version;
+        final Jugador[] orden;
+
+        Clasificacion(long version, Jugador[] orden) {
+            this.version = version;
+            this.orden = orden;
+        }
+    }
+
+    private RepositorioJugadores(AlmacenJugadores almacen) {
+        this.persistencia = new ColaPersistencia(almacen);
+    }
+
+    // Instancia única por almacén (según su ubicación) para todo el proceso
+    public static RepositorioJugadores de(AlmacenJugadores almacen) {
+        return INSTANCIAS.computeIfAbsent(almacen.getUbicacion(), k -> new RepositorioJugadores(almacen));
+    }
+
+    public ColaPersistencia getPersistencia() {
+        return persistencia;
+    }
+
+    // ---------------------------------------------------------------------------------
+    // Precarga
+    // ---------------------------------------------------------------------------------
+
+    /**
+     * Lanza (una sola vez) la carga completa del almacén en la caché. Es idempotente:
+     * llamadas posteriores devuelven el mismo future. Si la carga falló, se reintenta.
+     */
+    public synchronized CompletableFuture<Void> precargar() {
+        CompletableFuture<Void> actual = carga;
+        if (actual != null && !actual.isCompletedExceptionally()) return actual;
+
+        long inicio = System.nanoTime();
+        carga = persistencia.enviar(() -> {
+            persistencia.getAlmacen().recorrer(j -> cache.putIfAbsent(j.getNombre(), j));
+            version.incrementAndGet();
+            long nanos = System.nanoTime() - inicio;
+            milisCarga = nanos / 1_000_000L;
+            H_PRECARGA.registrar(nanos);
+            System.out.printf("[Jugadores] Caché precargada: %d jugadores en %d ms%n", cache.size(), milisCarga);
+            return null;
+        });
+        return carga;
+    }
+
+    public boolean estaPrecargado() {
+        CompletableFuture<Void> c = carga;
+        return c != null && c.isDone() && !c.isCompletedExceptionally();
+    }
+
+    // ---------------------------------------------------------------------------------
+    // Lecturas (desde memoria)
+    // ---------------------------------------------------------------------------------
+
+    // Devuelve una copia del jugador con ese nombre, o null si no existe
+    public CompletableFuture<Jugador> buscar(String nombre) {
+        return listo().thenApply(v -> {
+            Jugador j = consultar(nombre);
+            return j == null ? null : j.copia();
+        });
+    }
+
+    public CompletableFuture<Boolean> hayJugadores() {
+        return listo().thenApply(v -> !cache.isEmpty());
+    }
+
+    // Copias de todos los jugadores (sin orden)
+    public CompletableFuture<List<Jugador>> todos() {
+        return listo().thenApply(v -> copias());
+    }
+
+    // Top 10 con los mismos criterios que Scoreboard.obtenerRanking
+    public CompletableFuture<ArrayList<Jugador>> ranking() {
+        return listo().thenApply(v -> Scoreboard.obtenerRanking(copias()));
+    }
+
+    // ---------------------------------------------------------------------------------
+    // Ranking paginado (se calcula en el hilo de consultas)
+    // ---------------------------------------------------------------------------------
+
+    public CompletableFuture<Integer> totalRanking() {
+        return listo().thenApplyAsync(v -> clasificacionActual().orden.length, consultas);
+    }
+
+    // Copias de los jugadores en las posiciones [desde, desde+tam) del ranking
+    public CompletableFuture<List<Jugador>> paginaRanking(int desde, int tam) {
+        return listo().thenApplyAsync(v -> {
+            List<Jugador> pagina = Scoreboard.pagina(clasificacionActual().orden, desde, tam);
+            pagina.replaceAll(Jugador::copia);
+            return pagina;
+        }, consultas);
+    }
+
+    // Posición (desde 0) del jugador en el ranking, o -1 si no existe
+    public CompletableFuture<Integer> posicionEnRanking(String nombre) {
+        return listo().thenApplyAsync(v -> {
+            Jugador j = consultar(nombre);
+            return j == null ? -1 : Scoreboard.posicion(clasificacionActual().orden, j);
+        }, consultas);
+    }
+
+    public int getTotalJugadores() {
+        return cache.size();
+    }
+
+    // ---------------------------------------------------------------------------------
+    // Escrituras (memoria + disco)
+    // ---------------------------------------------------------------------------------
+
+    /**
+     * Registra el jugador si el nombre está libre. La reserva en memoria es atómica,
+     * así que dos registros simultáneos con el mismo nombre no pueden ganar ambos.
+     */
+    public CompletableFuture<Boolean> registrar(Jugador j) {
+        return listo().thenCompose(v -> {
+            Jugador copia = j.copia();
+            if (cache.putIfAbsent(copia.getNombre(), copia) != null) {
+                return CompletableFuture.completedFuture(false);
+            }
+            contarEscritura();
+            version.incrementAndGet();
+            return persistencia.agregarSiNoExiste(copia).whenComplete((ok, e) -> {
+                // Si no se pudo escribir (o el nombre ya estaba en disco, p. ej. lo registró otro
+                // proceso), la memoria no debe adelantarse al disco
+                if ((e != null || !ok) && cache.remove(copia.getNombre(), copia)) version.incrementAndGet();
+            });
+        });
+    }
+
+    public CompletableFuture<Void> actualizar(Jugador j) {
+        Jugador copia = j.copia();
+        cache.put(copia.getNombre(), copia);
+        contarEscritura();
+        version.incrementAndGet();
+        return persistencia.actualizarJugador(copia);
+    }
+
+    // ---------------------------------------------------------------------------------
+    // Estadísticas
+    // ---------------------------------------------------------------------------------
+
+    public long getAciertos() {
+        return aciertos.sum();
+    }
+
+    public long getFallos() {
+        return fallos.sum();
+    }
+
+    public long getEsperas() {
+        return esperas.sum();
+    }
+
+    // Fracción de búsquedas por nombre que encontraron al jugador en memoria
+    public double getTasaAciertos() {
+        long a = aciertos.sum(), f = fallos.sum();
+        return a + f == 0 ? 0.0 : (double) a / (a + f);
+    }
+
+    public long getMilisCarga() {
+        return milisCarga;
+    }
+
+    public String resumenEstadisticas() {
+        return String.format("jugadores=%d | carga=%d ms | aciertos=%d | fallos=%d | tasa=%.1f%% | esperas=%d | escrituras=%d",
+                cache.size(), milisCarga, getAciertos(), getFallos(), getTasaAciertos() * 100.0, getEsperas(),
+                escrituras.sum());
+    }
+
+    // Future de la precarga, contando las lecturas que tuvieron que esperarla
+    private CompletableFuture<Void> listo() {
+        if (estaPrecargado()) return carga;
+        esperas.increment();
+        C_ESPERAS.incrementar();
+        return precargar();
+    }
+
+    private Jugador consultar(String nombre) {
+        Jugador j = cache.get(nombre);
+        if (j != null) {
+            aciertos.increment();
+            C_ACIERTOS.incrementar();
+        } else {
+            fallos.increment();
+            C_FALLOS.incrementar();
+        }
+        return j;
+    }
+
+    private void contarEscritura() {
+        escrituras.increment();
+        C_ESCRITURAS.incrementar();
+    }
+
+    // Solo desde el hilo de consultas. Se lee la versión antes de copiar: si llega una escritura
+    // durante la copia, la próxima consulta volverá a ordenar.
+    private Clasificacion clasificacionActual() {
+        Clasificacion c = clasificacion;
+        long v = version.get();
+        if (c == null || c.version != v) {
+            c = new Clasificacion(v, Scoreboard.ordenar(cache.values()));
+            clasificacion = c;
+        }
+        return c;
+    }
+
+    private List<Jugador> copias() {
+        List<Jugador> res = new ArrayList<>(cache.size());
+        for (Jugador j : cache.values()) {
+            res.add(j.copia());
+        }
+        return res;
+    }
+}
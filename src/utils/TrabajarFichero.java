@@ -1,108 +1,318 @@
 package utils;
 
 import logic.Jugador;
-import logic.Partida;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
 import java.util.ArrayList;
+import java.util.function.Consumer;
 
+/**
+ * Acceso al fichero de jugadores: [int totalJugadores] ([int longitud][bytes Jugador serializado])*
+ *
+ * Toda la E/S pasa por el canal compartido de CerrojoFichero, con bloqueos válidos entre procesos:
+ *  - lecturas: bloqueo compartido;
+ *  - agregar: cabecera exclusiva [0,4) + cola exclusiva (nadie más cuenta ni anexa a la vez);
+ *  - actualizar: exclusivo solo sobre el rango del registro (o desde el registro hasta el final
+ *    si cambia de tamaño y hay que desplazar el resto).
+ */
 public class TrabajarFichero {
+
+    private static final int MAX_REINTENTOS = 3; // intentos optimistas de actualizarJugador
+
+    private static final Metricas.Histograma H_BUSCAR = Metricas.histograma("fichero.buscar");
+    private static final Metricas.Histograma H_ACTUALIZAR = Metricas.histograma("fichero.actualizar");
+    private static final Metricas.Histograma H_AGREGAR = Metricas.histograma("fichero.agregar");
+    private static final Metricas.Histograma H_OBTENER = Metricas.histograma("fichero.obtenerTodos");
+    private static final Metricas.Histograma H_RECORRER = Metricas.histograma("fichero.recorrer");
+    private static final Metricas.Contador C_ACTUALIZAR_EXCLUSIVO = Metricas.contador("fichero.actualizar.exclusivo");
+
     public static void crearEncabezado(File fichero) throws FileNotFoundException {
-        RandomAccessFile raf = abrirRaf(fichero);
-        try {
-            if (raf.length() == 0) {
-                raf.writeInt(0); // Escribir el encabezado con el número de jugadores
-                raf.close();
+        EventosJfr.OperacionFichero evento = EventosJfr.OperacionFichero.iniciar("crearEncabezado", fichero);
+        CerrojoFichero cerrojo = CerrojoFichero.de(fichero);
+        try (CerrojoFichero.Bloqueo b = cerrojo.escritura(0, 4)) {
+            FileChannel ch = b.canal();
+            if (ch.size() == 0) {
+                escribirInt(ch, 0, 0); // Escribir el encabezado con el número de jugadores
             }
         } catch (IOException e) {
             throw new RuntimeException(e);
+        } finally {
+            EventosJfr.OperacionFichero.terminar(evento);
         }
     }
-        public static long buscarJugadorFichero(File fichero, Jugador j) throws IOException, ClassNotFoundException {
-            boolean encontrado = false;
-            long posicion = -1;
-            RandomAccessFile raf = abrirRaf(fichero);
-            if(raf.length()>0) {
-                raf.seek(0);
-                int totalJugadores = raf.readInt();
-                if (totalJugadores > 0) {
-                    while (totalJugadores-- > 0 && !encontrado) {
-                        long posicionActual = raf.getFilePointer();
-                        byte[] array = new byte[raf.readInt()];
-                        raf.read(array);
-                        Jugador jugadorLeido = (Jugador) Convert.toObject(array);
-                        if (jugadorLeido.compareTo(j)) {
-                            encontrado = true;
-                            posicion = posicionActual;
-                        }
-                    }
-                }
-                raf.close();
+
+    public static long buscarJugadorFichero(File fichero, Jugador j) throws IOException, ClassNotFoundException {
+        long t0 = Metricas.inicio();
+        EventosJfr.OperacionFichero evento = EventosJfr.OperacionFichero.iniciar("buscar", fichero);
+        try {
+            CerrojoFichero cerrojo = CerrojoFichero.de(fichero);
+            try (CerrojoFichero.Bloqueo b = cerrojo.lectura()) {
+                return buscarPosicion(b.canal(), j);
             }
-            return posicion;
+        } finally {
+            H_BUSCAR.registrarDesde(t0);
+            EventosJfr.OperacionFichero.terminar(evento);
         }
+    }
 
-        public static void actualizarJugador(File fichero, Jugador j) throws IOException, ClassNotFoundException {
-        long posicion = buscarJugadorFichero(fichero, j);
-        if (posicion != -1) {
-            RandomAccessFile raf = abrirRaf(fichero);
-            raf.seek(posicion);
+    public static void actualizarJugador(File fichero, Jugador j) throws IOException, ClassNotFoundException {
+        long t0 = Metricas.inicio();
+        EventosJfr.OperacionFichero evento = EventosJfr.OperacionFichero.iniciar("actualizar", fichero);
+        try {
+            CerrojoFichero cerrojo = CerrojoFichero.de(fichero);
             byte[] jugadorActualizadoBytes = Convert.toBytes(j);
-            raf.writeInt(jugadorActualizadoBytes.length);
-            raf.write(jugadorActualizadoBytes);
-            raf.close();
-        } else {
-            throw new IllegalArgumentException("Jugador no encontrado en el fichero.");
-        }
 
+            // Intentos optimistas: buscar en compartido y bloquear en exclusivo solo el registro
+            for (int intento = 0; intento < MAX_REINTENTOS; intento++) {
+                long posicion;
+                int longitudAnterior;
+                try (CerrojoFichero.Bloqueo b = cerrojo.lectura()) {
+                    FileChannel ch = b.canal();
+                    posicion = buscarPosicion(ch, j);
+                    if (posicion == -1) {
+                        throw new IllegalArgumentException("Jugador no encontrado en el fichero.");
+                    }
+                    longitudAnterior = leerInt(ch, posicion);
+                }
+
+                boolean mismoTamano = jugadorActualizadoBytes.length == longitudAnterior;
+                long tamRango = mismoTamano ? 4L + longitudAnterior : CerrojoFichero.HASTA_EL_FINAL - posicion;
+                try (CerrojoFichero.Bloqueo b = cerrojo.escritura(posicion, tamRango)) {
+                    FileChannel ch = b.canal();
+                    // Entre la búsqueda y el bloqueo otro proceso pudo desplazar registros: revalidar
+                    if (registroEn(ch, posicion, longitudAnterior, j)) {
+                        sobrescribirRegistro(ch, posicion, longitudAnterior, jugadorActualizadoBytes);
+                        return;
+                    }
+                }
+            }
+
+            // Mucha contención: todos los datos en exclusivo, se busca y se escribe sin soltar el bloqueo
+            C_ACTUALIZAR_EXCLUSIVO.incrementar();
+            try (CerrojoFichero.Bloqueo b = cerrojo.escritura(4, CerrojoFichero.HASTA_EL_FINAL - 4)) {
+                FileChannel ch = b.canal();
+                long posicion = buscarPosicion(ch, j);
+                if (posicion == -1) {
+                    throw new IllegalArgumentException("Jugador no encontrado en el fichero.");
+                }
+                sobrescribirRegistro(ch, posicion, leerInt(ch, posicion), jugadorActualizadoBytes);
+            }
+        } finally {
+            H_ACTUALIZAR.registrarDesde(t0);
+            EventosJfr.OperacionFichero.terminar(evento);
         }
+    }
+
+    // Agrega el jugador al final si no existe. Devuelve false si ya estaba.
+    public static boolean agregarJugador(File fichero, Jugador j) throws IOException, ClassNotFoundException {
+        long t0 = Metricas.inicio();
+        EventosJfr.OperacionFichero evento = EventosJfr.OperacionFichero.iniciar("agregar", fichero);
+        try {
+            CerrojoFichero cerrojo = CerrojoFichero.de(fichero);
+            byte[] jugadorBytes = Convert.toBytes(j);
 
-        public static void agregarJugador(File fichero, Jugador j) throws IOException, ClassNotFoundException {
-            if (buscarJugadorFichero(fichero, j) == -1) {
-                RandomAccessFile raf = abrirRaf(fichero);
-                raf.seek(0);
-                int totalJugadores = raf.readInt();
-                raf.seek(0);
-                raf.writeInt(++totalJugadores);
-                raf.seek(raf.length());
-                byte[] jugadorBytes = Convert.toBytes(j);
-                raf.writeInt(jugadorBytes.length);
-                raf.write(jugadorBytes);
-                raf.close();
+            // La cabecera exclusiva serializa a todos los que agregan (en cualquier proceso)
+            try (CerrojoFichero.Bloqueo b = cerrojo.escritura(0, 4)) {
+                FileChannel ch = b.canal();
+                // Datos en compartido mientras se comprueba que el nombre está libre
+                FileLock datos = b.rango(4, CerrojoFichero.HASTA_EL_FINAL - 4, true);
+                if (buscarPosicion(ch, j) != -1) return false;
+                long fin = ch.size();
+                datos.release();
+
+                // Cola exclusiva: cualquier desplazamiento pendiente de otro proceso termina antes
+                b.rango(fin, CerrojoFichero.HASTA_EL_FINAL - fin, false);
+                int totalJugadores = ch.size() >= 4 ? leerInt(ch, 0) : 0;
+                escribirRegistro(ch, ch.size(), jugadorBytes);
+                escribirInt(ch, 0, totalJugadores + 1);
+                return true;
             }
+        } finally {
+            H_AGREGAR.registrarDesde(t0);
+            EventosJfr.OperacionFichero.terminar(evento);
         }
+    }
 
-        public static ArrayList<Jugador> obtenerJugadores(File fichero) throws IOException, ClassNotFoundException {
-        RandomAccessFile raf = abrirRaf(fichero);
-        ArrayList<Jugador> jugadores = new ArrayList<>();
-            if (raf.length() > 0) {
-                raf.seek(0);
-                int totalJugadores = raf.readInt();
-                if (totalJugadores > 0) {
-                    while (totalJugadores-- > 0) {
-                        byte[] array = new byte[raf.readInt()];
-                        raf.read(array);
-                        Jugador j= (Jugador)Convert.toObject(array);
-                        jugadores.add(j);
+    public static ArrayList<Jugador> obtenerJugadores(File fichero) throws IOException, ClassNotFoundException {
+        long t0 = Metricas.inicio();
+        EventosJfr.OperacionFichero evento = EventosJfr.OperacionFichero.iniciar("obtenerTodos", fichero);
+        try {
+            CerrojoFichero cerrojo = CerrojoFichero.de(fichero);
+            ArrayList<Jugador> jugadores = new ArrayList<>();
+            try (CerrojoFichero.Bloqueo b = cerrojo.lectura()) {
+                FileChannel ch = b.canal();
+                if (ch.size() > 0) {
+                    DataInputStream in = flujoDesde(ch, 0);
+                    int totalJugadores = in.readInt();
+                    if (totalJugadores > 0) {
+                        while (totalJugadores-- > 0) {
+                            byte[] array = new byte[in.readInt()];
+                            in.readFully(array);
+                            Jugador j = (Jugador) Convert.toObject(array);
+                            jugadores.add(j);
+                        }
+                    } else {
+                        throw new IllegalArgumentException("No hay jugadores en el archivo");
                     }
-                    raf.close();
-                }else {
-                    throw new IllegalArgumentException("No hay jugadores en el archivo");
+                } else {
+                    throw new IllegalArgumentException("No hay datos en el archivo");
                 }
-            }else {
-                throw new IllegalArgumentException("No hay datos en el archivo");
             }
             return jugadores;
+        } finally {
+            H_OBTENER.registrarDesde(t0);
+            EventosJfr.OperacionFichero.terminar(evento);
+        }
+    }
 
+    // Recorre los jugadores uno a uno sin cargarlos todos en memoria (no lanza excepción si está vacío)
+    public static void recorrerJugadores(File fichero, Consumer<Jugador> visitor) throws IOException, ClassNotFoundException {
+        long t0 = Metricas.inicio();
+        EventosJfr.OperacionFichero evento = EventosJfr.OperacionFichero.iniciar("recorrer", fichero);
+        try {
+            CerrojoFichero cerrojo = CerrojoFichero.de(fichero);
+            try (CerrojoFichero.Bloqueo b = cerrojo.lectura()) {
+                FileChannel ch = b.canal();
+                if (ch.size() < 4) return;
+                DataInputStream in = flujoDesde(ch, 0);
+                int totalJugadores = in.readInt();
+                while (totalJugadores-- > 0) {
+                    byte[] array = new byte[in.readInt()];
+                    in.readFully(array);
+                    visitor.accept((Jugador) Convert.toObject(array));
+                }
+            }
+        } finally {
+            H_RECORRER.registrarDesde(t0);
+            EventosJfr.OperacionFichero.terminar(evento);
+        }
+    }
+
+    // Lee solo la cabecera (0 si el fichero está vacío)
+    public static int contarJugadores(File fichero) throws IOException {
+        EventosJfr.OperacionFichero evento = EventosJfr.OperacionFichero.iniciar("contar", fichero);
+        try {
+            CerrojoFichero cerrojo = CerrojoFichero.de(fichero);
+            try (CerrojoFichero.Bloqueo b = cerrojo.lectura()) {
+                FileChannel ch = b.canal();
+                return ch.size() >= 4 ? leerInt(ch, 0) : 0;
+            }
+        } finally {
+            EventosJfr.OperacionFichero.terminar(evento);
         }
+    }
 
+    // ---------------------------------------------------------------------------------
+    // Internos (el llamador ya tiene el bloqueo adecuado)
+    // ---------------------------------------------------------------------------------
 
+    private static long buscarPosicion(FileChannel ch, Jugador j) throws IOException, ClassNotFoundException {
+        if (ch.size() < 4) return -1;
+        DataInputStream in = flujoDesde(ch, 0);
+        int totalJugadores = in.readInt();
+        long posicionActual = 4;
+        while (totalJugadores-- > 0) {
+            int longitud = in.readInt();
+            byte[] array = new byte[longitud];
+            in.readFully(array);
+            Jugador jugadorLeido = (Jugador) Convert.toObject(array);
+            if (jugadorLeido.compareTo(j)) {
+                return posicionActual;
+            }
+            posicionActual += 4 + longitud;
+        }
+        return -1;
+    }
 
-        private static RandomAccessFile abrirRaf(File fichero) throws FileNotFoundException {
-            RandomAccessFile raf = new RandomAccessFile(fichero, "rw");
-            return raf;
+    private static void sobrescribirRegistro(FileChannel ch, long posicion, int longitudAnterior, byte[] bytes) throws IOException {
+        if (bytes.length == longitudAnterior) {
+            escribirRegistro(ch, posicion, bytes);
+            return;
         }
+        // El registro cambia de tamaño (p. ej. la primera fecha de partida): desplazar el resto
+        long inicioResto = posicion + 4 + longitudAnterior;
+        ByteBuffer resto = ByteBuffer.allocate((int) (ch.size() - inicioResto));
+        leerCompleto(ch, resto, inicioResto);
+        resto.flip();
+        long fin = escribirRegistro(ch, posicion, bytes);
+        escribirCompleto(ch, resto, fin);
+        ch.truncate(fin + resto.limit());
+    }
+
+    // ¿Sigue estando el registro de j, con esa longitud, en esa posición?
+    private static boolean registroEn(FileChannel ch, long posicion, int longitud, Jugador j) throws IOException, ClassNotFoundException {
+        if (posicion + 4 + longitud > ch.size() || leerInt(ch, posicion) != longitud) return false;
+        ByteBuffer buf = ByteBuffer.allocate(longitud);
+        leerCompleto(ch, buf, posicion + 4);
+        return ((Jugador) Convert.toObject(buf.array())).compareTo(j);
+    }
+
+    // Escribe [longitud][bytes] en la posición; devuelve la posición siguiente
+    private static long escribirRegistro(FileChannel ch, long posicion, byte[] bytes) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(4 + bytes.length);
+        buf.putInt(bytes.length).put(bytes).flip();
+        escribirCompleto(ch, buf, posicion);
+        return posicion + 4 + bytes.length;
+    }
+
+    private static int leerInt(FileChannel ch, long posicion) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(4);
+        leerCompleto(ch, buf, posicion);
+        return buf.getInt(0);
+    }
+
+    private static void escribirInt(FileChannel ch, long posicion, int valor) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(4);
+        buf.putInt(valor).flip();
+        escribirCompleto(ch, buf, posicion);
+    }
+
+    private static void leerCompleto(FileChannel ch, ByteBuffer buf, long posicion) throws IOException {
+        long base = posicion - buf.position();
+        while (buf.hasRemaining()) {
+            int n = ch.read(buf, base + buf.position());
+            if (n < 0) throw new EOFException("Fichero de jugadores truncado");
+            EventosJfr.OperacionFichero.leidos(n);
+        }
+    }
+
+    private static void escribirCompleto(FileChannel ch, ByteBuffer buf, long posicion) throws IOException {
+        long base = posicion - buf.position();
+        while (buf.hasRemaining()) {
+            EventosJfr.OperacionFichero.escritos(ch.write(buf, base + buf.position()));
+        }
+    }
+
+    // Lectura secuencial con buffer mediante lecturas posicionales (no mueve la posición del canal)
+    private static DataInputStream flujoDesde(FileChannel ch, long inicio) {
+        InputStream posicional = new InputStream() {
+            private long pos = inicio;
+
+            @Override
+            public int read() throws IOException {
+                byte[] uno = new byte[1];
+                return read(uno, 0, 1) < 0 ? -1 : (uno[0] & 0xFF);
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = ch.read(ByteBuffer.wrap(b, off, len), pos);
+                if (n > 0) {
+                    pos += n;
+                    EventosJfr.OperacionFichero.leidos(n);
+                }
+                return n;
+            }
+        };
+        return new DataInputStream(new BufferedInputStream(posicional, 1 << 16));
     }
+}